@@ -0,0 +1,116 @@
+package com.staqueue;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Debug overlay with the bytes a canvas allocates per frame.
+ *
+ * The count comes from the JVM's per-thread allocation counter
+ * (com.sun.management.ThreadMXBean). A painter reads the counter of its
+ * thread before and after the work of one frame and records the difference;
+ * a frame split between the EDT and a render thread records the sum of both
+ * parts. The overlay shows the last frame and the mean of the last FRAMES
+ * frames. On a JVM without the counter it says so instead.
+ */
+final class AllocationMeter {
+
+    private static final int FRAMES = 60;
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+    private static final long BIAS = bias(); // what reading the counter costs itself
+    private static final Color PANEL = new Color(0, 0, 0, 170);
+    private static final Color TEXT = new Color(255, 215, 0);
+
+    private volatile boolean enabled;
+
+    // guarded by this
+    private final long[] history = new long[FRAMES];
+    private int frames;
+
+    // EDT only
+    private long shownLast = -1, shownMean = -1;
+    private String text = "";
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    void setEnabled(boolean on) {
+        enabled = on;
+        synchronized (this) {
+            frames = 0;
+        }
+    }
+
+    // Counter of the calling thread, or 0 when disabled or unsupported
+    long mark() {
+        return enabled && THREADS != null ? THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    // Bytes the calling thread allocated since mark
+    long since(long mark) {
+        if (!enabled || THREADS == null)
+            return 0;
+        return Math.max(0, THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) - mark - BIAS);
+    }
+
+    synchronized void record(long bytes) {
+        history[frames++ % FRAMES] = bytes;
+    }
+
+    // Draws the overlay in the top right corner of the visible area
+    void paint(Graphics g, Rectangle visible) {
+        if (!enabled)
+            return;
+        long last, mean;
+        synchronized (this) {
+            int n = Math.min(frames, FRAMES);
+            long sum = 0;
+            for (int i = 0; i < n; i++)
+                sum += history[i];
+            last = frames == 0 ? 0 : history[(frames - 1) % FRAMES];
+            mean = n == 0 ? 0 : sum / n;
+        }
+        if (last != shownLast || mean != shownMean) { // only format when the numbers change
+            shownLast = last;
+            shownMean = mean;
+            text = THREADS == null ? "allocation counter not supported by this JVM"
+                    : String.format("alloc/frame %,d B  (mean of %d: %,d B)", last, FRAMES, mean);
+        }
+        int w = g.getFontMetrics().stringWidth(text) + 16, h = 22;
+        int x = visible.x + visible.width - w - 8, y = visible.y + 8;
+        g.setColor(PANEL);
+        g.fillRect(x, y, w, h);
+        g.setColor(TEXT);
+        g.drawString(text, x + 8, y + 15);
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        try {
+            java.lang.management.ThreadMXBean t = ManagementFactory.getThreadMXBean();
+            if (t instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean s = (com.sun.management.ThreadMXBean) t;
+                if (s.isThreadAllocatedMemorySupported()) {
+                    s.setThreadAllocatedMemoryEnabled(true);
+                    return s;
+                }
+            }
+        } catch (LinkageError | UnsupportedOperationException e) {
+            // not a HotSpot-style JVM
+        }
+        return null;
+    }
+
+    private static long bias() {
+        if (THREADS == null)
+            return 0;
+        long id = Thread.currentThread().getId(), least = Long.MAX_VALUE;
+        for (int i = 0; i < 100; i++) {
+            long a = THREADS.getThreadAllocatedBytes(id);
+            least = Math.min(least, THREADS.getThreadAllocatedBytes(id) - a);
+        }
+        return least;
+    }
+}
@@ -78,6 +78,7 @@ public class BFSVisualizerPanel extends JPanel {
     private final JButton btnMove = new JButton("Move");
     private final JButton btnDelete = new JButton("Delete");
     private final JButton btnClear = new JButton("Clear");
+    private final JButton btnFit = new JButton("Fit");
     private final JComboBox<Integer> startSelector = new JComboBox<>();
     private final JCheckBox chkDirected = new JCheckBox("Directed");
     private final JButton btnRun = new JButton("Run BFS");
@@ -91,6 +92,9 @@ public class BFSVisualizerPanel extends JPanel {
     private final JLabel queueLabel = new JLabel("Queue: []");
     private final JLabel orderLabel = new JLabel("Order: []");
     private final DrawPanel canvas = new DrawPanel();
+    private final FrameRenderer renderer = new FrameRenderer(canvas, "BFS");
+    private final JCheckBox chkRenderThread = new JCheckBox("Render thread");
+    private final JCheckBox chkAlloc = new JCheckBox("Alloc/frame");
 
     // >>> Added: larger font for bottom output labels <<<
     private static final Font STATUS_FONT = new Font(Font.MONOSPACED, Font.BOLD, 16);
@@ -106,10 +110,22 @@ public class BFSVisualizerPanel extends JPanel {
 
     private boolean directedMode = false;
     private Edge lastMove = null;
+    private GraphScene.Structure structure; // null after an edit to the nodes or edges
+    // refilled in turn; the render thread may still be painting the other
+    private final GraphScene[] scenes = {
+            new GraphScene(R, "In Queue", "Queue Head"), new GraphScene(R, "In Queue", "Queue Head") };
 
     // Geometry
     private static final int R = 20;
     private static final int W = 900, H = 540;
+    // MIN_ZOOM is small enough for nodes to shrink to points and density tiles
+    private static final double MIN_ZOOM = 0.02, MAX_ZOOM = 4;
+    private static final double WHEEL_ZOOM = 1.15; // zoom factor per wheel notch
+    private static final int FIT_MARGIN = 40;
+
+    // view transform: canvas point = graph point * zoom + pan
+    private double zoom = 1, panX, panY;
+    private Point dragFrom; // last mouse point while panning
 
     // ---------- Dry Run additions (non-breaking) ----------
     private final DefaultListModel<String> pseudoModel = new DefaultListModel<>();
@@ -174,6 +190,9 @@ public class BFSVisualizerPanel extends JPanel {
         topBar.add(btnMove);
         topBar.add(btnDelete);
         topBar.add(btnClear);
+        btnFit.setToolTipText("Show the whole graph. Wheel zooms; in Move mode dragging the background pans");
+        btnFit.addActionListener(e -> fitView());
+        topBar.add(btnFit);
         lblStart.setForeground(Color.WHITE);
         lblStart.setOpaque(false);
         topBar.add(lblStart);
@@ -191,6 +210,16 @@ public class BFSVisualizerPanel extends JPanel {
         lblSpeed.setOpaque(false);
         topBar.add(lblSpeed);
         topBar.add(speed);
+        chkRenderThread.setOpaque(false);
+        chkRenderThread.setForeground(Color.WHITE);
+        chkRenderThread.setToolTipText("Draw frames on a background thread; the UI thread only copies them to the screen");
+        chkRenderThread.addActionListener(e -> renderer.setEnabled(chkRenderThread.isSelected()));
+        chkAlloc.setOpaque(false);
+        chkAlloc.setForeground(Color.WHITE);
+        chkAlloc.setToolTipText("Show how many bytes each frame of the canvas allocates");
+        chkAlloc.addActionListener(e -> renderer.setAllocationOverlay(chkAlloc.isSelected()));
+        topBar.add(chkRenderThread);
+        topBar.add(chkAlloc);
 
         add(topBar, BorderLayout.NORTH);
 
@@ -272,6 +301,7 @@ public class BFSVisualizerPanel extends JPanel {
     private void toggleDirected(boolean on) {
         if (on == directedMode)
             return;
+        structure = null;
         directedMode = on;
 
         // Rebuild edges/adj according to new mode
@@ -317,6 +347,7 @@ public class BFSVisualizerPanel extends JPanel {
 
     // --- Core operations (kept; internals now step through small phases) ---
     private void clear() {
+        structure = null;
         nodes.clear();
         edges.clear();
         adj.clear();
@@ -326,6 +357,8 @@ public class BFSVisualizerPanel extends JPanel {
         draggingNode = -1;
         hoverNode = -1;
         lastMove = null;
+        zoom = 1;
+        panX = panY = 0;
         resetBFSState();
         if (timer != null)
             timer.stop();
@@ -365,6 +398,7 @@ public class BFSVisualizerPanel extends JPanel {
     }
 
     private void addNode(int x, int y) {
+        structure = null;
         Node node = new Node(nodes.size(), x, y);
         nodes.add(node);
         startSelector.addItem(node.id);
@@ -377,6 +411,7 @@ public class BFSVisualizerPanel extends JPanel {
     private void addEdge(int u, int v) {
         if (u == v)
             return;
+        structure = null;
         if (directedMode) {
             Edge e = new Edge(u, v, true);
             if (edges.add(e))
@@ -392,6 +427,7 @@ public class BFSVisualizerPanel extends JPanel {
     }
 
     private void removeEdge(int u, int v) {
+        structure = null;
         if (directedMode) {
             Edge e = new Edge(u, v, true);
             if (edges.remove(e)) {
@@ -410,6 +446,7 @@ public class BFSVisualizerPanel extends JPanel {
     private void removeNode(int id) {
         if (id < 0 || id >= nodes.size())
             return;
+        structure = null;
         // Remove edges involving id
         java.util.List<Edge> toRemove = new ArrayList<>();
         for (Edge e : edges)
@@ -600,10 +637,12 @@ public class BFSVisualizerPanel extends JPanel {
                 @Override
                 public void mousePressed(MouseEvent e) {
                     if (mode == Mode.ADD_NODE) {
-                        addNode(e.getX(), e.getY());
+                        addNode(graphX(e.getX()), graphY(e.getY()));
                         repaint();
                     } else if (mode == Mode.MOVE) {
                         draggingNode = findNodeAt(e.getX(), e.getY());
+                        if (draggingNode == -1)
+                            dragFrom = e.getPoint();
                     } else if (mode == Mode.DELETE) {
                         int id = findNodeAt(e.getX(), e.getY());
                         if (id != -1) {
@@ -628,8 +667,14 @@ public class BFSVisualizerPanel extends JPanel {
                 public void mouseDragged(MouseEvent e) {
                     if (mode == Mode.MOVE && draggingNode != -1) {
                         Node nd = nodes.get(draggingNode);
-                        nd.x = e.getX();
-                        nd.y = e.getY();
+                        nd.x = graphX(e.getX());
+                        nd.y = graphY(e.getY());
+                        structure = null;
+                        repaint();
+                    } else if (dragFrom != null) {
+                        panX += e.getX() - dragFrom.x;
+                        panY += e.getY() - dragFrom.y;
+                        dragFrom = e.getPoint();
                         repaint();
                     }
                 }
@@ -637,126 +682,114 @@ public class BFSVisualizerPanel extends JPanel {
                 @Override
                 public void mouseReleased(MouseEvent e) {
                     draggingNode = -1;
+                    dragFrom = null;
+                }
+
+                @Override
+                public void mouseWheelMoved(MouseWheelEvent e) {
+                    zoomAt(e.getX(), e.getY(), Math.pow(WHEEL_ZOOM, -e.getPreciseWheelRotation()));
                 }
             };
             addMouseListener(ma);
             addMouseMotionListener(ma);
+            addMouseWheelListener(ma);
         }
 
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
-            Graphics2D g2 = (Graphics2D) g.create();
-            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-            // draw edges
-            g2.setStroke(new BasicStroke(2f));
-            g2.setColor(new Color(115, 115, 120));
-            for (Edge e : edges) {
-                Node a = nodes.get(e.u);
-                Node b = nodes.get(e.v);
-                if (e.directed)
-                    drawArrow(g2, a.x, a.y, b.x, b.y, 10);
-                else
-                    g2.drawLine(a.x, a.y, b.x, b.y);
-            }
-            // highlight last traversed edge
-            if (lastMove != null) {
-                g2.setColor(new Color(220, 80, 80));
-                g2.setStroke(new BasicStroke(3f));
-                Node a = nodes.get(lastMove.u);
-                Node b = nodes.get(lastMove.v);
-                drawArrow(g2, a.x, a.y, b.x, b.y, 12);
-            }
-            // temporary edge
-            if (mode == Mode.ADD_EDGE && pendingEdgeStart != -1 && hoverNode != -1 && hoverNode != pendingEdgeStart) {
-                Node a = nodes.get(pendingEdgeStart);
-                Node b = nodes.get(hoverNode);
-                Stroke ds = new BasicStroke(1.5f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_ROUND, 1f,
-                        new float[] { 6f, 6f }, 0f);
-                g2.setStroke(ds);
-                g2.drawLine(a.x, a.y, b.x, b.y);
-            }
-
-            // draw nodes
-            for (int i = 0; i < nodes.size(); i++) {
-                Node nd = nodes.get(i);
-                boolean inQ = queue.contains(i);
-                boolean isVisited = visited != null && visited[i];
-                boolean isHead = (!queue.isEmpty() && queue.peekFirst() == i);
-                Color fill = new Color(70, 80, 200);
-                if (isVisited)
-                    fill = new Color(60, 160, 80); // visited -> green
-                if (inQ)
-                    fill = new Color(200, 160, 60); // in queue -> amber
-                if (isHead)
-                    fill = new Color(200, 80, 60); // queue head -> red
-
-                if (i == hoverNode)
-                    fill = fill.brighter();
-
-                g2.setColor(fill);
-                g2.fillOval(nd.x - R, nd.y - R, 2 * R, 2 * R);
-                g2.setColor(Color.WHITE);
-                g2.setStroke(new BasicStroke(2f));
-                g2.drawOval(nd.x - R, nd.y - R, 2 * R, 2 * R);
-
-                String label = String.valueOf(i);
-                FontMetrics fm = g2.getFontMetrics();
-                int tx = nd.x - fm.stringWidth(label) / 2;
-                int ty = nd.y + fm.getAscent() / 2 - 2;
-                g2.drawString(label, tx, ty);
-            }
-
-            // legend
-            drawLegend(g2);
-            g2.dispose();
+            renderer.paint(g, BFSVisualizerPanel.this::snapshot);
         }
+    }
 
-        private void drawLegend(Graphics2D g2) {
-            int x = 12, y = 12;
-            g2.setFont(getFont());
-            g2.setColor(Color.WHITE);
-            g2.drawString("Legend:", x, y + 0);
-            y += 6;
-            y = legendItem(g2, x, y + 14, new Color(70, 80, 200), "Unvisited");
-            y = legendItem(g2, x, y + 14, new Color(200, 160, 60), "In Queue");
-            y = legendItem(g2, x, y + 14, new Color(200, 80, 60), "Queue Head");
-            y = legendItem(g2, x, y + 14, new Color(60, 160, 80), "Visited");
+    // Positions and edges for the scenes, shared until the next structural edit
+    private GraphScene.Structure buildStructure() {
+        GraphScene.Structure st = new GraphScene.Structure(nodes.size(), edges.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            st.x[i] = nodes.get(i).x;
+            st.y[i] = nodes.get(i).y;
         }
+        int k = 0;
+        for (Edge e : edges) {
+            st.edgeU[k] = e.u;
+            st.edgeV[k] = e.v;
+            st.directed[k++] = e.directed;
+        }
+        return st;
+    }
 
-        private int legendItem(Graphics2D g2, int x, int y, Color c, String name) {
-            g2.setColor(c);
-            g2.fillRect(x, y, 18, 12);
-            g2.setColor(Color.WHITE);
-            g2.drawRect(x, y, 18, 12);
-            g2.drawString("  " + name, x + 22, y + 11);
-            return y;
+    // Copies what the canvas shows into a scene the render thread can paint
+    private GraphScene snapshot() {
+        if (structure == null)
+            structure = buildStructure();
+        GraphScene s = renderer.reuse(scenes[0], scenes[1]);
+        s.reset(structure, canvas, zoom, panX, panY);
+        for (int i = 0; i < visited.length && i < s.state.length; i++) {
+            if (visited[i])
+                s.state[i] = GraphScene.VISITED;
+        }
+        for (int id : queue)
+            s.state[id] = GraphScene.WAITING;
+        if (!queue.isEmpty())
+            s.state[queue.peekFirst()] = GraphScene.NEXT;
+        s.hover = hoverNode;
+        if (lastMove != null) {
+            s.moveU = lastMove.u;
+            s.moveV = lastMove.v;
+        }
+        if (mode == Mode.ADD_EDGE && pendingEdgeStart != -1 && hoverNode != -1 && hoverNode != pendingEdgeStart) {
+            s.pendingU = pendingEdgeStart;
+            s.pendingV = hoverNode;
         }
+        return s;
+    }
+
+    // --- View ---
+
+    // Zooms by factor, keeping the graph point under (cx, cy) in place
+    private void zoomAt(int cx, int cy, double factor) {
+        double next = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+        panX = cx - (cx - panX) * next / zoom;
+        panY = cy - (cy - panY) * next / zoom;
+        zoom = next;
+        canvas.repaint();
+    }
 
-        private void drawArrow(Graphics2D g2, int x1, int y1, int x2, int y2, int size) {
-            double dx = x2 - x1, dy = y2 - y1;
-            double dist = Math.hypot(dx, dy);
-            if (dist < 1)
-                return;
-            double ux = dx / dist, uy = dy / dist;
-            int sx1 = (int) (x1 + ux * R * 0.9), sy1 = (int) (y1 + uy * R * 0.9);
-            int sx2 = (int) (x2 - ux * R * 0.9), sy2 = (int) (y2 - uy * R * 0.9);
-            g2.drawLine(sx1, sy1, sx2, sy2);
-            double angle = Math.atan2(dy, dx);
-            double a1 = angle - Math.toRadians(25);
-            double a2 = angle + Math.toRadians(25);
-            int hx1 = (int) (sx2 - size * Math.cos(a1));
-            int hy1 = (int) (sy2 - size * Math.sin(a1));
-            int hx2 = (int) (sx2 - size * Math.cos(a2));
-            int hy2 = (int) (sy2 - size * Math.sin(a2));
-            g2.drawLine(sx2, sy2, hx1, hy1);
-            g2.drawLine(sx2, sy2, hx2, hy2);
+    // Centers the graph and zooms it to fill the canvas, never above 1
+    private void fitView() {
+        zoom = 1;
+        panX = panY = 0;
+        if (!nodes.isEmpty() && canvas.getWidth() > 0) {
+            int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+            for (Node nd : nodes) {
+                minX = Math.min(minX, nd.x);
+                minY = Math.min(minY, nd.y);
+                maxX = Math.max(maxX, nd.x);
+                maxY = Math.max(maxY, nd.y);
+            }
+            double w = maxX - minX + 2.0 * (R + FIT_MARGIN), h = maxY - minY + 2.0 * (R + FIT_MARGIN);
+            zoom = Math.max(MIN_ZOOM, Math.min(1, Math.min(canvas.getWidth() / w, canvas.getHeight() / h)));
+            panX = canvas.getWidth() / 2.0 - (minX + maxX) / 2.0 * zoom;
+            panY = canvas.getHeight() / 2.0 - (minY + maxY) / 2.0 * zoom;
         }
+        canvas.repaint();
+    }
+
+    // Canvas point to graph coordinates
+    private int graphX(int cx) {
+        return (int) Math.round((cx - panX) / zoom);
+    }
+
+    private int graphY(int cy) {
+        return (int) Math.round((cy - panY) / zoom);
     }
 
     // --- Utilities ---
-    private int findNodeAt(int mx, int my) {
+
+    // Node under the canvas point, -1 if none
+    private int findNodeAt(int cx, int cy) {
+        int mx = graphX(cx), my = graphY(cy);
         for (int i = nodes.size() - 1; i >= 0; i--) {
             Node nd = nodes.get(i);
             int dx = mx - nd.x;
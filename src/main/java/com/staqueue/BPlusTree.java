@@ -0,0 +1,367 @@
+package com.staqueue;
+
+import java.util.Arrays;
+
+/**
+ * B+-tree over int keys, the model of the B-tree tab.
+ *
+ * Every key lives in a leaf and the leaves are linked in key order, so a
+ * range scan finds the first leaf in O(log n) and then walks the links for
+ * the k keys it reports. Internal nodes only route: child i holds the keys
+ * from keys[i - 1] up to, but not including, keys[i]. A node holds up to
+ * fanout - 1 keys, and every node but the root at least (fanout - 1) / 2.
+ * A node is one array of keys, so a lookup reads a handful of cache lines
+ * per level instead of one node per comparison as a binary tree does.
+ *
+ * Changes are split in two so the tab can animate them: add() and remove()
+ * change the leaf only, and each fixStep() call then does one split,
+ * borrow or merge on the way back up, with what it did in fixKind and
+ * fixFocus. insert() and delete() run both parts at once.
+ */
+final class BPlusTree {
+
+    static final int MIN_FANOUT = 3, MAX_FANOUT = 256;
+
+    // what the last fixStep() did
+    static final int NONE = 0, SPLIT = 1, NEW_ROOT = 2, BORROW_LEFT = 3, BORROW_RIGHT = 4, MERGE = 5,
+            SHRINK = 6;
+
+    static final class Node {
+        final int[] keys; // one slot spare for the key that makes it split
+        final Node[] children; // null in a leaf
+        int count;
+        Node parent;
+        Node prev, next; // leaves only, in key order
+        int x, y, width; // canvas layout, set by the tab
+
+        Node(int fanout, boolean leaf) {
+            keys = new int[fanout];
+            children = leaf ? null : new Node[fanout + 1];
+        }
+
+        boolean isLeaf() {
+            return children == null;
+        }
+    }
+
+    private final int fanout, maxKeys, minKeys;
+    private Node root;
+    private int size;
+
+    // rebalancing still to be done from this node up, null when there is none
+    private Node pending;
+    int fixKind = NONE;
+    Node fixFocus; // the node the last step changed
+
+    BPlusTree(int fanout) {
+        if (fanout < MIN_FANOUT || fanout > MAX_FANOUT)
+            throw new IllegalArgumentException("fanout must be " + MIN_FANOUT + ".." + MAX_FANOUT + ": " + fanout);
+        this.fanout = fanout;
+        maxKeys = fanout - 1;
+        minKeys = (fanout - 1) / 2;
+        root = new Node(fanout, true);
+    }
+
+    int fanout() {
+        return fanout;
+    }
+
+    int size() {
+        return size;
+    }
+
+    Node root() {
+        return root;
+    }
+
+    // Levels from the root to the leaves; an empty tree is one empty leaf
+    int height() {
+        int h = 1;
+        for (Node n = root; !n.isLeaf(); n = n.children[0])
+            h++;
+        return h;
+    }
+
+    // The leftmost leaf, where the linked list of leaves starts
+    Node firstLeaf() {
+        Node n = root;
+        while (!n.isLeaf())
+            n = n.children[0];
+        return n;
+    }
+
+    // Which child of an internal node leads to the key
+    static int childIndex(Node n, int k) {
+        int lo = 0, hi = n.count; // first key > k
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (n.keys[mid] <= k)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    // Position of the first key >= k in a node
+    static int lowerBound(Node n, int k) {
+        int lo = 0, hi = n.count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (n.keys[mid] < k)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    // The leaf the key is in, or would go in
+    Node leafFor(int k) {
+        Node n = root;
+        while (!n.isLeaf())
+            n = n.children[childIndex(n, k)];
+        return n;
+    }
+
+    boolean contains(int k) {
+        Node leaf = leafFor(k);
+        int i = lowerBound(leaf, k);
+        return i < leaf.count && leaf.keys[i] == k;
+    }
+
+    boolean insert(int k) {
+        if (!add(k))
+            return false;
+        while (fixStep()) {
+        }
+        return true;
+    }
+
+    boolean delete(int k) {
+        if (!remove(k))
+            return false;
+        while (fixStep()) {
+        }
+        return true;
+    }
+
+    // Puts the key in its leaf, which may be left one key over full for
+    // fixStep(); false if the key was already there
+    boolean add(int k) {
+        Node leaf = leafFor(k);
+        int i = lowerBound(leaf, k);
+        if (i < leaf.count && leaf.keys[i] == k)
+            return false;
+        System.arraycopy(leaf.keys, i, leaf.keys, i + 1, leaf.count - i);
+        leaf.keys[i] = k;
+        leaf.count++;
+        size++;
+        pending = leaf;
+        return true;
+    }
+
+    // Takes the key out of its leaf, which may be left one key short for
+    // fixStep(); false if the key was not there. Separators equal to the
+    // key may stay in the internal nodes: they still route correctly.
+    boolean remove(int k) {
+        Node leaf = leafFor(k);
+        int i = lowerBound(leaf, k);
+        if (i == leaf.count || leaf.keys[i] != k)
+            return false;
+        System.arraycopy(leaf.keys, i + 1, leaf.keys, i, leaf.count - i - 1);
+        leaf.count--;
+        size--;
+        pending = leaf;
+        return true;
+    }
+
+    // One split, borrow or merge; false once the tree is valid again
+    boolean fixStep() {
+        Node n = pending;
+        if (n == null)
+            return false;
+        if (n.count > maxKeys) {
+            split(n);
+            return true;
+        }
+        if (n != root && n.count < minKeys) {
+            rebalance(n);
+            return true;
+        }
+        if (n == root && !n.isLeaf() && n.count == 0) {
+            root = n.children[0];
+            root.parent = null;
+            fixKind = SHRINK;
+            fixFocus = root;
+            pending = null;
+            return true;
+        }
+        pending = null;
+        return false;
+    }
+
+    // Halves an overfull node; a leaf copies its right half's first key up
+    // to the parent, an internal node moves its middle key up
+    private void split(Node n) {
+        boolean leaf = n.isLeaf();
+        Node right = new Node(fanout, leaf);
+        int mid = n.count / 2, separator;
+        if (leaf) {
+            right.count = n.count - mid;
+            System.arraycopy(n.keys, mid, right.keys, 0, right.count);
+            separator = right.keys[0];
+            right.next = n.next;
+            if (n.next != null)
+                n.next.prev = right;
+            n.next = right;
+            right.prev = n;
+        } else {
+            separator = n.keys[mid];
+            right.count = n.count - mid - 1;
+            System.arraycopy(n.keys, mid + 1, right.keys, 0, right.count);
+            System.arraycopy(n.children, mid + 1, right.children, 0, right.count + 1);
+            Arrays.fill(n.children, mid + 1, n.count + 1, null);
+            for (int i = 0; i <= right.count; i++)
+                right.children[i].parent = right;
+        }
+        n.count = mid;
+
+        Node p = n.parent;
+        if (p == null) {
+            p = root = new Node(fanout, false);
+            p.children[0] = n;
+            n.parent = p;
+            fixKind = NEW_ROOT;
+        } else {
+            fixKind = SPLIT;
+        }
+        int at = indexIn(p, n);
+        System.arraycopy(p.keys, at, p.keys, at + 1, p.count - at);
+        System.arraycopy(p.children, at + 1, p.children, at + 2, p.count - at);
+        p.keys[at] = separator;
+        p.children[at + 1] = right;
+        right.parent = p;
+        p.count++;
+        fixFocus = n;
+        pending = p;
+    }
+
+    // Fills an underfull node from a sibling with keys to spare, or merges
+    // it with one, which takes a key from the parent
+    private void rebalance(Node n) {
+        Node p = n.parent;
+        int at = indexIn(p, n);
+        Node left = at > 0 ? p.children[at - 1] : null;
+        Node right = at < p.count ? p.children[at + 1] : null;
+        fixFocus = n;
+        if (left != null && left.count > minKeys) {
+            System.arraycopy(n.keys, 0, n.keys, 1, n.count);
+            if (n.isLeaf()) {
+                n.keys[0] = left.keys[left.count - 1];
+                p.keys[at - 1] = n.keys[0];
+            } else {
+                System.arraycopy(n.children, 0, n.children, 1, n.count + 1);
+                n.keys[0] = p.keys[at - 1];
+                n.children[0] = left.children[left.count];
+                n.children[0].parent = n;
+                left.children[left.count] = null;
+                p.keys[at - 1] = left.keys[left.count - 1];
+            }
+            left.count--;
+            n.count++;
+            fixKind = BORROW_LEFT;
+            pending = null;
+        } else if (right != null && right.count > minKeys) {
+            if (n.isLeaf()) {
+                n.keys[n.count] = right.keys[0];
+                System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+                p.keys[at] = right.keys[0];
+            } else {
+                n.keys[n.count] = p.keys[at];
+                n.children[n.count + 1] = right.children[0];
+                n.children[n.count + 1].parent = n;
+                p.keys[at] = right.keys[0];
+                System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+                System.arraycopy(right.children, 1, right.children, 0, right.count);
+                right.children[right.count] = null;
+            }
+            right.count--;
+            n.count++;
+            fixKind = BORROW_RIGHT;
+            pending = null;
+        } else if (left != null) {
+            merge(left, n, at - 1);
+        } else {
+            merge(n, right, at);
+        }
+    }
+
+    // Moves b, the right neighbour of a, into a and drops the parent's key
+    // between them
+    private void merge(Node a, Node b, int separator) {
+        Node p = a.parent;
+        if (a.isLeaf()) {
+            a.next = b.next;
+            if (b.next != null)
+                b.next.prev = a;
+        } else {
+            a.keys[a.count++] = p.keys[separator];
+            System.arraycopy(b.children, 0, a.children, a.count, b.count + 1);
+            for (int i = 0; i <= b.count; i++)
+                b.children[i].parent = a;
+        }
+        System.arraycopy(b.keys, 0, a.keys, a.count, b.count);
+        a.count += b.count;
+        System.arraycopy(p.keys, separator + 1, p.keys, separator, p.count - separator - 1);
+        System.arraycopy(p.children, separator + 2, p.children, separator + 1, p.count - separator - 1);
+        p.children[p.count] = null;
+        p.count--;
+        fixKind = MERGE;
+        fixFocus = a;
+        pending = p;
+    }
+
+    private static int indexIn(Node p, Node child) {
+        int i = 0;
+        while (p.children[i] != child)
+            i++;
+        return i;
+    }
+
+    // Writes the keys in [lo, hi] in order to out, which may be null to only
+    // count them; O(log n + k)
+    int range(int lo, int hi, int[] out) {
+        int count = 0;
+        Node leaf = leafFor(lo);
+        for (int i = lowerBound(leaf, lo); leaf != null; leaf = leaf.next, i = 0) {
+            for (; i < leaf.count; i++) {
+                if (leaf.keys[i] > hi)
+                    return count;
+                if (out != null)
+                    out[count] = leaf.keys[i];
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // All keys in ascending order, from the leaf list
+    int[] keys() {
+        int[] out = new int[size];
+        int count = 0;
+        for (Node leaf = firstLeaf(); leaf != null; leaf = leaf.next) {
+            System.arraycopy(leaf.keys, 0, out, count, leaf.count);
+            count += leaf.count;
+        }
+        return out;
+    }
+
+    void clear() {
+        root = new Node(fanout, true);
+        size = 0;
+        pending = null;
+        fixKind = NONE;
+        fixFocus = null;
+    }
+}
@@ -12,22 +12,76 @@ import java.util.List;
  * UI updates:
  * - Dry Run (pseudocode) moved into a slim right panel (like BFS/DFS).
  * - Bottom area shows status (left) and traversal output (center).
+ * - Balance selector: plain BST, AVL, red-black or treap. The rotations and
+ *   recolors of the rebalancing play as steps after an insert or delete.
+ * - Nodes keep their subtree size and height, for O(1) stats and the
+ *   animated order-statistic queries: select k-th, rank, count in a range.
+ * - Ordered queries walk a single path, plus the k keys reported: floor,
+ *   ceiling, predecessor, successor, and the keys in a range.
  * Functionality otherwise unchanged.
  */
 public class BSTVisualizerPanel extends JPanel {
 
     // ===== Model =====
-    private static class Node {
+    static class Node {
         int key;
-        Node left, right;
-        int x, y; // layout position
+        Node left, right, parent;
+        int x, y; // layout position, set by snapshot() and place() from the offsets
+        int size = 1, height = 1; // nodes and levels in this subtree
+        boolean dirty; // size and height wait for refreshAugment(); so do all ancestors'
+        // tidy layout: x relative to the parent, x extent of the subtree
+        // relative to this node, and the subtree's outline level by level
+        int offset, lo, hi;
+        Contour leftContour, rightContour;
+        boolean layoutDirty = true; // waits for layoutTree(); so do all ancestors
+        boolean red; // red-black: color
+        int priority; // treap: heap key, larger nearer the root
 
         Node(int key) {
             this.key = key;
         }
     }
 
+    // One level of a subtree's left or right outline: dx is the x of the
+    // outermost node one level down minus the x of this one. Cells are never
+    // changed once built, so a parent's outline shares its deeper child's.
+    private static final class Contour {
+        int dx;
+        Contour next;
+
+        Contour(int dx, Contour next) {
+            this.dx = dx;
+            this.next = next;
+        }
+    }
+
+    private static final Contour LEAF = new Contour(0, null);
+
+    // how the tree keeps its height down after an insert or delete
+    enum Balance {
+        NONE("Plain BST"), AVL("AVL"), RED_BLACK("Red-black"), TREAP("Treap");
+
+        private final String label;
+
+        Balance(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    // rebalancing still to be done, one step per animation tick
+    private enum Fix {
+        NONE, AVL_UP, RB_INSERT, RB_DELETE, TREAP_UP, TREAP_DOWN
+    }
+
+    private Balance balance = Balance.NONE;
+    private final Random priorities = new Random();
     private Node root;
+    private Node lowest, highest; // nodes with the smallest and largest key, null when empty
     private final Set<Integer> keys = new LinkedHashSet<>(); // prevent duplicates
 
     // ===== UI =====
@@ -39,6 +93,8 @@ public class BSTVisualizerPanel extends JPanel {
     private final JLabel lblSearch = new JLabel("Search:");
     private final JTextField txtSearch = new JTextField(6);
     private final JButton btnSearch = new JButton("Find");
+    private final JLabel lblBalance = new JLabel("  Balance:");
+    private final JComboBox<Balance> balanceChoice = new JComboBox<>(Balance.values());
 
     private final JButton btnRandom = new JButton("Random 10");
     private final JButton btnNew = new JButton("New Tree");
@@ -46,6 +102,21 @@ public class BSTVisualizerPanel extends JPanel {
     private final JLabel lblCount = new JLabel("Nodes: 0");
     private final JLabel lblHeight = new JLabel("Height: 0");
 
+    private final JLabel lblOrder = new JLabel("k / key:");
+    private final JTextField txtOrder = new JTextField(6);
+    private final JButton btnSelect = new JButton("Select k");
+    private final JButton btnRank = new JButton("Rank");
+    private final JLabel lblRange = new JLabel("Range:");
+    private final JTextField txtLo = new JTextField(5);
+    private final JLabel lblTo = new JLabel("to");
+    private final JTextField txtHi = new JTextField(5);
+    private final JButton btnCount = new JButton("Count");
+    private final JButton btnRange = new JButton("List");
+    private final JButton btnFloor = new JButton("Floor");
+    private final JButton btnCeiling = new JButton("Ceiling");
+    private final JButton btnPred = new JButton("Pred");
+    private final JButton btnSucc = new JButton("Succ");
+
     private final JButton btnInorder = new JButton("Inorder");
     private final JButton btnPreorder = new JButton("Preorder");
     private final JButton btnPostorder = new JButton("Postorder");
@@ -61,9 +132,12 @@ public class BSTVisualizerPanel extends JPanel {
     private final JButton btnStep = new JButton("Step");
     private final JButton btnReset = new JButton("Reset");
 
-    // canvas + scroll
+    // canvas + view
     private final DrawPanel canvas = new DrawPanel();
-    private JScrollPane canvasScroll;
+    private final JButton btnFit = new JButton("Fit");
+    private final FrameRenderer renderer = new FrameRenderer(canvas, "BST");
+    private final JCheckBox chkRenderThread = new JCheckBox("Render thread");
+    private final JCheckBox chkAlloc = new JCheckBox("Alloc/frame");
 
     // ===== NEW: larger fonts for bottom output =====
     private static final Font TRAV_FONT = new Font(Font.MONOSPACED, Font.BOLD, 18); // traversal line
@@ -71,7 +145,7 @@ public class BSTVisualizerPanel extends JPanel {
 
     // ===== Animation state =====
     private enum Op {
-        NONE, SEARCH, INSERT, DELETE, TRAV_IN, TRAV_PRE, TRAV_POST
+        NONE, SEARCH, INSERT, DELETE, QUERY, TRAV_IN, TRAV_PRE, TRAV_POST
     }
 
     private Op currentOp = Op.NONE;
@@ -81,26 +155,121 @@ public class BSTVisualizerPanel extends JPanel {
     // search/insert/delete path animation
     private java.util.List<Node> path = new ArrayList<>();
     private int pathIndex = -1; // -1 before first step
-    private int deleteStage = 0; // 0=path to target, 1=successor path, 2=apply
+    private int deleteStage = 0; // 0=path to target, 1=successor path, 2=applied
     private Node deleteTarget = null;
     private Node deleteSuccessor = null;
     private Integer searchTarget = null;
     private Integer insertValue = null;
     private Integer deleteValue = null;
 
-    // traversal animation (explicit stack)
-    private static class Frame {
-        Node node;
-        int state;
+    // select/rank/count animation: the path is worked out up front, with the
+    // pseudocode line and status of each step and the final status
+    private final List<Integer> queryLines = new ArrayList<>();
+    private final List<String> queryNotes = new ArrayList<>();
+    private final List<Integer> queryKeys = new ArrayList<>(); // key a step reports, or null
+    private String queryResult;
+    private int queryDoneLine; // selected with the result, -1 to keep the last step's
+
+    // rebalancing after the tree changed: where it continues (fixNode, and
+    // for a red-black delete the parent of a null fixNode), and what the
+    // last step did, as a line of the fixup pseudocode and the node it acted on
+    private Fix fix = Fix.NONE;
+    private Node fixNode, fixParent, fixFocus;
+    private int fixLine;
+    private int fixBase; // index of the fixup pseudocode in pseudoModel
+    private String fixDone; // status once the fixup is finished
+
+    // Iterative in-, pre- or post-order walk on a stack of (node, state)
+    // frames kept in two arrays, so pushing a frame allocates nothing once
+    // the arrays are as deep as the tree. step() advances one frame by one
+    // state, the granularity of the animation; as an iterator it steps until
+    // the next visit.
+    private static final class Walk implements PrimitiveIterator.OfInt {
+        static final int IN = 0, PRE = 1, POST = 2;
+        private static final int LEFT = 0, RIGHT = 1, VISIT = 2;
+        // what states 1, 2 and 3 of a frame do in each order
+        private static final int[][] ACTIONS = { { LEFT, VISIT, RIGHT }, { VISIT, LEFT, RIGHT }, { LEFT, RIGHT, VISIT } };
+
+        private Node[] nodes = new Node[64];
+        private int[] states = new int[64];
+        private int depth, order;
+        Node visited; // visited by the last step, else null
+        private Node next; // found by hasNext(), not yet returned
+
+        Walk start(Node root, int order) {
+            Arrays.fill(nodes, 0, depth, null);
+            depth = 0;
+            this.order = order;
+            visited = next = null;
+            push(root);
+            return this;
+        }
+
+        boolean done() {
+            return depth == 0;
+        }
+
+        // Advances the top frame; returns the pseudocode line of the step,
+        // 1 to 4, or 0 when a finished frame was popped
+        int step() {
+            visited = null;
+            int top = depth - 1, state = states[top];
+            Node n = nodes[top];
+            if (state == 0) { // null check
+                if (n == null)
+                    depth--;
+                else
+                    states[top] = 1;
+                return 1;
+            }
+            if (state == 4) {
+                nodes[--depth] = null;
+                return 0;
+            }
+            states[top] = state + 1;
+            int action = ACTIONS[order][state - 1];
+            if (action == VISIT)
+                visited = n;
+            else
+                push(action == LEFT ? n.left : n.right);
+            return state + 1;
+        }
+
+        private void push(Node n) {
+            if (depth == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * depth);
+                states = Arrays.copyOf(states, 2 * depth);
+            }
+            nodes[depth] = n;
+            states[depth++] = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && depth > 0) {
+                step();
+                next = visited;
+            }
+            return next != null;
+        }
 
-        Frame(Node n, int s) {
-            node = n;
-            state = s;
+        @Override
+        public int nextInt() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            int key = next.key;
+            next = null;
+            return key;
         }
     }
 
-    private Deque<Frame> travStack = new ArrayDeque<>();
-    private StringBuilder travOut = new StringBuilder();
+    private final Walk travWalk = new Walk();
+    // traversal output reaches txtTraversal a key at a time through
+    // appendOutput(); a line break every OUT_KEYS keys keeps the paragraph
+    // the text area wraps again on each append short
+    private static final int OUT_KEYS = 16;
+    private final StringBuilder travOut = new StringBuilder(); // the piece being appended
+    private int outCount;
     private Set<Node> visited = new HashSet<>();
     private Node current = null; // current highlighted node
 
@@ -108,8 +277,15 @@ public class BSTVisualizerPanel extends JPanel {
     private static final int BASE_W = 940, BASE_H = 560;
     private static final int NODE_R = 18;
     private static final int LEVEL_H = 70;
-    private static final int X_GAP = 38; // base gap between in-order slots
+    private static final int NODE_GAP = 44; // least distance between node centers on one level
+    private static final int TOP_Y = 60; // y of the root
     private static final int LEFT_MARGIN = 40, RIGHT_MARGIN = 40;
+    private static final double MIN_ZOOM = 0.25, MAX_ZOOM = 4; // MIN_ZOOM gives way to fit large trees
+    private static final double WHEEL_ZOOM = 1.15; // zoom factor per wheel notch
+
+    // view transform: canvas point = layout point * zoom + pan
+    private double zoom = 1, panX, panY;
+    private Point dragFrom; // last mouse point while panning
 
     public BSTVisualizerPanel() {
         setLayout(new BorderLayout());
@@ -118,7 +294,7 @@ public class BSTVisualizerPanel extends JPanel {
         // ----- Top bar (unchanged position/layout) -----
         topBar.setBackground(new Color(40, 40, 44));
         topBar.setBorder(new EmptyBorder(6, 8, 6, 8));
-        for (JLabel l : new JLabel[] { lblSearch, lblCount, lblHeight, lblSpeed }) {
+        for (JLabel l : new JLabel[] { lblSearch, lblBalance, lblOrder, lblRange, lblTo, lblCount, lblHeight, lblSpeed }) {
             l.setForeground(Color.WHITE);
         }
 
@@ -129,15 +305,19 @@ public class BSTVisualizerPanel extends JPanel {
         // >>> apply larger font to traversal output
         txtTraversal.setFont(TRAV_FONT);
 
-        // Build top bar (2 rows x 3 columns, evenly spaced) — same as before
-        topBar.setLayout(new GridLayout(2, 3, 12, 6));
+        // Build top bar (3 rows x 3 columns, evenly spaced)
+        topBar.setLayout(new GridLayout(3, 3, 12, 6));
         JPanel pnlValue = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
         JPanel pnlSearch = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
         JPanel pnlGen = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
         JPanel pnlTrav = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
         JPanel pnlStats = new JPanel(new FlowLayout(FlowLayout.LEFT, 12, 4));
         JPanel pnlControls = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
-        for (JPanel p : new JPanel[] { pnlValue, pnlSearch, pnlGen, pnlTrav, pnlStats, pnlControls })
+        JPanel pnlOrder = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
+        JPanel pnlRange = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
+        JPanel pnlNear = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
+        for (JPanel p : new JPanel[] { pnlValue, pnlSearch, pnlGen, pnlTrav, pnlStats, pnlControls, pnlOrder, pnlRange,
+                pnlNear })
             p.setOpaque(false);
 
         JLabel valueLabel = new JLabel("Value:");
@@ -150,18 +330,55 @@ public class BSTVisualizerPanel extends JPanel {
         pnlSearch.add(lblSearch);
         pnlSearch.add(txtSearch);
         pnlSearch.add(btnSearch);
+        pnlSearch.add(lblBalance);
+        pnlSearch.add(balanceChoice);
+        balanceChoice.setToolTipText("Rebuilds the tree from its keys; rotations and recolors are animated");
         pnlGen.add(btnRandom);
         pnlGen.add(btnNew);
         pnlGen.add(btnClear);
 
+        pnlOrder.add(lblOrder);
+        pnlOrder.add(txtOrder);
+        pnlOrder.add(btnSelect);
+        pnlOrder.add(btnRank);
+        btnSelect.setToolTipText("k-th smallest key, k from 1");
+        btnRank.setToolTipText("How many keys are <= key");
+        pnlRange.add(lblRange);
+        pnlRange.add(txtLo);
+        pnlRange.add(lblTo);
+        pnlRange.add(txtHi);
+        pnlRange.add(btnCount);
+        pnlRange.add(btnRange);
+        btnCount.setToolTipText("How many keys lie in [from, to]");
+        btnRange.setToolTipText("The keys in [from, to], in order");
+        pnlNear.add(btnFloor);
+        pnlNear.add(btnCeiling);
+        pnlNear.add(btnPred);
+        pnlNear.add(btnSucc);
+        btnFloor.setToolTipText("Largest key <= the key in k / key");
+        btnCeiling.setToolTipText("Smallest key >= the key in k / key");
+        btnPred.setToolTipText("Largest key < the key in k / key");
+        btnSucc.setToolTipText("Smallest key > the key in k / key");
+
         pnlTrav.add(btnInorder);
         pnlTrav.add(btnPreorder);
         pnlTrav.add(btnPostorder);
         pnlStats.add(lblCount);
         pnlStats.add(lblHeight);
+        chkRenderThread.setOpaque(false);
+        chkRenderThread.setForeground(Color.WHITE);
+        chkRenderThread.setToolTipText("Draw frames on a background thread; the UI thread only copies them to the screen");
+        chkRenderThread.addActionListener(e -> renderer.setEnabled(chkRenderThread.isSelected()));
+        chkAlloc.setOpaque(false);
+        chkAlloc.setForeground(Color.WHITE);
+        chkAlloc.setToolTipText("Show how many bytes each frame of the canvas allocates");
+        chkAlloc.addActionListener(e -> renderer.setAllocationOverlay(chkAlloc.isSelected()));
+        pnlStats.add(chkRenderThread);
+        pnlStats.add(chkAlloc);
 
         pnlControls.add(btnStep);
         pnlControls.add(btnReset);
+        pnlControls.add(btnFit);
         pnlControls.add(lblSpeed);
         pnlControls.add(speed);
 
@@ -171,6 +388,9 @@ public class BSTVisualizerPanel extends JPanel {
         topBar.add(pnlSearch);
         topBar.add(pnlTrav);
         topBar.add(pnlStats);
+        topBar.add(pnlOrder);
+        topBar.add(pnlRange);
+        topBar.add(pnlNear);
         add(topBar, BorderLayout.NORTH);
 
         // ----- Right: Dry Run (pseudocode) panel -----
@@ -202,14 +422,39 @@ public class BSTVisualizerPanel extends JPanel {
         bottom.add(traversalScroll, BorderLayout.CENTER);
         add(bottom, BorderLayout.SOUTH);
 
-        // ----- Center: canvas (scrollable) -----
+        // ----- Center: canvas (wheel zooms, drag pans) -----
         canvas.setPreferredSize(new Dimension(BASE_W, BASE_H));
-        canvasScroll = new JScrollPane(canvas);
-        canvasScroll.setBorder(new EmptyBorder(0, 0, 0, 0));
-        canvasScroll.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
-        canvasScroll.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED);
-        canvasScroll.getHorizontalScrollBar().setUnitIncrement(24);
-        add(canvasScroll, BorderLayout.CENTER);
+        btnFit.setToolTipText("Show the whole tree. Wheel over the tree zooms, dragging pans");
+        MouseAdapter view = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragFrom = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragFrom == null)
+                    return;
+                panX += e.getX() - dragFrom.x;
+                panY += e.getY() - dragFrom.y;
+                dragFrom = e.getPoint();
+                canvas.repaint();
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                dragFrom = null;
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoomAt(e.getX(), e.getY(), Math.pow(WHEEL_ZOOM, -e.getPreciseWheelRotation()));
+            }
+        };
+        canvas.addMouseListener(view);
+        canvas.addMouseMotionListener(view);
+        canvas.addMouseWheelListener(view);
+        add(canvas, BorderLayout.CENTER);
 
         // ----- Wire actions -----
         btnInsert.addActionListener(e -> startSearchOrInsert(true));
@@ -217,6 +462,15 @@ public class BSTVisualizerPanel extends JPanel {
         btnSearch.addActionListener(e -> startSearch());
         txtValue.addActionListener(e -> btnInsert.doClick());
         txtSearch.addActionListener(e -> btnSearch.doClick());
+        btnSelect.addActionListener(e -> startSelect());
+        btnRank.addActionListener(e -> startRank());
+        btnCount.addActionListener(e -> startCount());
+        txtHi.addActionListener(e -> btnCount.doClick());
+        btnRange.addActionListener(e -> startRange());
+        btnFloor.addActionListener(e -> startNearest(true, false));
+        btnCeiling.addActionListener(e -> startNearest(false, false));
+        btnPred.addActionListener(e -> startNearest(true, true));
+        btnSucc.addActionListener(e -> startNearest(false, true));
 
         btnRandom.addActionListener(e -> {
             clear();
@@ -239,6 +493,8 @@ public class BSTVisualizerPanel extends JPanel {
 
         btnStep.addActionListener(e -> stepOnce());
         btnReset.addActionListener(e -> resetAnim());
+        btnFit.addActionListener(e -> fitView());
+        balanceChoice.addActionListener(e -> setBalance((Balance) balanceChoice.getSelectedItem()));
 
         speed.addChangeListener(e -> {
             animDelay = speed.getValue();
@@ -251,7 +507,8 @@ public class BSTVisualizerPanel extends JPanel {
 
     // ===== Basic BST operations (no animation) =====
     private void clear() {
-        root = null;
+        resetAnim();
+        root = lowest = highest = null;
         keys.clear();
         txtTraversal.setText("");
         txtValue.setText("");
@@ -281,47 +538,119 @@ public class BSTVisualizerPanel extends JPanel {
         }
     }
 
-    private void insertRaw(int key) {
+    // ===== Iterative core =====
+    // Nothing below recurses, so a degenerate tree (sorted input) of any
+    // size costs heap, not thread stack.
+
+    void insertRaw(int key) {
         if (keys.contains(key))
             return;
-        keys.add(key);
-        root = insertRec(root, key);
+        attach(key);
+        while (fixStep()) {
+        }
     }
 
-    private Node insertRec(Node node, int key) {
-        if (node == null)
-            return new Node(key);
-        if (key < node.key)
-            node.left = insertRec(node.left, key);
-        else if (key > node.key)
-            node.right = insertRec(node.right, key);
+    // Links a new node for the key where a search for it ends, and queues the
+    // rebalancing the mode needs
+    Node attach(int key) {
+        keys.add(key);
+        Node node = new Node(key);
+        node.red = true;
+        node.priority = priorities.nextInt();
+        if (root == null) {
+            root = lowest = highest = node;
+        } else if (key > highest.key) {
+            // sorted or reverse sorted input appends at an end of the key
+            // range without walking down to it
+            node.parent = highest;
+            highest.right = node;
+            highest = node;
+        } else if (key < lowest.key) {
+            node.parent = lowest;
+            lowest.left = node;
+            lowest = node;
+        } else {
+            Node cur = root;
+            while (true) {
+                Node next = key < cur.key ? cur.left : cur.right;
+                if (next == null)
+                    break;
+                cur = next;
+            }
+            node.parent = cur;
+            if (key < cur.key)
+                cur.left = node;
+            else
+                cur.right = node;
+        }
+        invalidate(node.parent);
+        switch (balance) {
+            case AVL:
+                startFix(Fix.AVL_UP, node.parent, null);
+                break;
+            case RED_BLACK:
+                startFix(Fix.RB_INSERT, node, null);
+                break;
+            case TREAP:
+                startFix(Fix.TREAP_UP, node, null);
+                break;
+            default:
+                fix = Fix.NONE;
+        }
         return node;
     }
 
-    private void deleteRaw(int key) {
-        if (!keys.contains(key))
+    void deleteRaw(int key) {
+        if (!detach(key))
             return;
-        keys.remove(key);
-        root = deleteRec(root, key);
+        while (fixStep()) {
+        }
     }
 
-    private Node deleteRec(Node node, int key) {
-        if (node == null)
-            return null;
-        if (key < node.key)
-            node.left = deleteRec(node.left, key);
-        else if (key > node.key)
-            node.right = deleteRec(node.right, key);
-        else {
-            if (node.left == null)
-                return node.right;
-            if (node.right == null)
-                return node.left;
-            Node succ = minNode(node.right);
-            node.key = succ.key;
-            node.right = deleteRec(node.right, succ.key);
+    // Takes the key's node out, or in a treap starts rotating it down, and
+    // queues the rebalancing the mode needs; false if the key is not there
+    boolean detach(int key) {
+        if (!keys.remove(key))
+            return false;
+        Node n = root;
+        while (n.key != key)
+            n = key < n.key ? n.left : n.right;
+        if (balance == Balance.TREAP) {
+            startFix(Fix.TREAP_DOWN, n, null);
+        } else {
+            if (n.left != null && n.right != null) {
+                Node succ = minNode(n.right);
+                n.key = succ.key;
+                n = succ;
+            }
+            unlink(n);
         }
-        return node;
+        return true;
+    }
+
+    // Removes a node with at most one child, moving that child up into its
+    // place, and queues the rebalancing the mode needs
+    private void unlink(Node n) {
+        Node child = n.left != null ? n.left : n.right;
+        Node parent = n.parent;
+        replaceChild(parent, n, child);
+        invalidate(parent);
+        if (n == lowest)
+            lowest = child != null ? minNode(child) : parent;
+        if (n == highest)
+            highest = child != null ? maxNode(child) : parent;
+        if (balance == Balance.AVL)
+            startFix(Fix.AVL_UP, parent, null);
+        else if (balance == Balance.RED_BLACK && !n.red)
+            startFix(Fix.RB_DELETE, child, parent);
+        else
+            fix = Fix.NONE;
+    }
+
+    private Node maxNode(Node n) {
+        while (n != null && n.right != null)
+            n = n.right;
+        return n;
     }
 
     private Node minNode(Node n) {
@@ -330,54 +659,349 @@ public class BSTVisualizerPanel extends JPanel {
         return n;
     }
 
-    private int count(Node n) {
-        return (n == null) ? 0 : 1 + count(n.left) + count(n.right);
+    // Rebuilds the tree from its keys, in the order they went in, under the
+    // new mode
+    void setBalance(Balance b) {
+        if (b == balance)
+            return;
+        resetAnim();
+        balance = b;
+        List<Integer> order = new ArrayList<>(keys);
+        root = lowest = highest = null;
+        keys.clear();
+        for (int k : order)
+            insertRaw(k);
+        relayoutAndRefresh();
+        fitView();
+        status(b + ": rebuilt from " + order.size() + " keys.");
     }
 
-    private int height(Node n) {
-        return (n == null) ? 0 : 1 + Math.max(height(n.left), height(n.right));
+    // ===== Balancing =====
+    // Each fixup runs as a loop of steps. fixStep() does one rotation or
+    // recolor and says whether more are due, so the raw operations run the
+    // loop to the end and the animations run one step per tick.
+
+    private void startFix(Fix f, Node n, Node parent) {
+        fix = n == null && f != Fix.RB_DELETE ? Fix.NONE : f;
+        fixNode = n;
+        fixParent = parent;
+        fixFocus = null;
     }
 
-    private java.util.List<Integer> inorderList() {
-        java.util.List<Integer> out = new ArrayList<>();
-        inorderRec(root, out);
-        return out;
+    // Records what a step did; next is where the fixup continues, null when
+    // it is finished
+    private boolean fixed(int line, Node focus, Node next) {
+        fixLine = line;
+        fixFocus = focus;
+        fixNode = next;
+        if (next == null)
+            fix = Fix.NONE;
+        return next != null;
     }
 
-    private void inorderRec(Node n, java.util.List<Integer> out) {
-        if (n == null)
-            return;
-        inorderRec(n.left, out);
-        out.add(n.key);
-        inorderRec(n.right, out);
+    // A red-black delete continues from x, which may be null, under parent
+    private boolean fixedAt(int line, Node focus, Node x, Node parent) {
+        fixLine = line;
+        fixFocus = focus;
+        fixNode = x;
+        fixParent = parent;
+        return true;
     }
 
-    private java.util.List<Integer> preorderList() {
-        java.util.List<Integer> out = new ArrayList<>();
-        preorderRec(root, out);
-        return out;
+    boolean fixStep() {
+        Node n = fixNode;
+        switch (fix) {
+            case AVL_UP: {
+                // heights are current; one step per rotation
+                while (n != null && Math.abs(height(n.left) - height(n.right)) <= 1)
+                    n = n.parent;
+                if (n == null)
+                    return fixed(5, null, null);
+                int lean = height(n.left) - height(n.right);
+                if (lean > 1 && height(n.left.left) < height(n.left.right)) {
+                    rotateLeft(n.left); // zig-zag: straighten it first
+                    return fixed(3, n, n);
+                }
+                if (lean < -1 && height(n.right.right) < height(n.right.left)) {
+                    rotateRight(n.right);
+                    return fixed(3, n, n);
+                }
+                Node top = lean > 1 ? rotateRight(n) : rotateLeft(n);
+                return fixed(4, top, top.parent);
+            }
+            case RB_INSERT: {
+                Node p = n.parent;
+                if (p == null || !p.red) {
+                    root.red = false;
+                    return fixed(5, n, null);
+                }
+                Node g = p.parent; // a red node is never the root
+                Node uncle = g.left == p ? g.right : g.left;
+                if (isRed(uncle)) {
+                    p.red = false;
+                    uncle.red = false;
+                    g.red = true;
+                    return fixed(2, g, g);
+                }
+                if (p == g.left && n == p.right) {
+                    rotateLeft(p);
+                    return fixed(3, n, p);
+                }
+                if (p == g.right && n == p.left) {
+                    rotateRight(p);
+                    return fixed(3, n, p);
+                }
+                p.red = false;
+                g.red = true;
+                if (p == g.left)
+                    rotateRight(g);
+                else
+                    rotateLeft(g);
+                return fixed(4, p, null);
+            }
+            case RB_DELETE: {
+                // n carries an extra black; a red n or the root can drop it
+                Node p = fixParent;
+                if (isRed(n) || p == null) {
+                    if (n != null)
+                        n.red = false;
+                    return fixed(6, n, null);
+                }
+                boolean left = n == p.left;
+                Node sibling = left ? p.right : p.left; // not null: its side has the black height n lacks
+                if (sibling.red) {
+                    sibling.red = false;
+                    p.red = true;
+                    if (left)
+                        rotateLeft(p);
+                    else
+                        rotateRight(p);
+                    return fixedAt(2, sibling, n, p);
+                }
+                Node near = left ? sibling.left : sibling.right, far = left ? sibling.right : sibling.left;
+                if (!isRed(near) && !isRed(far)) {
+                    sibling.red = true;
+                    return fixedAt(3, p, p, p.parent);
+                }
+                if (!isRed(far)) {
+                    near.red = false;
+                    sibling.red = true;
+                    if (left)
+                        rotateRight(sibling);
+                    else
+                        rotateLeft(sibling);
+                    return fixedAt(4, near, n, p);
+                }
+                sibling.red = p.red;
+                p.red = false;
+                far.red = false;
+                if (left)
+                    rotateLeft(p);
+                else
+                    rotateRight(p);
+                root.red = false;
+                return fixed(5, sibling, null);
+            }
+            case TREAP_UP: {
+                Node p = n.parent;
+                if (p == null || p.priority >= n.priority)
+                    return fixed(3, n, null);
+                if (n == p.left)
+                    rotateRight(p);
+                else
+                    rotateLeft(p);
+                return fixed(2, n, n);
+            }
+            case TREAP_DOWN: {
+                if (n.left != null && n.right != null) {
+                    Node up = n.left.priority > n.right.priority ? n.left : n.right;
+                    if (up == n.left)
+                        rotateRight(n);
+                    else
+                        rotateLeft(n);
+                    return fixed(2, up, n);
+                }
+                Node parent = n.parent;
+                unlink(n);
+                return fixed(3, parent, null);
+            }
+            default:
+                return false;
+        }
     }
 
-    private void preorderRec(Node n, java.util.List<Integer> out) {
-        if (n == null)
-            return;
-        out.add(n.key);
-        preorderRec(n.left, out);
-        preorderRec(n.right, out);
+    // Moves n's right child up into n's place and returns it
+    private Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        if (r.left != null)
+            r.left.parent = n;
+        replaceChild(n.parent, n, r);
+        r.left = n;
+        n.parent = r;
+        rotated(n, r);
+        return r;
     }
 
-    private java.util.List<Integer> postorderList() {
-        java.util.List<Integer> out = new ArrayList<>();
-        postorderRec(root, out);
-        return out;
+    // Moves n's left child up into n's place and returns it
+    private Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        if (l.right != null)
+            l.right.parent = n;
+        replaceChild(n.parent, n, l);
+        l.right = n;
+        n.parent = l;
+        rotated(n, l);
+        return l;
     }
 
-    private void postorderRec(Node n, java.util.List<Integer> out) {
-        if (n == null)
-            return;
-        postorderRec(n.left, out);
-        postorderRec(n.right, out);
-        out.add(n.key);
+    private void replaceChild(Node parent, Node old, Node child) {
+        if (parent == null)
+            root = child;
+        else if (parent.left == old)
+            parent.left = child;
+        else
+            parent.right = child;
+        if (child != null)
+            child.parent = parent;
+    }
+
+    // ===== Subtree size and height =====
+    // Every change marks the path above it dirty, up to the first node that
+    // already is. The balanced modes refresh at once (the path is O(log n)
+    // and their rotations need current heights); the plain mode refreshes
+    // when something reads them, so a bulk load of sorted keys, which marks
+    // only the new node's parent, stays linear.
+
+    private static int size(Node n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static int height(Node n) {
+        return n == null ? 0 : n.height;
+    }
+
+    private static void update(Node n) {
+        n.size = 1 + size(n.left) + size(n.right);
+        n.height = 1 + Math.max(height(n.left), height(n.right));
+        n.dirty = false;
+    }
+
+    private void invalidate(Node n) {
+        for (Node p = n; p != null && !p.dirty; p = p.parent)
+            p.dirty = true;
+        for (Node p = n; p != null && !p.layoutDirty; p = p.parent)
+            p.layoutDirty = true;
+        if (balance != Balance.NONE)
+            refreshAugment();
+    }
+
+    // Recomputes the dirty nodes, children before parents
+    private void refreshAugment() {
+        List<Node> order = stale(n -> n.dirty);
+        for (int i = order.size() - 1; i >= 0; i--)
+            update(order.get(i));
+    }
+
+    // The nodes the flag marks, parents before children. Marked nodes form a
+    // subtree at the root, so the walk never enters an unmarked one.
+    private List<Node> stale(java.util.function.Predicate<Node> marked) {
+        List<Node> order = new ArrayList<>();
+        if (root == null || !marked.test(root))
+            return order;
+        order.add(root);
+        for (int i = 0; i < order.size(); i++) {
+            Node n = order.get(i);
+            if (n.left != null && marked.test(n.left))
+                order.add(n.left);
+            if (n.right != null && marked.test(n.right))
+                order.add(n.right);
+        }
+        return order;
+    }
+
+    // After a rotation moved top into n's place: the two nodes get new
+    // subtrees, the ancestors keep their sizes but may change height, and
+    // all of them need laying out again
+    private static void rotated(Node n, Node top) {
+        update(n);
+        update(top);
+        for (Node p = top.parent; p != null; p = p.parent) {
+            int h = 1 + Math.max(height(p.left), height(p.right));
+            if (h == p.height)
+                break;
+            p.height = h;
+        }
+        n.layoutDirty = true;
+        for (Node p = top; p != null && !p.layoutDirty; p = p.parent)
+            p.layoutDirty = true;
+    }
+
+    private static boolean isRed(Node n) {
+        return n != null && n.red;
+    }
+
+    Node root() {
+        return root;
+    }
+
+    // Keys in order as they are walked, without building a list
+    PrimitiveIterator.OfInt inorderKeys() {
+        return new Walk().start(root, Walk.IN);
+    }
+
+    PrimitiveIterator.OfInt preorderKeys() {
+        return new Walk().start(root, Walk.PRE);
+    }
+
+    PrimitiveIterator.OfInt postorderKeys() {
+        return new Walk().start(root, Walk.POST);
+    }
+
+    List<Integer> inorderList() {
+        return drain(inorderKeys());
+    }
+
+    // Keys in [lo, hi] in order, without walking the rest of the tree:
+    // left subtrees of keys below lo are skipped, and the walk stops at the
+    // first key above hi. O(height + k).
+    List<Integer> rangeList(int lo, int hi) {
+        List<Integer> out = new ArrayList<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        Node n = root;
+        while (true) {
+            while (n != null) {
+                if (n.key < lo) {
+                    n = n.right;
+                } else {
+                    stack.push(n);
+                    n = n.left;
+                }
+            }
+            if (stack.isEmpty())
+                return out;
+            n = stack.pop();
+            if (n.key > hi)
+                return out;
+            out.add(n.key);
+            n = n.right;
+        }
+    }
+
+    List<Integer> preorderList() {
+        return drain(preorderKeys());
+    }
+
+    List<Integer> postorderList() {
+        return drain(postorderKeys());
+    }
+
+    private List<Integer> drain(PrimitiveIterator.OfInt keys) {
+        List<Integer> out = new ArrayList<>(this.keys.size());
+        while (keys.hasNext())
+            out.add(keys.nextInt());
+        return out;
     }
 
     private void showTraversalInstant(String name, java.util.List<Integer> list) {
@@ -487,21 +1111,21 @@ public class BSTVisualizerPanel extends JPanel {
     }
 
     private boolean insertTick() {
+        if (fix != Fix.NONE)
+            return fixTick();
+        if (keys.contains(insertValue)) // stepping past a finished insert
+            return false;
         if (root == null) {
             selectPseudo(1);
-            insertRaw(insertValue);
-            relayoutAndRefresh();
-            status("Inserted " + insertValue + " at root.");
-            return false;
+            attach(insertValue);
+            return afterChange("Inserted " + insertValue + " at root.");
         }
         if (path == null)
             path = Collections.emptyList();
         if (pathIndex + 1 >= path.size()) {
             selectPseudo(4);
-            insertRaw(insertValue);
-            relayoutAndRefresh();
-            status("Inserted " + insertValue + ".");
-            return false;
+            current = attach(insertValue);
+            return afterChange("Inserted " + insertValue + ".");
         }
         pathIndex++;
         Node cur = path.get(pathIndex);
@@ -521,6 +1145,8 @@ public class BSTVisualizerPanel extends JPanel {
     }
 
     private boolean deleteTick() {
+        if (fix != Fix.NONE)
+            return fixTick();
         if (deleteStage == 0) {
             if (path == null || path.isEmpty() || pathIndex + 1 >= path.size()) {
                 selectPseudo(1);
@@ -536,10 +1162,16 @@ public class BSTVisualizerPanel extends JPanel {
                 deleteTarget = cur;
                 if (cur.left == null || cur.right == null) {
                     selectPseudo(5);
-                    deleteRaw(deleteValue);
-                    relayoutAndRefresh();
-                    status("Deleted " + deleteValue + ".");
-                    return false;
+                    deleteStage = 2;
+                    keys.remove(deleteValue);
+                    unlink(cur);
+                    return afterChange("Deleted " + deleteValue + ".");
+                } else if (balance == Balance.TREAP) {
+                    // rotated down to where it has one child, not replaced by its successor
+                    deleteStage = 2;
+                    keys.remove(deleteValue);
+                    startFix(Fix.TREAP_DOWN, cur, null);
+                    return afterChange("Deleted " + deleteValue + ".");
                 } else {
                     selectPseudo(7);
                     deleteStage = 1;
@@ -567,16 +1199,12 @@ public class BSTVisualizerPanel extends JPanel {
             if (pathIndex + 1 >= path.size()) {
                 if (!path.isEmpty())
                     deleteSuccessor = path.get(path.size() - 1);
-                selectPseudo(5);
-                if (deleteTarget != null && deleteTarget.left != null && deleteTarget.right != null) {
-                    int succKey = minNode(deleteTarget.right).key;
-                    deleteTarget.key = succKey;
-                    root = deleteRec(root, succKey);
-                    keys.remove(deleteValue);
-                }
-                relayoutAndRefresh();
-                status("Deleted " + deleteValue + ".");
-                return false;
+                selectPseudo(8);
+                deleteStage = 2;
+                deleteTarget.key = deleteSuccessor.key;
+                keys.remove(deleteValue);
+                unlink(deleteSuccessor);
+                return afterChange("Deleted " + deleteValue + ".");
             }
             pathIndex++;
             Node cur = path.get(pathIndex);
@@ -588,6 +1216,295 @@ public class BSTVisualizerPanel extends JPanel {
         return false;
     }
 
+    // Shows the changed tree. If the mode has rebalancing to do, the next
+    // ticks do it and the status waits until it is finished.
+    private boolean afterChange(String done) {
+        relayoutAndRefresh();
+        if (fix == Fix.NONE) {
+            status(done);
+            return false;
+        }
+        fixDone = done;
+        path = new ArrayList<>();
+        pathIndex = -1;
+        visited.clear();
+        current = fixNode;
+        selectPseudo(fixBase + 1);
+        status(done + " Rebalancing...");
+        return true;
+    }
+
+    // One rebalancing step: the rotation or recolor is shown and the node it
+    // acted on highlighted
+    private boolean fixTick() {
+        boolean more = fixStep();
+        relayoutAndRefresh();
+        current = fixFocus;
+        ensureVisible(current);
+        selectPseudo(fixBase + fixLine);
+        String step = pseudoModel.get(fixBase + fixLine).trim();
+        String at = fixFocus != null ? "At " + fixFocus.key + ": " + step : step;
+        status(more ? at : fixDone + " " + at);
+        return more;
+    }
+
+    // ===== Order statistics =====
+    // Each step down uses the subtree sizes, so a query costs one root to
+    // leaf path: O(log n) in the balanced modes.
+
+    // k-th smallest key, k from 1
+    private void startSelect() {
+        Integer k = readInt(txtOrder.getText());
+        if (k == null)
+            return;
+        resetAnim();
+        refreshAugment();
+        setPseudo("Select(k): k-th smallest key",
+                "node = root",
+                "if k <= size(left): go left",
+                "else if k == size(left) + 1: found",
+                "else k -= size(left) + 1; go right");
+        if (k < 1 || k > size(root)) {
+            status("k must be between 1 and " + size(root) + ".");
+            return;
+        }
+        beginQuery();
+        int want = k;
+        Node n = root;
+        while (true) {
+            int left = size(n.left);
+            if (k <= left) {
+                queryStep(n, 2, "k = " + k + " <= size(left) = " + left + ": go left");
+                n = n.left;
+            } else if (k == left + 1) {
+                queryStep(n, 3, "k = " + k + " = size(left) + 1: found");
+                queryResult = "Key #" + want + " is " + n.key + ".";
+                break;
+            } else {
+                queryStep(n, 4, "k = " + k + " > size(left) + 1 = " + (left + 1) + ": k = " + (k - left - 1)
+                        + ", go right");
+                k -= left + 1;
+                n = n.right;
+            }
+        }
+        runQuery("Selecting key #" + want + "...");
+    }
+
+    // Number of keys <= x
+    private void startRank() {
+        Integer x = readInt(txtOrder.getText());
+        if (x == null)
+            return;
+        resetAnim();
+        refreshAugment();
+        setPseudo("Rank(x): keys <= x",
+                "rank = 0; node = root",
+                "if x < key: go left",
+                "if x > key: rank += size(left) + 1; go right",
+                "if x == key: rank += size(left) + 1; done");
+        beginQuery();
+        int rank = 0;
+        for (Node n = root; n != null;) {
+            if (x < n.key) {
+                queryStep(n, 2, x + " < " + n.key + ": go left, rank = " + rank);
+                n = n.left;
+            } else {
+                rank += size(n.left) + 1;
+                if (x == n.key) {
+                    queryStep(n, 4, "found " + x + ": rank = " + rank);
+                    break;
+                }
+                queryStep(n, 3, x + " > " + n.key + ": rank = " + rank + ", go right");
+                n = n.right;
+            }
+        }
+        queryResult = rank + (rank == 1 ? " key is" : " keys are") + " <= " + x + ".";
+        runQuery("Ranking " + x + "...");
+    }
+
+    // Number of keys in [lo, hi]: keys <= hi minus keys < lo
+    private void startCount() {
+        Integer lo = readInt(txtLo.getText()), hi = readInt(txtHi.getText());
+        if (lo == null || hi == null)
+            return;
+        resetAnim();
+        refreshAugment();
+        setPseudo("Count(lo, hi) = (keys <= hi) - (keys < lo)",
+                "walk down for hi",
+                "    hi < key: go left",
+                "    hi >= key: upTo += size(left) + 1; go right",
+                "walk down for lo",
+                "    lo <= key: go left",
+                "    lo > key: below += size(left) + 1; go right",
+                "count = upTo - below");
+        beginQuery();
+        int upTo = 0, below = 0;
+        for (Node n = root; n != null;) {
+            if (hi < n.key) {
+                queryStep(n, 2, "hi = " + hi + " < " + n.key + ": go left, upTo = " + upTo);
+                n = n.left;
+            } else {
+                upTo += size(n.left) + 1;
+                queryStep(n, 3, "hi = " + hi + " >= " + n.key + ": upTo = " + upTo + ", go right");
+                n = n.right;
+            }
+        }
+        for (Node n = root; n != null;) {
+            if (lo <= n.key) {
+                queryStep(n, 5, "lo = " + lo + " <= " + n.key + ": go left, below = " + below);
+                n = n.left;
+            } else {
+                below += size(n.left) + 1;
+                queryStep(n, 6, "lo = " + lo + " > " + n.key + ": below = " + below + ", go right");
+                n = n.right;
+            }
+        }
+        int count = Math.max(0, upTo - below);
+        queryDoneLine = 7;
+        queryResult = count + (count == 1 ? " key lies" : " keys lie") + " in [" + lo + ", " + hi + "] (" + upTo
+                + " - " + below + ").";
+        runQuery("Counting keys in [" + lo + ", " + hi + "]...");
+    }
+
+    // ===== Ordered queries =====
+    // Floor, ceiling, predecessor and successor walk one root to leaf path
+    // and keep the best key seen on it: O(height). Nothing is materialized.
+
+    // below: the largest key under x, else the smallest above it;
+    // strict: x itself does not count
+    private void startNearest(boolean below, boolean strict) {
+        Integer x = readInt(txtOrder.getText());
+        if (x == null)
+            return;
+        resetAnim();
+        String name = below ? (strict ? "Predecessor" : "Floor") : (strict ? "Successor" : "Ceiling");
+        String rel = below ? (strict ? "<" : "<=") : (strict ? ">" : ">=");
+        String toward = below ? "right" : "left", away = below ? "left" : "right";
+        List<String> lines = new ArrayList<>();
+        lines.add("best = none; node = root");
+        if (!strict)
+            lines.add("if key == x: return x");
+        lines.add(below ? "if x " + (strict ? "<=" : "<") + " key: go left"
+                : "if x " + (strict ? ">=" : ">") + " key: go right");
+        lines.add("else: best = key; go " + toward);
+        lines.add("return best");
+        setPseudo(name + "(x): " + (below ? "largest" : "smallest") + " key " + rel + " x",
+                lines.toArray(new String[0]));
+        int awayLine = strict ? 2 : 3;
+        beginQuery();
+        Integer best = null;
+        for (Node n = root; n != null;) {
+            if (!strict && n.key == x) {
+                best = n.key;
+                queryStep(n, 2, "found " + x + " itself");
+                break;
+            }
+            boolean take = below ? n.key < x : n.key > x;
+            if (take) {
+                best = n.key;
+                queryStep(n, awayLine + 1, n.key + " " + (below ? "<" : ">") + " " + x + ": best = " + best
+                        + ", go " + toward);
+                n = below ? n.right : n.left;
+            } else {
+                queryStep(n, awayLine, n.key + " " + (below ? (strict ? ">=" : ">") : (strict ? "<=" : "<")) + " " + x + ": go " + away
+                        + (best == null ? "" : ", best = " + best));
+                n = below ? n.left : n.right;
+            }
+        }
+        if (best == null || best.intValue() != x)
+            queryDoneLine = awayLine + 2;
+        queryResult = best == null ? "No key " + rel + " " + x + "." : name + "(" + x + ") = " + best + ".";
+        runQuery(name + " of " + x + "...");
+    }
+
+    // The keys in [lo, hi] in order, as rangeList() finds them: a pruned
+    // in-order walk that skips what lies below lo and stops past hi
+    private void startRange() {
+        Integer lo = readInt(txtLo.getText()), hi = readInt(txtHi.getText());
+        if (lo == null || hi == null)
+            return;
+        resetAnim();
+        setPseudo("Range(lo, hi): keys in order, O(height + k)",
+                "stack = []; node = root",
+                "while node: if key < lo: node = right",
+                "            else: push node; node = left",
+                "node = pop(); if none or key > hi: stop",
+                "report key; node = right; repeat");
+        beginQuery();
+        Deque<Node> stack = new ArrayDeque<>();
+        int count = 0;
+        Node n = root;
+        while (true) {
+            while (n != null) {
+                if (n.key < lo) {
+                    queryStep(n, 2, n.key + " < lo = " + lo + ": skip its left subtree, go right");
+                    n = n.right;
+                } else {
+                    queryStep(n, 3, n.key + " >= lo = " + lo + ": push, go left");
+                    stack.push(n);
+                    n = n.left;
+                }
+            }
+            if (stack.isEmpty())
+                break;
+            n = stack.pop();
+            if (n.key > hi) {
+                queryStep(n, 4, n.key + " > hi = " + hi + ": stop");
+                break;
+            }
+            count++;
+            queryStep(n, 5, "report " + n.key + " (" + count + " so far), go right");
+            queryKeys.set(queryKeys.size() - 1, n.key);
+            n = n.right;
+        }
+        queryDoneLine = 4;
+        queryResult = count + (count == 1 ? " key lies" : " keys lie") + " in [" + lo + ", " + hi + "].";
+        beginOutput("Range [" + lo + ", " + hi + "]: ");
+        runQuery("Listing keys in [" + lo + ", " + hi + "]...");
+    }
+
+    private void beginQuery() {
+        currentOp = Op.QUERY;
+        path = new ArrayList<>();
+        pathIndex = -1;
+        queryLines.clear();
+        queryNotes.clear();
+        queryKeys.clear();
+        queryDoneLine = -1;
+    }
+
+    private void queryStep(Node n, int line, String note) {
+        path.add(n);
+        queryLines.add(line);
+        queryNotes.add(note);
+        queryKeys.add(null);
+    }
+
+    private void runQuery(String start) {
+        selectPseudo(1);
+        status(start);
+        runTimer(this::queryTick);
+    }
+
+    private boolean queryTick() {
+        if (pathIndex + 1 >= path.size()) {
+            selectPseudo(queryDoneLine);
+            status(queryResult);
+            return false;
+        }
+        pathIndex++;
+        Node cur = path.get(pathIndex);
+        ensureVisible(cur);
+        current = cur;
+        visited.add(cur);
+        selectPseudo(queryLines.get(pathIndex));
+        status(queryNotes.get(pathIndex));
+        Integer reported = queryKeys.get(pathIndex);
+        if (reported != null)
+            appendOutput(reported);
+        return true;
+    }
+
     // ===== Traversal animations =====
     private void startTraversal(Op op) {
         if (op != Op.TRAV_IN && op != Op.TRAV_PRE && op != Op.TRAV_POST)
@@ -596,16 +1513,14 @@ public class BSTVisualizerPanel extends JPanel {
         currentOp = op;
         visited.clear();
         current = null;
-        travOut = new StringBuilder();
-        travStack.clear();
-        travStack.push(new Frame(root, 0));
+        travWalk.start(root, op == Op.TRAV_IN ? Walk.IN : op == Op.TRAV_PRE ? Walk.PRE : Walk.POST);
         if (op == Op.TRAV_IN)
             setPseudoInorder();
         else if (op == Op.TRAV_PRE)
             setPseudoPreorder();
         else
             setPseudoPostorder();
-        txtTraversal.setText("");
+        beginOutput(opName(op) + ": ");
         status(opName(op) + " traversal...");
         runTimer(() -> traversalTick(op));
     }
@@ -624,108 +1539,39 @@ public class BSTVisualizerPanel extends JPanel {
     }
 
     private boolean traversalTick(Op op) {
-        if (travStack.isEmpty()) {
-            txtTraversal.setText(opName(op) + ": " + travOut.toString());
+        if (travWalk.done()) {
             status("Traversal finished.");
             return false;
         }
-        Frame f = travStack.peek();
-        Node n = f.node;
-        if (op == Op.TRAV_IN) {
-            if (f.state == 0) {
-                selectPseudo(1);
-                if (n == null) {
-                    travStack.pop();
-                    return true;
-                }
-                f.state = 1;
-                return true;
-            } else if (f.state == 1) {
-                selectPseudo(2);
-                travStack.push(new Frame(n.left, 0));
-                f.state = 2;
-                return true;
-            } else if (f.state == 2) {
-                selectPseudo(3);
-                visitNode(n);
-                f.state = 3;
-                return true;
-            } else if (f.state == 3) {
-                selectPseudo(4);
-                travStack.push(new Frame(n.right, 0));
-                f.state = 4;
-                return true;
-            } else {
-                travStack.pop();
-                return true;
-            }
-        } else if (op == Op.TRAV_PRE) {
-            if (f.state == 0) {
-                selectPseudo(1);
-                if (n == null) {
-                    travStack.pop();
-                    return true;
-                }
-                f.state = 1;
-                return true;
-            } else if (f.state == 1) {
-                selectPseudo(2);
-                visitNode(n);
-                f.state = 2;
-                return true;
-            } else if (f.state == 2) {
-                selectPseudo(3);
-                travStack.push(new Frame(n.left, 0));
-                f.state = 3;
-                return true;
-            } else if (f.state == 3) {
-                selectPseudo(4);
-                travStack.push(new Frame(n.right, 0));
-                f.state = 4;
-                return true;
-            } else {
-                travStack.pop();
-                return true;
-            }
-        } else { // TRAV_POST
-            if (f.state == 0) {
-                selectPseudo(1);
-                if (n == null) {
-                    travStack.pop();
-                    return true;
-                }
-                f.state = 1;
-                return true;
-            } else if (f.state == 1) {
-                selectPseudo(2);
-                travStack.push(new Frame(n.left, 0));
-                f.state = 2;
-                return true;
-            } else if (f.state == 2) {
-                selectPseudo(3);
-                travStack.push(new Frame(n.right, 0));
-                f.state = 3;
-                return true;
-            } else if (f.state == 3) {
-                selectPseudo(4);
-                visitNode(n);
-                f.state = 4;
-                return true;
-            } else {
-                travStack.pop();
-                return true;
-            }
-        }
+        int line = travWalk.step();
+        if (line > 0)
+            selectPseudo(line);
+        if (travWalk.visited != null)
+            visitNode(travWalk.visited);
+        return true;
     }
 
     private void visitNode(Node n) {
         current = n;
         visited.add(n);
         ensureVisible(n);
-        if (travOut.length() > 0)
-            travOut.append(" \u2192 ");
-        travOut.append(n.key);
-        txtTraversal.setText(opName(currentOp) + ": " + travOut.toString());
+        appendOutput(n.key);
+    }
+
+    private void beginOutput(String label) {
+        txtTraversal.setText(label);
+        outCount = 0;
+    }
+
+    // Appends only the new key, so each visit costs the same however long
+    // the output already is
+    private void appendOutput(int key) {
+        travOut.setLength(0);
+        if (outCount > 0)
+            travOut.append(outCount % OUT_KEYS == 0 ? " \u2192\n" : " \u2192 ");
+        travOut.append(key);
+        outCount++;
+        txtTraversal.append(travOut.toString());
     }
 
     private void runTimer(java.util.function.Supplier<Boolean> tick) {
@@ -756,6 +1602,9 @@ public class BSTVisualizerPanel extends JPanel {
             case DELETE:
                 cont = deleteTick();
                 break;
+            case QUERY:
+                cont = queryTick();
+                break;
             case TRAV_IN:
                 cont = traversalTick(Op.TRAV_IN);
                 break;
@@ -773,9 +1622,18 @@ public class BSTVisualizerPanel extends JPanel {
             timerStop();
     }
 
+    // Stops the animation. A rebalancing left half done would leave the tree
+    // out of shape, so it runs to the end first.
     private void resetAnim() {
         if (timer != null && timer.isRunning())
             timer.stop();
+        if (fix != Fix.NONE) {
+            while (fixStep()) {
+            }
+            relayoutAndRefresh();
+        }
+        fix = Fix.NONE;
+        fixNode = fixParent = fixFocus = null;
         currentOp = Op.NONE;
         path = new ArrayList<>();
         pathIndex = -1;
@@ -812,6 +1670,26 @@ public class BSTVisualizerPanel extends JPanel {
                 "if x < cur.key: go left",
                 "else go right",
                 "repeat until null, then attach new node");
+        switch (balance) {
+            case AVL:
+                addPseudoAvl();
+                break;
+            case RED_BLACK:
+                addPseudo("Fixup(red-black)",
+                        "z = new node, colored red",
+                        "uncle red: recolor parent, uncle, grandparent; z = grandparent",
+                        "z an inner child: rotate parent; z = old parent",
+                        "recolor parent, grandparent; rotate grandparent",
+                        "parent black: root = black, done");
+                break;
+            case TREAP:
+                addPseudo("Fixup(treap)",
+                        "new node gets a random priority",
+                        "priority > parent's: rotate node up",
+                        "priority <= parent's: done");
+                break;
+            default:
+        }
     }
 
     private void setPseudoDelete() {
@@ -825,6 +1703,45 @@ public class BSTVisualizerPanel extends JPanel {
                 "    succ = min(right)",
                 "    key = succ.key",
                 "    delete succ.key in right");
+        switch (balance) {
+            case AVL:
+                addPseudoAvl();
+                break;
+            case RED_BLACK:
+                addPseudo("Fixup(red-black), if the removed node was black",
+                        "x = child that took its place, one black short",
+                        "sibling red: recolor, rotate parent",
+                        "sibling's children black: sibling = red; x = parent",
+                        "far nephew black: recolor, rotate sibling",
+                        "recolor, rotate parent; done",
+                        "x red or root: x = black, done");
+                break;
+            case TREAP:
+                addPseudo("Delete(treap), instead of the successor",
+                        "node has two children",
+                        "rotate up the child with higher priority",
+                        "one child left: unlink node");
+                break;
+            default:
+        }
+    }
+
+    private void addPseudoAvl() {
+        addPseudo("Rebalance(AVL), from the parent of the change up",
+                "node = parent of the change",
+                "walk up while balance is within \u00b11",
+                "balance \u00b12, child leans the other way: rotate child",
+                "balance \u00b12: rotate node toward the short side",
+                "reached the root: done");
+    }
+
+    // Appends the fixup pseudocode the mode runs after the operation; its
+    // lines are selected with fixBase + line
+    private void addPseudo(String title, String... lines) {
+        fixBase = pseudoModel.size();
+        pseudoModel.addElement("// " + title);
+        for (String ln : lines)
+            pseudoModel.addElement(ln);
     }
 
     private void setPseudoInorder() {
@@ -876,54 +1793,152 @@ public class BSTVisualizerPanel extends JPanel {
     }
 
     private void refreshStats() {
-        lblCount.setText("Nodes: " + count(root));
+        refreshAugment();
+        lblCount.setText("Nodes: " + size(root));
         lblHeight.setText("Height: " + height(root));
     }
 
-    private void layoutTree() {
-        if (root == null) {
-            canvas.setPreferredSize(new Dimension(BASE_W, BASE_H));
-            canvas.revalidate();
-            return;
+    // Tidy tree layout (Reingold-Tilford): each subtree is laid out on its
+    // own, then a parent sets its two subtrees side by side as close as their
+    // facing outlines allow, and centers itself above them. A lone child sits
+    // half a gap to its side. Only nodes an edit marked are laid out again,
+    // children first; the rest keep their offsets and outlines. Merging two
+    // subtrees walks the shorter outline only, so laying out the whole tree
+    // is O(n) and an edit costs its path to the root. Absolute positions are
+    // worked out while drawing, for the nodes on screen.
+    void layoutTree() {
+        refreshAugment(); // heights are the outline lengths
+        List<Node> order = stale(n -> n.layoutDirty);
+        for (int i = order.size() - 1; i >= 0; i--)
+            tidy(order.get(i));
+    }
+
+    private static void tidy(Node n) {
+        Node l = n.left, r = n.right;
+        if (l == null && r == null) {
+            n.leftContour = n.rightContour = LEAF;
+            n.lo = n.hi = 0;
+        } else if (l == null || r == null) {
+            Node c = l != null ? l : r;
+            c.offset = l != null ? -NODE_GAP / 2 : NODE_GAP / 2;
+            n.leftContour = new Contour(c.offset, c.leftContour);
+            n.rightContour = new Contour(c.offset, c.rightContour);
+            n.lo = Math.min(0, c.offset + c.lo);
+            n.hi = Math.max(0, c.offset + c.hi);
+        } else {
+            // closest the roots can be with every level NODE_GAP apart
+            int sep = NODE_GAP, xl = 0, xr = 0;
+            Contour a = l.rightContour, b = r.leftContour;
+            while (true) {
+                sep = Math.max(sep, xl - xr + NODE_GAP);
+                if (a.next == null || b.next == null)
+                    break;
+                xl += a.dx;
+                a = a.next;
+                xr += b.dx;
+                b = b.next;
+            }
+            sep += sep & 1; // even, so the parent sits on a whole pixel
+            l.offset = -sep / 2;
+            r.offset = sep / 2;
+            n.leftContour = new Contour(l.offset, join(l.leftContour, l.height, r.leftContour, r.height, sep));
+            n.rightContour = new Contour(r.offset, join(r.rightContour, r.height, l.rightContour, l.height, -sep));
+            n.lo = Math.min(l.offset + l.lo, r.offset + r.lo);
+            n.hi = Math.max(l.offset + l.hi, r.offset + r.hi);
         }
-        Map<Node, Integer> xIndex = new HashMap<>();
-        int[] counter = new int[] { 0 };
-        assignInorderX(root, xIndex, counter);
-        int total = Math.max(1, counter[0]);
-        int width = Math.max(BASE_W - LEFT_MARGIN - RIGHT_MARGIN, total * X_GAP);
-        assignXY(root, xIndex, width, 0);
+        n.layoutDirty = false;
+    }
 
-        int desiredW = LEFT_MARGIN + width + RIGHT_MARGIN;
-        canvas.setPreferredSize(new Dimension(Math.max(BASE_W, desiredW), BASE_H));
-        canvas.revalidate();
+    // The outline that follows first (levels below its root, x relative to
+    // it) and, below its last level, second, whose root is at shift. Shares
+    // first when it is the deeper one, else copies it and links on.
+    private static Contour join(Contour first, int firstLevels, Contour second, int secondLevels, int shift) {
+        if (firstLevels >= secondLevels)
+            return first;
+        int xs = shift;
+        for (int i = 0; i < firstLevels; i++) {
+            xs += second.dx;
+            second = second.next;
+        }
+        Contour head = null, tail = null;
+        int xf = 0;
+        for (int i = 0; i < firstLevels; i++) {
+            Contour c = new Contour(0, null);
+            if (tail == null)
+                head = c;
+            else
+                tail.next = c;
+            tail = c;
+            if (i < firstLevels - 1) {
+                c.dx = first.dx;
+                xf += first.dx;
+                first = first.next;
+            }
+        }
+        tail.dx = xs - xf;
+        tail.next = second;
+        return head;
     }
 
-    private void assignInorderX(Node n, Map<Node, Integer> map, int[] counter) {
-        if (n == null)
-            return;
-        assignInorderX(n.left, map, counter);
-        map.put(n, counter[0]++);
-        assignInorderX(n.right, map, counter);
+    // x of the root, with the leftmost node at the margin
+    private int rootX() {
+        return LEFT_MARGIN - root.lo;
     }
 
-    private void assignXY(Node n, Map<Node, Integer> xIndex, int width, int depth) {
-        if (n == null)
-            return;
-        int idx = xIndex.get(n);
-        int total = Math.max(1, xIndex.size());
-        int x = LEFT_MARGIN + (int) (idx * ((width - 1.0) / Math.max(1, total - 1)));
-        int y = 60 + depth * LEVEL_H;
+    // Sets n.x and n.y from the offsets on its path to the root
+    private void place(Node n) {
+        int x = rootX(), y = TOP_Y;
+        for (Node p = n; p.parent != null; p = p.parent) {
+            x += p.offset;
+            y += LEVEL_H;
+        }
         n.x = x;
         n.y = y;
-        assignXY(n.left, xIndex, width, depth + 1);
-        assignXY(n.right, xIndex, width, depth + 1);
     }
 
+    // ===== View =====
+
+    // Zooms by factor, keeping the layout point under (cx, cy) in place
+    private void zoomAt(int cx, int cy, double factor) {
+        double next = Math.max(Math.min(MIN_ZOOM, fitZoom()), Math.min(MAX_ZOOM, zoom * factor));
+        panX = cx - (cx - panX) * next / zoom;
+        panY = cy - (cy - panY) * next / zoom;
+        zoom = next;
+        canvas.repaint();
+    }
+
+    // Zoom at which the whole tree fits the canvas, never above 1
+    private double fitZoom() {
+        if (root == null || canvas.getWidth() == 0)
+            return 1;
+        double w = root.hi - root.lo + 2 * NODE_R + LEFT_MARGIN + RIGHT_MARGIN;
+        double h = TOP_Y + (root.height - 1) * LEVEL_H + NODE_R + LEFT_MARGIN;
+        return Math.min(1, Math.min(canvas.getWidth() / w, canvas.getHeight() / h));
+    }
+
+    void fitView() {
+        zoom = fitZoom();
+        if (root != null) {
+            panX = (canvas.getWidth() - (2 * LEFT_MARGIN + root.hi - root.lo) * zoom) / 2;
+            panY = 0;
+        } else {
+            panX = panY = 0;
+        }
+        canvas.repaint();
+    }
+
+    // Pans the node to the middle of the canvas unless it is already in view
     private void ensureVisible(Node n) {
         if (n == null)
             return;
-        Rectangle r = new Rectangle(n.x - 40, n.y - 40, 80, 80);
-        canvas.scrollRectToVisible(r);
+        place(n);
+        double cx = n.x * zoom + panX, cy = n.y * zoom + panY;
+        int margin = 40;
+        if (cx < margin || cy < margin || cx > canvas.getWidth() - margin || cy > canvas.getHeight() - margin) {
+            panX = canvas.getWidth() / 2.0 - n.x * zoom;
+            panY = Math.min(0, canvas.getHeight() / 2.0 - n.y * zoom);
+            canvas.repaint();
+        }
     }
 
     // ===== Drawing =====
@@ -936,70 +1951,211 @@ public class BSTVisualizerPanel extends JPanel {
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
-            Graphics2D g2 = (Graphics2D) g.create();
-            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-            // edges
-            g2.setStroke(new BasicStroke(2f));
-            g2.setColor(new Color(115, 115, 120));
-            drawEdges(g2, root);
-
-            // nodes
-            drawNodes(g2, root);
-
-            g2.dispose();
+            renderer.paint(g, BSTVisualizerPanel.this::snapshot);
         }
+    }
 
-        private void drawEdges(Graphics2D g2, Node n) {
-            if (n == null)
-                return;
+    // reused by every snapshot (EDT only)
+    private final Map<Node, Integer> onPath = new IdentityHashMap<>();
+    private final Deque<Node> snapshotStack = new ArrayDeque<>();
+    // refilled in turn; the render thread may still be painting the other
+    private final TreeScene[] scenes = { new TreeScene(64), new TreeScene(64) };
+
+    // Copies the visible part of the laid out tree and the animation
+    // highlights into a scene the render thread can paint. Subtrees whose
+    // bounds miss the view are skipped, so the copy and the paint cost follow
+    // the nodes on screen rather than the size of the tree. An edge is copied
+    // with its parent, as it can cross the view when neither end is in it.
+    private TreeScene snapshot() {
+        layoutTree(); // nothing to do unless the tree changed since the last layout
+        onPath.clear();
+        for (int i = 0; i <= pathIndex && i < path.size(); i++)
+            onPath.put(path.get(i), i);
+
+        // the view in layout coordinates, widened by a node radius
+        double left = -panX / zoom - NODE_R, top = -panY / zoom - NODE_R;
+        double right = (canvas.getWidth() - panX) / zoom + NODE_R, bottom = (canvas.getHeight() - panY) / zoom + NODE_R;
+
+        TreeScene s = renderer.reuse(scenes[0], scenes[1]);
+        s.reset(zoom, panX, panY);
+        Deque<Node> stack = snapshotStack;
+        stack.clear();
+        Node n = root;
+        if (n != null) {
+            n.x = rootX();
+            n.y = TOP_Y;
+        }
+        // positions are set top down: a child's when its parent is reached
+        while (n != null || !stack.isEmpty()) {
+            while (n != null && n.x + n.hi >= left && n.x + n.lo <= right
+                    && n.y + (n.height - 1) * LEVEL_H >= top && n.y <= bottom) {
+                stack.push(n);
+                if (n.left != null) {
+                    n.left.x = n.x + n.left.offset;
+                    n.left.y = n.y + LEVEL_H;
+                }
+                n = n.left;
+            }
+            if (stack.isEmpty())
+                break;
+            n = stack.pop();
+            if (n.right != null) {
+                n.right.x = n.x + n.right.offset;
+                n.right.y = n.y + LEVEL_H;
+            }
+            boolean isCurrent = (current == n);
+            boolean isVisited = visited.contains(n);
+            // Fallback to path coloring for search/insert/delete
+            Integer step = isVisited ? null : onPath.get(n);
+            if (step != null) {
+                isVisited = true;
+                isCurrent |= step == pathIndex;
+            }
+            byte plain = balance != Balance.RED_BLACK ? TreeScene.PLAIN : n.red ? TreeScene.RED : TreeScene.BLACK;
+            s.addNode(n.x, n.y, n.key, isCurrent ? TreeScene.CURRENT : isVisited ? TreeScene.VISITED : plain);
             if (n.left != null)
-                g2.drawLine(n.x, n.y, n.left.x, n.left.y);
+                s.addEdge(n.x, n.y, n.left.x, n.left.y);
             if (n.right != null)
-                g2.drawLine(n.x, n.y, n.right.x, n.right.y);
-            drawEdges(g2, n.left);
-            drawEdges(g2, n.right);
+                s.addEdge(n.x, n.y, n.right.x, n.right.y);
+            n = n.right;
         }
+        return s;
+    }
 
-        private void drawNodes(Graphics2D g2, Node n) {
-            if (n == null)
-                return;
-            drawNodes(g2, n.left);
+    // One frame of the tree canvas, painted on the EDT or the render thread.
+    // Nodes outside the clip are skipped, and how much of each node is drawn
+    // depends on its size on screen (see LevelOfDetail).
+    private static final class TreeScene implements FrameRenderer.Scene {
+        static final byte PLAIN = 0, VISITED = 1, CURRENT = 2, RED = 3, BLACK = 4; // RED and BLACK are plain too
+        private static final Color EDGE = new Color(115, 115, 120);
+        private static final Color[] FILL = {
+                new Color(70, 80, 200), // default
+                new Color(235, 140, 40), // visited path
+                new Color(255, 170, 60), // current step (orange)
+                new Color(200, 55, 55), // red-black: red
+                new Color(58, 58, 64) // red-black: black
+        };
+        private static final Color[] PLAIN_SHADES = LevelOfDetail.shades(FILL[PLAIN]);
+
+        private int[] x, y, key;
+        private byte[] state;
+        private int nodes;
+        private int[] lines; // x1, y1, x2, y2 per edge
+        private int edges;
+        private int maxX, maxY;
+        private double zoom, panX, panY; // view transform
+        private final java.awt.geom.Line2D.Double edge = new java.awt.geom.Line2D.Double();
+        private final Rectangle clip = new Rectangle();
+
+        TreeScene(int expectedNodes) {
+            int cap = Math.max(1, expectedNodes);
+            x = new int[cap];
+            y = new int[cap];
+            key = new int[cap];
+            state = new byte[cap];
+            lines = new int[4 * cap];
+        }
 
-            boolean isCurrent = (current == n);
-            boolean isVisited = visited.contains(n);
+        // Empties the scene for a new frame; the arrays keep their size
+        void reset(double zoom, double panX, double panY) {
+            this.zoom = zoom;
+            this.panX = panX;
+            this.panY = panY;
+            nodes = edges = 0;
+            maxX = maxY = 0;
+        }
 
-            // Fallback to path coloring for search/insert/delete
-            if (!isVisited && path != null && !path.isEmpty()) {
-                for (int i = 0; i <= pathIndex && i < path.size(); i++) {
-                    if (path.get(i) == n) {
-                        isVisited = true;
-                        if (i == pathIndex)
-                            isCurrent = true;
-                        break;
-                    }
-                }
+        void addNode(int nx, int ny, int k, byte st) {
+            if (nodes == x.length) {
+                int cap = 2 * nodes;
+                x = Arrays.copyOf(x, cap);
+                y = Arrays.copyOf(y, cap);
+                key = Arrays.copyOf(key, cap);
+                state = Arrays.copyOf(state, cap);
             }
+            x[nodes] = nx;
+            y[nodes] = ny;
+            maxX = Math.max(maxX, nx);
+            maxY = Math.max(maxY, ny);
+            key[nodes] = k;
+            state[nodes++] = st;
+        }
 
-            if (isCurrent)
-                g2.setColor(new Color(255, 170, 60)); // current step (orange)
-            else if (isVisited)
-                g2.setColor(new Color(235, 140, 40)); // visited path
-            else
-                g2.setColor(new Color(70, 80, 200)); // default
-
-            g2.fillOval(n.x - NODE_R, n.y - NODE_R, NODE_R * 2, NODE_R * 2);
-            g2.setColor(Color.WHITE);
-            g2.setStroke(new BasicStroke(2f));
-            g2.drawOval(n.x - NODE_R, n.y - NODE_R, NODE_R * 2, NODE_R * 2);
+        void addEdge(int x1, int y1, int x2, int y2) {
+            if (4 * edges == lines.length)
+                lines = Arrays.copyOf(lines, 2 * lines.length);
+            int o = 4 * edges++;
+            lines[o] = x1;
+            lines[o + 1] = y1;
+            lines[o + 2] = x2;
+            lines[o + 3] = y2;
+        }
 
-            String label = String.valueOf(n.key);
-            FontMetrics fm = g2.getFontMetrics();
-            int tx = n.x - fm.stringWidth(label) / 2;
-            int ty = n.y + fm.getAscent() / 2 - 2;
-            g2.drawString(label, tx, ty);
+        @Override
+        public void paint(Graphics2D g2) {
+            g2.translate(panX, panY);
+            g2.scale(zoom, zoom);
+            LevelOfDetail lod = LevelOfDetail.begin(g2, NODE_R);
+            int level = lod.level();
+            clip.setBounds(0, 0, maxX + NODE_R + 1, maxY + NODE_R + 1); // kept if there is no clip
+            g2.getClipBounds(clip);
+            // anything reaching this far into the clip may show
+            int left = clip.x - NODE_R, top = clip.y - NODE_R;
+            int right = clip.x + clip.width + NODE_R, bottom = clip.y + clip.height + NODE_R;
+
+            // edges; inside a density tile they would only smear the shading
+            if (level != LevelOfDetail.TILES) {
+                g2.setStroke(lod.edgeStroke());
+                g2.setColor(EDGE);
+                for (int e = 0; e < edges; e++) {
+                    int o = 4 * e;
+                    int x1 = lines[o], y1 = lines[o + 1], x2 = lines[o + 2], y2 = lines[o + 3];
+                    if (Math.max(x1, x2) < left || Math.min(x1, x2) > right || Math.max(y1, y2) < top
+                            || Math.min(y1, y2) > bottom)
+                        continue;
+                    if (x1 >= left && x1 <= right && x2 >= left && x2 <= right) {
+                        g2.drawLine(x1, y1, x2, y2);
+                        continue;
+                    }
+                    // zoomed in, an edge near the root can be millions of pixels
+                    // long; cut it to the clip before it reaches the rasterizer
+                    double t0 = 0, t1 = 1, dx = x2 - x1, dy = y2 - y1;
+                    if (dx != 0) {
+                        double a = (left - x1) / dx, b = (right - x1) / dx;
+                        t0 = Math.max(t0, Math.min(a, b));
+                        t1 = Math.min(t1, Math.max(a, b));
+                    }
+                    if (dy != 0) {
+                        double a = (top - y1) / dy, b = (bottom - y1) / dy;
+                        t0 = Math.max(t0, Math.min(a, b));
+                        t1 = Math.min(t1, Math.max(a, b));
+                    }
+                    if (t0 < t1) {
+                        edge.setLine(x1 + t0 * dx, y1 + t0 * dy, x1 + t1 * dx, y1 + t1 * dy);
+                        g2.draw(edge);
+                    }
+                }
+            }
 
-            drawNodes(g2, n.right);
+            // nodes; at TILES plain nodes are shaded by density and the
+            // highlighted ones are drawn as points on top
+            boolean tiles = level == LevelOfDetail.TILES;
+            if (tiles)
+                lod.beginDensity(clip);
+            for (int pass = 0; pass < (tiles ? 2 : 1); pass++) {
+                for (int i = 0; i < nodes; i++) {
+                    if (x[i] < left || x[i] > right || y[i] < top || y[i] > bottom)
+                        continue;
+                    if (!tiles)
+                        lod.drawNode(g2, x[i], y[i], FILL[state[i]], key[i]);
+                    else if (pass == 0 && (state[i] == PLAIN || state[i] >= RED))
+                        lod.addDensity(x[i], y[i]);
+                    else if (pass == 1 && (state[i] == VISITED || state[i] == CURRENT))
+                        lod.drawNode(g2, x[i], y[i], FILL[state[i]], key[i]);
+                }
+                if (pass == 0 && tiles)
+                    lod.paintDensity(g2, PLAIN_SHADES);
+            }
         }
     }
 }
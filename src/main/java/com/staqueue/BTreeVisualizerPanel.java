@@ -0,0 +1,705 @@
+package com.staqueue;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * B-tree visualizer backed by a B+-tree (BPlusTree): keys sit in the leaves,
+ * which are linked left to right, and the internal nodes hold separators.
+ * Matches the Heap / BST UI pattern:
+ * - Dry Run (pseudocode) panel at right, highlighting the line of each step
+ * - Bottom status bar
+ * - Insert and Delete walk down to the leaf, then play each split, borrow
+ *   and merge on the way back up as a step of its own
+ * - Range scan finds the first leaf and follows the leaf links, O(log n + k)
+ * - Fanout from 3 to 256 can be switched at any time; the tree is rebuilt
+ * - Large trees are drawn down to the deepest level that still fits
+ */
+public class BTreeVisualizerPanel extends JPanel {
+
+    // ---------- Model ----------
+    private BPlusTree tree = new BPlusTree(4);
+
+    // ---------- UI ----------
+    private final JPanel topBar = new JPanel();
+
+    private final JLabel lblValue = new JLabel("Value:");
+    private final JTextField txtValue = new JTextField(6);
+    private final JButton btnInsert = new JButton("Insert");
+    private final JButton btnDelete = new JButton("Delete");
+    private final JButton btnFind = new JButton("Find");
+
+    private final JLabel lblRange = new JLabel("Range:");
+    private final JTextField txtLo = new JTextField(5);
+    private final JLabel lblTo = new JLabel("to");
+    private final JTextField txtHi = new JTextField(5);
+    private final JButton btnScan = new JButton("Scan");
+
+    private final JButton btnRandom = new JButton("Random 10");
+    private final JLabel lblFill = new JLabel("Fill:");
+    private final JTextField txtFill = new JTextField(8);
+    private final JButton btnFill = new JButton("Fill");
+
+    private final JLabel lblFanout = new JLabel("Fanout:");
+    private final JComboBox<Integer> fanoutChoice = new JComboBox<>(
+            new Integer[] { 3, 4, 5, 6, 8, 16, 32, 64, 128, 256 });
+    private final JLabel lblStats = new JLabel("Keys: 0  Height: 1");
+
+    private final JLabel lblSpeed = new JLabel("  Speed:");
+    private final JSlider speed = new JSlider(100, 1200, 500);
+    private final JButton btnSkip = new JButton("Skip");
+    private final JButton btnClear = new JButton("Clear");
+
+    // Status (bottom) + Dry run (right)
+    private final JLabel statusLabel = new JLabel("Ready.");
+    private final DefaultListModel<String> pseudoModel = new DefaultListModel<>();
+    private final JList<String> pseudoList = new JList<>(pseudoModel);
+
+    // Canvas + scroll
+    private final DrawPanel canvas = new DrawPanel();
+    private JScrollPane canvasScroll;
+    private final AllocationMeter meter = new AllocationMeter();
+    private final JCheckBox chkAlloc = new JCheckBox("Alloc/frame");
+
+    // ---------- Animation state ----------
+    private enum Op {
+        NONE, FIND, INSERT, DELETE, SCAN
+    }
+
+    private Op op = Op.NONE;
+    private javax.swing.Timer timer;
+    private int animDelay = 500;
+    private int key, scanHi; // key of the operation; the scan runs from key to scanHi
+    private final List<BPlusTree.Node> path = new ArrayList<>(); // root to leaf
+    private int pathPos;
+    private boolean applied; // the leaf has been changed, fixup steps follow
+    private BPlusTree.Node scanLeaf; // leaf the scan is on, null when it ended
+    private int scanFrom; // first position in scanLeaf still to report
+    private final Set<Integer> scanned = new HashSet<>();
+    private final StringBuilder scanOut = new StringBuilder();
+    private int scanCount;
+    private BPlusTree.Node current, changed; // drawn highlighted
+    private String doneMessage = "";
+
+    // ---------- Layout constants ----------
+    private static final int W = 1000, H = 520;
+    private static final int CELL_W = 34, CELL_H = 28; // one key of a node, at least
+    private static final int NODE_GAP = 16; // between nodes on one level
+    private static final int LEVEL_H = 80;
+    private static final int START_X = 30, START_Y = 50;
+    private static final int MAX_CELLS = 3000; // deeper levels are not drawn past this many keys
+    private static final int MAX_FILL = 10_000_000;
+    private static final int SCAN_SHOWN = 60; // scan keys listed in the status
+
+    private int drawnLevels = 1;
+    private int cellW = CELL_W; // wide enough for the longest key
+
+    public BTreeVisualizerPanel() {
+        setLayout(new BorderLayout());
+        setBackground(new Color(28, 28, 30));
+
+        topBar.setBackground(new Color(40, 40, 44));
+        topBar.setBorder(new EmptyBorder(6, 8, 6, 8));
+        for (JLabel l : new JLabel[] { lblValue, lblRange, lblTo, lblFill, lblFanout, lblStats, lblSpeed }) {
+            l.setForeground(Color.WHITE);
+            l.setOpaque(false);
+        }
+        statusLabel.setForeground(Color.WHITE);
+
+        // Build top bar grid (2x3 like the other visualizers)
+        topBar.setLayout(new GridLayout(2, 3, 12, 6));
+        topBar.add(row(lblValue, txtValue, btnInsert, btnDelete, btnFind));
+        topBar.add(row(lblRange, txtLo, lblTo, txtHi, btnScan));
+        topBar.add(row(btnSkip, btnClear, lblSpeed, speed));
+        topBar.add(row(btnRandom, lblFill, txtFill, btnFill));
+        topBar.add(row(lblFanout, fanoutChoice, lblStats));
+        chkAlloc.setOpaque(false);
+        chkAlloc.setForeground(Color.WHITE);
+        chkAlloc.setToolTipText("Show how many bytes each frame of the canvas allocates");
+        chkAlloc.addActionListener(e -> {
+            meter.setEnabled(chkAlloc.isSelected());
+            canvas.repaint();
+        });
+        topBar.add(row(chkAlloc));
+        fanoutChoice.setSelectedItem(tree.fanout());
+        fanoutChoice.setToolTipText("Most children per node; the tree is rebuilt from its keys");
+        txtFill.setToolTipText("Insert this many random keys at once, up to " + String.format("%,d", MAX_FILL));
+        add(topBar, BorderLayout.NORTH);
+
+        // Right: Dry Run (pseudocode) panel
+        JPanel right = new JPanel(new BorderLayout());
+        right.setBackground(new Color(40, 40, 44));
+        right.setBorder(new EmptyBorder(8, 8, 8, 8));
+        JLabel title = new JLabel("Dry Run (B+-tree)");
+        title.setForeground(Color.WHITE);
+        title.setBorder(new EmptyBorder(0, 0, 6, 0));
+        pseudoList.setBackground(new Color(32, 32, 36));
+        pseudoList.setForeground(Color.WHITE);
+        pseudoList.setSelectionBackground(new Color(75, 110, 175));
+        JScrollPane pseudoScroll = new JScrollPane(pseudoList);
+        pseudoScroll.setPreferredSize(new Dimension(360, 220));
+        right.add(title, BorderLayout.NORTH);
+        right.add(pseudoScroll, BorderLayout.CENTER);
+        add(right, BorderLayout.EAST);
+
+        // Bottom: status only
+        JPanel bottom = new JPanel(new BorderLayout());
+        bottom.setBackground(new Color(40, 40, 44));
+        JPanel left = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 6));
+        left.setBackground(new Color(40, 40, 44));
+        left.add(statusLabel);
+        bottom.add(left, BorderLayout.WEST);
+        add(bottom, BorderLayout.SOUTH);
+
+        // Center: canvas (scrollable)
+        canvas.setPreferredSize(new Dimension(W, H));
+        canvasScroll = new JScrollPane(canvas);
+        canvasScroll.setBorder(new EmptyBorder(0, 0, 0, 0));
+        canvasScroll.getHorizontalScrollBar().setUnitIncrement(24);
+        add(canvasScroll, BorderLayout.CENTER);
+
+        // Wire actions
+        btnInsert.addActionListener(e -> onKeyOp(Op.INSERT));
+        txtValue.addActionListener(e -> onKeyOp(Op.INSERT));
+        btnDelete.addActionListener(e -> onKeyOp(Op.DELETE));
+        btnFind.addActionListener(e -> onKeyOp(Op.FIND));
+        btnScan.addActionListener(e -> onScan());
+        btnRandom.addActionListener(e -> onRandom());
+        btnFill.addActionListener(e -> onFill());
+        txtFill.addActionListener(e -> onFill());
+        btnSkip.addActionListener(e -> finishAnimation());
+        btnClear.addActionListener(e -> {
+            finishAnimation();
+            tree.clear();
+            pseudoModel.clear();
+            refresh();
+            status("Tree cleared.");
+        });
+        fanoutChoice.addActionListener(e -> onFanout());
+        speed.addChangeListener(e -> {
+            animDelay = speed.getValue();
+            if (timer != null)
+                timer.setDelay(animDelay);
+        });
+
+        refresh();
+        status("Empty B+-tree of fanout " + tree.fanout() + ". Insert values, or Fill it with random keys.");
+    }
+
+    private JPanel row(Component... cs) {
+        JPanel p = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
+        p.setOpaque(false);
+        for (Component c : cs)
+            p.add(c);
+        return p;
+    }
+
+    // ---------- Operations ----------
+    private void onKeyOp(Op kind) {
+        Integer v = parseInt(txtValue.getText());
+        if (v == null) {
+            status("Enter a number.");
+            return;
+        }
+        finishAnimation();
+        if (kind == Op.DELETE && !tree.contains(v)) {
+            status(v + " is not in the tree.");
+            return;
+        }
+        if (kind == Op.INSERT && tree.contains(v)) {
+            status(v + " is already in the tree (duplicates are not allowed).");
+            return;
+        }
+        txtValue.setText("");
+        op = kind;
+        key = v;
+        if (kind == Op.FIND) {
+            setPseudo("Find(k)",
+                    "n = root",
+                    "while n is internal:",
+                    "    n = child[first i with k < key[i]]",
+                    "return k in n.keys  // binary search");
+        } else if (kind == Op.INSERT) {
+            setPseudo("Insert(k)",
+                    "leaf = descend(root, k)",
+                    "insert k into leaf.keys in order",
+                    "n = leaf",
+                    "while n has fanout keys:",
+                    "    split n in half; copy / move the middle key up",
+                    "    if n was the root: new root above",
+                    "    n = parent(n)");
+        } else {
+            setPseudo("Delete(k)",
+                    "leaf = descend(root, k)",
+                    "remove k from leaf.keys",
+                    "n = leaf",
+                    "while n != root and n has < (fanout-1)/2 keys:",
+                    "    if a sibling has a key to spare: borrow it",
+                    "    else merge n with a sibling, drop their separator",
+                    "    n = parent(n)",
+                    "if root is internal with no keys: root = its only child");
+        }
+        startDescent(v);
+        status((kind == Op.FIND ? "Finding " : kind == Op.INSERT ? "Inserting " : "Deleting ") + v + "...");
+        startTimer();
+    }
+
+    private void onScan() {
+        Integer lo = parseInt(txtLo.getText()), hi = parseInt(txtHi.getText());
+        if (lo == null || hi == null || lo > hi) {
+            status("Enter a range, from <= to.");
+            return;
+        }
+        finishAnimation();
+        op = Op.SCAN;
+        key = lo;
+        scanHi = hi;
+        setPseudo("RangeScan(lo, hi)",
+                "leaf = descend(root, lo)",
+                "i = first position with key >= lo",
+                "while leaf != null:",
+                "    if leaf.keys[i] > hi: stop",
+                "    report leaf.keys[i]; i++",
+                "    at the end of leaf: leaf = leaf.next; i = 0");
+        startDescent(lo);
+        status("Scanning [" + lo + ", " + hi + "]...");
+        startTimer();
+    }
+
+    private void onRandom() {
+        finishAnimation();
+        Random rnd = new Random();
+        int added = 0;
+        for (int tries = 0; added < 10 && tries < 1000; tries++) {
+            if (tree.insert(rnd.nextInt(100)))
+                added++;
+        }
+        pseudoModel.clear();
+        refresh();
+        status(added == 10 ? "Inserted 10 random keys." : "Inserted " + added + " random keys; 0..99 is filling up.");
+    }
+
+    private void onFill() {
+        Integer n = parseInt(txtFill.getText());
+        if (n == null || n < 1 || n > MAX_FILL) {
+            status("Enter how many random keys to insert (1.." + String.format("%,d", MAX_FILL) + ").");
+            return;
+        }
+        finishAnimation();
+        Random rnd = new Random();
+        int bound = (int) Math.min(Integer.MAX_VALUE, Math.max(1000, 10L * (tree.size() + n)));
+        long t0 = System.nanoTime();
+        int added = 0;
+        for (int i = 0; i < n; i++) {
+            if (tree.insert(rnd.nextInt(bound)))
+                added++;
+        }
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        pseudoModel.clear();
+        refresh();
+        status(String.format("Inserted %,d new random keys in %d ms.", added, ms));
+    }
+
+    // Switching fanout keeps the keys and rebuilds the tree
+    private void onFanout() {
+        int f = (Integer) fanoutChoice.getSelectedItem();
+        if (f == tree.fanout())
+            return;
+        finishAnimation();
+        int[] keys = tree.keys();
+        long t0 = System.nanoTime();
+        BPlusTree rebuilt = new BPlusTree(f);
+        for (int k : keys)
+            rebuilt.insert(k);
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        tree = rebuilt;
+        pseudoModel.clear();
+        refresh();
+        status(String.format("Rebuilt with fanout %d in %d ms: %,d keys, height %d.", f, ms, tree.size(),
+                tree.height()));
+    }
+
+    // ---------- Animation ----------
+    private void startDescent(int k) {
+        path.clear();
+        for (BPlusTree.Node n = tree.root();; n = n.children[BPlusTree.childIndex(n, k)]) {
+            path.add(n);
+            if (n.isLeaf())
+                break;
+        }
+        pathPos = 0;
+        applied = false;
+        scanLeaf = null;
+        scanned.clear();
+        scanOut.setLength(0);
+        scanCount = 0;
+        changed = null;
+        current = path.get(0);
+        selectPseudo(1);
+        canvas.repaint();
+    }
+
+    private void startTimer() {
+        timer = new javax.swing.Timer(animDelay, e -> {
+            if (!tick())
+                finishAnimation();
+        });
+        timer.start();
+    }
+
+    // One step of the running operation; false when it is done
+    private boolean tick() {
+        if (pathPos < path.size() - 1) {
+            current = path.get(++pathPos);
+            selectPseudo(op == Op.FIND ? 3 : 1);
+            canvas.repaint();
+            return true;
+        }
+        switch (op) {
+            case FIND:
+                if (!applied) {
+                    applied = true;
+                    selectPseudo(4);
+                    doneMessage = tree.contains(key) ? "Found " + key + " in its leaf." : key + " is not in the tree.";
+                    status(doneMessage);
+                    canvas.repaint();
+                    return true;
+                }
+                return false;
+            case INSERT:
+            case DELETE:
+                return changeTick();
+            case SCAN:
+                return scanTick();
+            default:
+                return false;
+        }
+    }
+
+    private boolean changeTick() {
+        if (!applied) {
+            applied = true;
+            if (op == Op.INSERT)
+                tree.add(key);
+            else
+                tree.remove(key);
+            changed = current;
+            selectPseudo(2);
+            doneMessage = (op == Op.INSERT ? "Inserted " : "Deleted ") + key + ".";
+            refresh();
+            return true;
+        }
+        if (!tree.fixStep()) {
+            selectPseudo(4);
+            return false;
+        }
+        changed = tree.fixFocus;
+        current = null;
+        switch (tree.fixKind) {
+            case BPlusTree.SPLIT:
+                selectPseudo(5);
+                status("Split a node that reached " + tree.fanout() + " keys.");
+                break;
+            case BPlusTree.NEW_ROOT:
+                selectPseudo(6);
+                status("Split the root: the tree grows a level.");
+                break;
+            case BPlusTree.BORROW_LEFT:
+            case BPlusTree.BORROW_RIGHT:
+                selectPseudo(5);
+                status("Borrowed a key from the " + (tree.fixKind == BPlusTree.BORROW_LEFT ? "left" : "right")
+                        + " sibling.");
+                break;
+            case BPlusTree.MERGE:
+                selectPseudo(6);
+                status("Merged two nodes; the parent lost a separator.");
+                break;
+            case BPlusTree.SHRINK:
+                selectPseudo(8);
+                status("The root ran out of keys: the tree shrinks a level.");
+                break;
+            default:
+                break;
+        }
+        refresh();
+        return true;
+    }
+
+    private boolean scanTick() {
+        if (!applied) {
+            applied = true;
+            scanLeaf = current;
+            scanFrom = BPlusTree.lowerBound(scanLeaf, key);
+            selectPseudo(2);
+        }
+        if (scanLeaf == null)
+            return false;
+        // one leaf per tick: report its keys in range, then follow the link
+        current = scanLeaf;
+        int i = scanFrom;
+        for (; i < scanLeaf.count && scanLeaf.keys[i] <= scanHi; i++) {
+            if (drawnLevels == tree.height()) // only drawn leaves are marked
+                scanned.add(scanLeaf.keys[i]);
+            if (scanCount++ < SCAN_SHOWN)
+                scanOut.append(scanCount == 1 ? "" : ", ").append(scanLeaf.keys[i]);
+        }
+        if (i < scanLeaf.count) {
+            scanLeaf = null; // passed hi
+            selectPseudo(4);
+        } else {
+            scanLeaf = scanLeaf.next;
+            scanFrom = 0;
+            selectPseudo(scanLeaf == null ? 3 : 6);
+        }
+        doneMessage = scanCount + " keys in [" + key + ", " + scanHi + "]"
+                + (scanCount == 0 ? "." : ": " + scanOut + (scanCount > SCAN_SHOWN ? ", ..." : ""));
+        status(doneMessage);
+        canvas.repaint();
+        return scanLeaf != null;
+    }
+
+    // Stops any animation and applies what is left of the operation at once
+    private void finishAnimation() {
+        if (timer != null)
+            timer.stop();
+        timer = null;
+        if (op == Op.NONE)
+            return;
+        if (op == Op.INSERT || op == Op.DELETE) {
+            if (!applied) {
+                if (op == Op.INSERT)
+                    tree.add(key);
+                else
+                    tree.remove(key);
+            }
+            while (tree.fixStep()) {
+            }
+        } else if (op == Op.SCAN) {
+            if (!applied) {
+                applied = true;
+                scanLeaf = path.get(path.size() - 1);
+                scanFrom = BPlusTree.lowerBound(scanLeaf, key);
+            }
+            while (scanLeaf != null)
+                scanTick();
+        } else if (!applied) {
+            doneMessage = tree.contains(key) ? "Found " + key + "." : key + " is not in the tree.";
+        }
+        op = Op.NONE;
+        current = changed = null;
+        selectPseudo(pseudoModel.size() - 1);
+        refresh();
+        status(doneMessage);
+    }
+
+    // ---------- Helpers ----------
+    private Integer parseInt(String s) {
+        try {
+            return Integer.parseInt(s.trim().replace(",", ""));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void status(String s) {
+        statusLabel.setText(s);
+    }
+
+    private void refresh() {
+        lblStats.setText(String.format("Keys: %,d  Height: %d", tree.size(), tree.height()));
+        layoutCanvas();
+        canvas.repaint();
+    }
+
+    // ---------- Pseudocode helpers ----------
+    private void selectPseudo(int idx) {
+        if (idx >= 0 && idx < pseudoModel.size())
+            pseudoList.setSelectedIndex(idx);
+    }
+
+    private void setPseudo(String title, String... lines) {
+        pseudoModel.clear();
+        pseudoModel.addElement("// " + title + " (fanout " + tree.fanout() + ")");
+        for (String ln : lines)
+            pseudoModel.addElement(ln);
+        pseudoList.setSelectedIndex(0);
+    }
+
+    // ---------- Layout + Drawing ----------
+    // Places the drawn levels: the deepest one left to right, each parent
+    // centered over its children. Levels are drawn from the root down while
+    // the keys drawn stay under MAX_CELLS.
+    private void layoutCanvas() {
+        cellW = CELL_W;
+        if (tree.size() > 0) {
+            BPlusTree.Node first = tree.firstLeaf(), last = tree.leafFor(Integer.MAX_VALUE);
+            int digits = Math.max(String.valueOf(first.keys[0]).length(),
+                    String.valueOf(last.keys[last.count - 1]).length());
+            cellW = Math.max(CELL_W, 10 + 8 * digits);
+        }
+        List<BPlusTree.Node> level = new ArrayList<>(), next = new ArrayList<>();
+        level.add(tree.root());
+        int cells = 0;
+        drawnLevels = 0;
+        while (!level.isEmpty()) {
+            int keys = 0;
+            for (BPlusTree.Node n : level)
+                keys += Math.max(1, n.count);
+            if (drawnLevels > 0 && cells + keys > MAX_CELLS)
+                break;
+            cells += keys;
+            drawnLevels++;
+            next.clear();
+            for (BPlusTree.Node n : level) {
+                if (!n.isLeaf()) {
+                    for (int i = 0; i <= n.count; i++)
+                        next.add(n.children[i]);
+                }
+            }
+            List<BPlusTree.Node> t = level;
+            level = next;
+            next = t;
+        }
+        int right = place(tree.root(), 0, START_X);
+        int width = Math.max(W, right + START_X);
+        int height = START_Y + drawnLevels * LEVEL_H + 40;
+        canvas.setPreferredSize(new Dimension(width, Math.max(H, height)));
+        canvas.revalidate();
+    }
+
+    // Lays out the subtree from x on; returns the x just past it
+    private int place(BPlusTree.Node n, int depth, int x) {
+        n.width = Math.max(1, n.count) * cellW;
+        n.y = START_Y + depth * LEVEL_H;
+        if (n.isLeaf() || depth + 1 >= drawnLevels) {
+            n.x = x;
+            return x + n.width + NODE_GAP;
+        }
+        int start = x;
+        for (int i = 0; i <= n.count; i++)
+            x = place(n.children[i], depth + 1, x);
+        BPlusTree.Node first = n.children[0], last = n.children[n.count];
+        int center = (first.x + last.x + last.width) / 2;
+        n.x = Math.max(start, center - n.width / 2);
+        return Math.max(x, n.x + n.width + NODE_GAP);
+    }
+
+    private class DrawPanel extends JPanel {
+        private final Color edge = new Color(160, 160, 165);
+        private final Color link = new Color(90, 170, 110);
+        private final Color internal = new Color(70, 80, 200);
+        private final Color leafFill = new Color(55, 95, 150);
+        private final Color visit = new Color(220, 170, 40);
+        private final Color change = new Color(200, 80, 60);
+        private final Color hit = new Color(60, 160, 90);
+        private final Stroke outline = new BasicStroke(2f);
+        private final Stroke thin = new BasicStroke(1f);
+        // the caption is formatted again only when one of its numbers changes
+        private String caption = "";
+        private int captionSize = -1, captionLevels, captionHeight;
+
+        DrawPanel() {
+            setBackground(new Color(24, 24, 26));
+            setOpaque(true);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            long mark = meter.mark();
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            Rectangle clip = g2.getClipBounds();
+            paintNode(g2, tree.root(), 0, clip);
+            paintLinks(g2, clip);
+            g2.setColor(Color.WHITE);
+            g2.drawString(caption(), 20, 24);
+            g2.dispose();
+            if (meter.isEnabled()) {
+                meter.record(meter.since(mark));
+                meter.paint(g, getVisibleRect());
+            }
+        }
+
+        private String caption() {
+            int h = tree.height();
+            if (tree.size() != captionSize || drawnLevels != captionLevels || h != captionHeight) {
+                captionSize = tree.size();
+                captionLevels = drawnLevels;
+                captionHeight = h;
+                if (tree.size() == 0)
+                    caption = "(empty tree)";
+                else if (drawnLevels < h)
+                    caption = String.format("B+-tree, %,d keys, %d levels; the top %d are drawn", tree.size(), h,
+                            drawnLevels);
+                else
+                    caption = "B+-tree, " + tree.size() + " keys, " + h + " levels";
+            }
+            return caption;
+        }
+
+        private void paintNode(Graphics2D g2, BPlusTree.Node n, int depth, Rectangle clip) {
+            boolean drawChildren = !n.isLeaf() && depth + 1 < drawnLevels;
+            if (drawChildren) {
+                g2.setColor(edge);
+                g2.setStroke(thin);
+                for (int i = 0; i <= n.count; i++) {
+                    BPlusTree.Node c = n.children[i];
+                    // from the gap left of key i to the middle of the child
+                    int fromX = n.x + i * cellW, toX = c.x + c.width / 2;
+                    if (Math.max(fromX, toX) >= clip.x && Math.min(fromX, toX) <= clip.x + clip.width)
+                        g2.drawLine(fromX, n.y + CELL_H, toX, c.y);
+                }
+                for (int i = 0; i <= n.count; i++)
+                    paintNode(g2, n.children[i], depth + 1, clip);
+            }
+            if (n.x + n.width < clip.x || n.x > clip.x + clip.width)
+                return;
+            Color fill = n == changed ? change : n == current ? visit : n.isLeaf() ? leafFill : internal;
+            g2.setColor(fill);
+            g2.fillRect(n.x, n.y, n.width, CELL_H);
+            LabelCache labels = LabelCache.forThread();
+            int baseline = n.y + CELL_H / 2 + labels.ascent(g2) / 2 - 2;
+            for (int i = 0; i < n.count; i++) {
+                int k = n.keys[i];
+                if (n.isLeaf() && scanned.contains(k)) {
+                    g2.setColor(hit);
+                    g2.fillRect(n.x + i * cellW, n.y, cellW, CELL_H);
+                }
+                g2.setColor(Color.WHITE);
+                labels.drawCentered(g2, k, n.x + i * cellW, cellW, baseline);
+            }
+            g2.setStroke(thin);
+            g2.setColor(Color.WHITE);
+            for (int i = 1; i < n.count; i++)
+                g2.drawLine(n.x + i * cellW, n.y, n.x + i * cellW, n.y + CELL_H);
+            g2.setStroke(outline);
+            g2.drawRect(n.x, n.y, n.width, CELL_H);
+        }
+
+        // Arrows from each drawn leaf to the next one
+        private void paintLinks(Graphics2D g2, Rectangle clip) {
+            if (drawnLevels < tree.height())
+                return;
+            g2.setColor(link);
+            g2.setStroke(outline);
+            BPlusTree.Node leaf = tree.root();
+            while (!leaf.isLeaf())
+                leaf = leaf.children[0];
+            for (; leaf.next != null; leaf = leaf.next) {
+                int x1 = leaf.x + leaf.width, x2 = leaf.next.x, y = leaf.y + CELL_H / 2;
+                if (x2 < clip.x || x1 > clip.x + clip.width)
+                    continue;
+                g2.drawLine(x1, y, x2 - 1, y);
+                g2.drawLine(x2 - 6, y - 4, x2 - 1, y);
+                g2.drawLine(x2 - 6, y + 4, x2 - 1, y);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.staqueue;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import javax.swing.JPanel;
+
+/**
+ * Bar charts of a queue comparison run: messages per second on the left and
+ * p99 latency on the right, one bar per queue in both.
+ */
+public class ComparisonChart extends JPanel {
+
+    private static final Color BG = new Color(24, 24, 26);
+    private static final Color AXIS = new Color(115, 115, 120);
+    private static final Color[] BARS = { new Color(70, 80, 200), new Color(200, 120, 40), new Color(60, 160, 90),
+            new Color(170, 70, 160) };
+
+    private String[] names = new String[0];
+    private double[] rates = new double[0];
+    private long[] p99 = new long[0];
+
+    public ComparisonChart() {
+        setBackground(BG);
+        setPreferredSize(new Dimension(900, 260));
+    }
+
+    public void setResults(String[] names, double[] rates, long[] p99) {
+        this.names = names;
+        this.rates = rates;
+        this.p99 = p99;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        if (names.length == 0) {
+            g2.setColor(Color.WHITE);
+            g2.drawString("Press Compare to run the same workload through every queue", 20, 30);
+            g2.dispose();
+            return;
+        }
+        int half = getWidth() / 2;
+        double[] latencies = new double[p99.length];
+        for (int i = 0; i < p99.length; i++)
+            latencies[i] = p99[i];
+        drawBars(g2, 20, half - 40, "Messages/sec", rates, false);
+        drawBars(g2, half + 20, half - 40, "p99 latency", latencies, true);
+        g2.dispose();
+    }
+
+    private void drawBars(Graphics2D g2, int x0, int w, String title, double[] values, boolean nanos) {
+        int y0 = 30, h = getHeight() - 70;
+        g2.setColor(Color.WHITE);
+        g2.drawString(title, x0, y0 - 10);
+        g2.setColor(AXIS);
+        g2.drawLine(x0, y0 + h, x0 + w, y0 + h);
+
+        double max = 1;
+        for (double v : values)
+            max = Math.max(max, v);
+        int slot = w / values.length;
+        int barW = Math.max(8, slot * 2 / 3);
+        for (int i = 0; i < values.length; i++) {
+            int barH = (int) (values[i] / max * (h - 20));
+            int x = x0 + i * slot + (slot - barW) / 2;
+            g2.setColor(BARS[i % BARS.length]);
+            g2.fillRect(x, y0 + h - barH, barW, barH);
+            g2.setColor(Color.WHITE);
+            String label = nanos ? QueueThroughputPanel.formatNanos((long) values[i])
+                    : String.format("%,.0f", values[i]);
+            g2.drawString(label, x, y0 + h - barH - 4);
+            g2.drawString(names[i], x, y0 + h + 16);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.staqueue;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free stack shared by many threads (Treiber stack).
+ *
+ * The top of the stack is a single AtomicReference that push and pop update
+ * with compare-and-set, retrying when another thread got there first. With
+ * elimination enabled, a thread whose CAS failed first tries to meet a thread
+ * doing the opposite operation in a small array of slots: a push and a pop that
+ * meet cancel out without touching the top at all, which takes load off the
+ * contended reference. Counters for CAS failures and eliminations are kept so
+ * the contention view can show them.
+ *
+ * pop() returns EMPTY when there is nothing to take, so EMPTY itself is not
+ * a value push() accepts.
+ */
+public class ConcurrentStack {
+
+    public static final int EMPTY = Integer.MIN_VALUE; // returned by pop() on an empty stack
+
+    private static final int ELIMINATION_SLOTS = 8;
+    private static final int ELIMINATION_SPINS = 64; // how long a push waits for a partner
+
+    private static final class Node {
+        final int value;
+        Node next;
+
+        Node(int value) {
+            this.value = value;
+        }
+    }
+
+    private final AtomicReference<Node> top = new AtomicReference<>();
+    private final AtomicReferenceArray<Node> slots = new AtomicReferenceArray<>(ELIMINATION_SLOTS);
+    private volatile boolean elimination;
+
+    public final LongAdder pushes = new LongAdder();
+    public final LongAdder pops = new LongAdder();
+    public final LongAdder casAttempts = new LongAdder();
+    public final LongAdder casFailures = new LongAdder();
+    public final LongAdder eliminations = new LongAdder(); // push/pop pairs that met in the slots
+
+    public ConcurrentStack(boolean elimination) {
+        this.elimination = elimination;
+    }
+
+    public void setElimination(boolean on) {
+        elimination = on;
+    }
+
+    public boolean isElimination() {
+        return elimination;
+    }
+
+    public void push(int elt) {
+        if (elt == EMPTY) {
+            throw new IllegalArgumentException("EMPTY (Integer.MIN_VALUE) cannot be pushed");
+        }
+        Node node = new Node(elt);
+        while (true) {
+            Node oldTop = top.get();
+            node.next = oldTop;
+            casAttempts.increment();
+            if (top.compareAndSet(oldTop, node)) {
+                break;
+            }
+            casFailures.increment();
+            if (elimination && eliminatePush(node)) {
+                eliminations.increment();
+                break;
+            }
+        }
+        pushes.increment();
+    }
+
+    public int pop() {
+        while (true) {
+            Node oldTop = top.get();
+            if (oldTop == null) {
+                return EMPTY;
+            }
+            casAttempts.increment();
+            if (top.compareAndSet(oldTop, oldTop.next)) {
+                pops.increment();
+                return oldTop.value;
+            }
+            casFailures.increment();
+            if (elimination) {
+                Node partner = eliminatePop();
+                if (partner != null) {
+                    pops.increment();
+                    return partner.value;
+                }
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return top.get() == null;
+    }
+
+    // Offers node in a random slot and waits briefly for a pop to take it
+    private boolean eliminatePush(Node node) {
+        int i = ThreadLocalRandom.current().nextInt(ELIMINATION_SLOTS);
+        if (!slots.compareAndSet(i, null, node)) {
+            return false;
+        }
+        for (int spin = 0; spin < ELIMINATION_SPINS; spin++) {
+            if (slots.get(i) != node) {
+                return true; // a pop took it
+            }
+        }
+        // withdraw the offer; if that fails a pop took it at the last moment
+        return !slots.compareAndSet(i, node, null);
+    }
+
+    // Takes a node a pushing thread left in a random slot, or returns null
+    private Node eliminatePop() {
+        int i = ThreadLocalRandom.current().nextInt(ELIMINATION_SLOTS);
+        Node node = slots.get(i);
+        if (node != null && slots.compareAndSet(i, node, null)) {
+            return node;
+        }
+        return null;
+    }
+}
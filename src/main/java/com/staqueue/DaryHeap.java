@@ -0,0 +1,186 @@
+package com.staqueue;
+
+import java.util.Arrays;
+
+/**
+ * Min-heap priority queue over a primitive int[] with 2, 4 or 8 children per
+ * node, used by the Priority Queue tab.
+ *
+ * The children of slot i are slots d*i+1 .. d*i+d. A wider node makes the
+ * tree shallower, so sift-up does fewer steps, while sift-down compares more
+ * children per level; for large heaps the children of a node also share a
+ * cache line, which is what the arity switch lets the tab compare.
+ *
+ * Every comparison and swap is counted. When a Trace is set each one is also
+ * reported with the slots involved, so the tab can replay an operation step by
+ * step; the trace is left null for large heaps so it costs nothing there.
+ */
+public class DaryHeap {
+
+    public static final int COMPARE = 0;
+    public static final int SWAP = 1;
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8; // VM array header limit
+
+    // Receives the steps of an operation: a comparison or a swap of slots i and j
+    public interface Trace {
+        void step(int kind, int i, int j);
+    }
+
+    private int[] heap;
+    private int size;
+    private int arity;
+
+    public long comparisons; // comparisons since creation or resetCounters()
+    public long swaps; // swaps since creation or resetCounters()
+    public Trace trace;
+
+    public DaryHeap(int arity) {
+        setArityField(arity);
+        heap = new int[DEFAULT_CAPACITY];
+    }
+
+    public int arity() {
+        return arity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Value in slot i, in array order
+    public int get(int i) {
+        return heap[i];
+    }
+
+    public int peek() {
+        if (size == 0)
+            throw new IllegalStateException("Heap is empty");
+        return heap[0];
+    }
+
+    public void insert(int v) {
+        if (size == heap.length)
+            grow(size + 1L);
+        heap[size] = v;
+        siftUp(size++);
+    }
+
+    // Removes and returns the minimum
+    public int poll() {
+        if (size == 0)
+            throw new IllegalStateException("Heap is empty");
+        int min = heap[0];
+        if (--size > 0) {
+            swap(0, size);
+            siftDown(0);
+        }
+        return min;
+    }
+
+    // Replaces the contents with count values from src and restores the heap
+    // order bottom-up, which takes O(n) steps instead of n inserts' O(n log n)
+    public void heapify(int[] src, int off, int count) {
+        if (count > heap.length)
+            heap = new int[count];
+        System.arraycopy(src, off, heap, 0, count);
+        size = count;
+        rebuild();
+    }
+
+    // Changes the number of children per node and rebuilds the heap in place
+    public void setArity(int arity) {
+        setArityField(arity);
+        rebuild();
+    }
+
+    public void clear() {
+        size = 0;
+        if (heap.length > DEFAULT_CAPACITY)
+            heap = new int[DEFAULT_CAPACITY];
+    }
+
+    public void resetCounters() {
+        comparisons = 0;
+        swaps = 0;
+    }
+
+    // Slot of the parent of slot i (i > 0)
+    public int parent(int i) {
+        return (i - 1) / arity;
+    }
+
+    // Slot of the first child of slot i; may be past the end
+    public int firstChild(int i) {
+        return arity * i + 1;
+    }
+
+    private void rebuild() {
+        if (size < 2)
+            return;
+        for (int i = parent(size - 1); i >= 0; i--)
+            siftDown(i);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int p = parent(i);
+            if (!less(i, p))
+                return;
+            swap(i, p);
+            i = p;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int first = firstChild(i);
+            if (first >= size)
+                return;
+            int last = (int) Math.min((long) first + arity, size);
+            int min = first;
+            for (int c = first + 1; c < last; c++) {
+                if (less(c, min))
+                    min = c;
+            }
+            if (!less(min, i))
+                return;
+            swap(i, min);
+            i = min;
+        }
+    }
+
+    private boolean less(int i, int j) {
+        comparisons++;
+        if (trace != null)
+            trace.step(COMPARE, i, j);
+        return heap[i] < heap[j];
+    }
+
+    private void swap(int i, int j) {
+        int t = heap[i];
+        heap[i] = heap[j];
+        heap[j] = t;
+        swaps++;
+        if (trace != null)
+            trace.step(SWAP, i, j);
+    }
+
+    private void grow(long minCapacity) {
+        if (minCapacity > MAX_CAPACITY)
+            throw new IllegalStateException("Heap is full");
+        long next = Math.max(minCapacity, (long) heap.length * 2);
+        heap = Arrays.copyOf(heap, (int) Math.min(next, MAX_CAPACITY));
+    }
+
+    private void setArityField(int arity) {
+        if (arity != 2 && arity != 4 && arity != 8)
+            throw new IllegalArgumentException("Arity must be 2, 4 or 8");
+        this.arity = arity;
+    }
+}
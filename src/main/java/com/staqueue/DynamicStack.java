@@ -0,0 +1,92 @@
+package com.staqueue;
+
+import java.util.Arrays;
+
+/**
+ * Growable stack used by the dynamic mode of the Stack tab.
+ *
+ * Elements live in the primitive int[] inherited from Stack. When a push finds
+ * the array full it is copied into one twice as large, so n pushes cost O(n)
+ * copies in total. The resize counters are kept so the tab can show how much
+ * copying the doubling actually did.
+ */
+public class DynamicStack extends Stack {
+
+    public static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8; // VM array header limit
+
+    public int resizes; // number of times the array was grown
+    public long copiedElements; // elements moved by all resizes
+    public long pushes; // pushes since creation or the last reset
+    private final int initialCapacity;
+
+    public DynamicStack() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DynamicStack(int initialCapacity) {
+        super(Math.max(1, initialCapacity));
+        this.initialCapacity = arr.length;
+    }
+
+    @Override
+    public void push(int elt) {
+        if (top + 1 == arr.length) {
+            grow();
+        }
+        arr[++top] = elt;
+        nElts++;
+        pushes++;
+        listeners.cellsChanged(top, top);
+    }
+
+    @Override
+    public void pushAll(int[] src, int off, int count) {
+        if (count > arr.length - nElts) {
+            grow(nElts + (long) count);
+        }
+        super.pushAll(src, off, count);
+        pushes += count;
+    }
+
+    public int capacity() {
+        return arr.length;
+    }
+
+    // Average number of element copies each push has paid for so far
+    public double amortizedCopyCost() {
+        return pushes == 0 ? 0 : (double) copiedElements / pushes;
+    }
+
+    @Override
+    public void clear() {
+        top = -1;
+        nElts = 0;
+        pushes = 0;
+        resizes = 0;
+        copiedElements = 0;
+        arr = new int[initialCapacity];
+        size = arr.length;
+        listeners.modelReset();
+    }
+
+    private void grow() {
+        grow(arr.length + 1L);
+    }
+
+    // Doubles the array until it holds minCapacity elements
+    private void grow(long minCapacity) {
+        if (minCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("Stack is full");
+        }
+        long capacity = arr.length;
+        while (capacity < minCapacity) {
+            capacity = Math.min(capacity * 2, MAX_CAPACITY);
+        }
+        arr = Arrays.copyOf(arr, (int) capacity);
+        size = (int) capacity;
+        resizes++;
+        copiedElements += nElts;
+        listeners.modelReset();
+    }
+}
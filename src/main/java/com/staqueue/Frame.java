@@ -2,11 +2,12 @@ package com.staqueue;
 
 import java.awt.*;
 import java.awt.event.KeyEvent;
+import java.io.UncheckedIOException;
 import javax.swing.*;
 
 /**
  * Application shell: builds the main tabbed UI.
- * Tabs (in order): Stack, Queue, Linked List, Binary Search Tree, BFS, DFS.
+ * Tabs (in order): Stack, Queue, Priority Queue, Linked List, Binary Search Tree, BFS, DFS.
  * Only modern panels are wired. All labels use the dark theme.
  */
 public class Frame extends JFrame {
@@ -35,8 +36,21 @@ public class Frame extends JFrame {
 
         stackSetup.createStackButton.addActionListener(ae -> {
             stackSetup.isDynamicStack = stackSetup.dynamicStackYes.isSelected();
+            stackSetup.isOffHeapStack = stackSetup.isDynamicStack && stackSetup.offHeapStackYes.isSelected();
+            stackSetup.staticCapacity = (Integer) stackSetup.staticCapacityText.getValue();
             stackSetup.numberOfStacks = 1;
-            StackFrame stackFrame = new StackFrame(1, stackSetup.isDynamicStack);
+            StackFrame stackFrame;
+            try {
+                stackFrame = new StackFrame(1, stackSetup.isDynamicStack, stackSetup.isOffHeapStack,
+                        stackSetup.staticCapacity);
+            } catch (UncheckedIOException ex) {
+                stackSetup.stackMessage.setText(">>>Could not create the off-heap stack: " + ex.getMessage());
+                return;
+            } catch (OutOfMemoryError ex) {
+                stackSetup.stackMessage.setText(">>>Not enough memory for a static stack of "
+                        + stackSetup.staticCapacity + " cells");
+                return;
+            }
             stackScroll.setViewportView(stackFrame);
             tabs.setComponentAt(0, stackScroll);
             stackFrame.stackMenu.settingsBtn.addActionListener(e -> {
@@ -45,31 +59,51 @@ public class Frame extends JFrame {
                         "Are you sure? You will lose all the data in the stack(s).",
                         "Confirm", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
                 if (res == JOptionPane.YES_OPTION) {
+                    stackFrame.stackDisplay.release();
                     stackScroll.setViewportView(stackSetup);
                     tabs.setComponentAt(0, stackScroll);
                 }
             });
         });
 
+        stackSetup.contentionButton.addActionListener(ae -> {
+            StackContentionPanel contentionPanel = new StackContentionPanel();
+            stackScroll.setViewportView(contentionPanel);
+            tabs.setComponentAt(0, stackScroll);
+            contentionPanel.settingsBtn.addActionListener(e -> {
+                contentionPanel.stop();
+                stackScroll.setViewportView(stackSetup);
+                tabs.setComponentAt(0, stackScroll);
+            });
+        });
+
         // 2) Queue
         tabs.addTab("Queue", new QueueFrame());
         tabs.setMnemonicAt(1, KeyEvent.VK_2);
 
-        // 3) Linked List (new visualizer)
-        tabs.addTab("Linked List", new LinkedListVisualizerPanel());
+        // 3) Priority Queue (d-ary heap)
+        tabs.addTab("Priority Queue (Heap)", new HeapVisualizerPanel());
         tabs.setMnemonicAt(2, KeyEvent.VK_3);
 
-        // 4) Binary Search Tree
-        tabs.addTab("Binary Search Tree (BST)", new BSTVisualizerPanel());
+        // 4) Linked List (new visualizer)
+        tabs.addTab("Linked List", new LinkedListVisualizerPanel());
         tabs.setMnemonicAt(3, KeyEvent.VK_4);
 
-        // 5) BFS
+        // 5) Binary Search Tree
+        tabs.addTab("Binary Search Tree (BST)", new BSTVisualizerPanel());
+        tabs.setMnemonicAt(4, KeyEvent.VK_5);
+
+        // 6) B-tree (B+-tree with linked leaves)
+        tabs.addTab("B-Tree", new BTreeVisualizerPanel());
+        tabs.setMnemonicAt(5, KeyEvent.VK_6);
+
+        // 7) BFS
         tabs.addTab("Breadth First Search (BFS)", new BFSVisualizerPanel());
-        tabs.setMnemonicAt(4, KeyEvent.VK_B);
+        tabs.setMnemonicAt(6, KeyEvent.VK_B);
 
-        // 6) DFS
+        // 8) DFS
         tabs.addTab("Depth First Search (DFS)", new DFSVisualizerPanel());
-        tabs.setMnemonicAt(5, KeyEvent.VK_D);
+        tabs.setMnemonicAt(7, KeyEvent.VK_D);
 
         add(tabs);
         setVisible(true);
@@ -0,0 +1,218 @@
+package com.staqueue;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.function.Supplier;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+/**
+ * Optional render pipeline for the visualizer canvases.
+ *
+ * When enabled, a canvas no longer draws its model in paintComponent. It
+ * hands over a Scene, an immutable copy of everything one frame needs, and
+ * a render thread rasterizes that scene into a back buffer. When the frame
+ * is finished the buffers are swapped and the EDT only blits the front
+ * image, so a large model no longer blocks input while it draws. Until the
+ * next frame is ready the canvas shows the previous one.
+ *
+ * Only the latest submitted scene is rendered; scenes submitted while the
+ * thread is busy replace each other. When disabled, scenes are painted
+ * straight onto the component's Graphics on the EDT, as before.
+ *
+ * A canvas can keep two scenes and refill them instead of allocating one per
+ * frame: reuse(a, b) returns the one the render thread is not painting, and
+ * withdraws it if it is still waiting to be painted.
+ *
+ * The allocation overlay (setAllocationOverlay) shows the bytes each frame
+ * allocates: the snapshot on the EDT plus the paint, wherever it ran.
+ */
+public class FrameRenderer {
+
+    // Everything needed to draw one frame. A scene must not share mutable
+    // state with the model, because it is painted on the render thread.
+    public interface Scene {
+        void paint(Graphics2D g);
+    }
+
+    private final JComponent target;
+    private final String name;
+    private final Object lock = new Object();
+
+    // guarded by lock
+    private Scene pending;
+    private Rectangle pendingArea;
+    private Color pendingBackground;
+    private Font pendingFont;
+    private long pendingBytes; // allocated taking the pending snapshot
+    private Scene painting; // the scene the render thread is painting
+    private BufferedImage front;
+    private Rectangle frontArea;
+    private Thread worker; // the current render thread, null when disabled
+
+    private boolean presenting; // EDT only: painting a finished frame
+    private final Runnable present = this::present;
+    private final AllocationMeter meter = new AllocationMeter();
+
+    public FrameRenderer(JComponent target, String name) {
+        this.target = target;
+        this.name = name;
+    }
+
+    public boolean isEnabled() {
+        synchronized (lock) {
+            return worker != null;
+        }
+    }
+
+    public void setEnabled(boolean on) {
+        synchronized (lock) {
+            if (on == (worker != null))
+                return;
+            if (on) {
+                worker = new Thread(this::renderLoop, name + " renderer");
+                worker.setDaemon(true);
+                worker.start();
+            } else {
+                worker = null; // the old thread exits when it sees this
+                pending = null;
+                front = null;
+                lock.notifyAll();
+            }
+        }
+        target.repaint();
+    }
+
+    public boolean isAllocationOverlay() {
+        return meter.isEnabled();
+    }
+
+    public void setAllocationOverlay(boolean on) {
+        meter.setEnabled(on);
+        target.repaint();
+    }
+
+    // Called from paintComponent. Paints the scene directly when the
+    // pipeline is off. Otherwise submits a fresh snapshot of the visible area,
+    // unless this paint is only presenting a finished frame, and blits the
+    // newest finished frame.
+    public void paint(Graphics g, Supplier<Scene> snapshot) {
+        if (!isEnabled()) {
+            long mark = meter.mark();
+            Graphics2D g2 = (Graphics2D) g.create();
+            snapshot.get().paint(g2);
+            g2.dispose();
+            if (meter.isEnabled()) {
+                meter.record(meter.since(mark));
+                meter.paint(g, target.getVisibleRect());
+            }
+            return;
+        }
+        if (!presenting) {
+            Rectangle area = target.getVisibleRect();
+            if (!area.isEmpty()) {
+                long mark = meter.mark();
+                Scene scene = snapshot.get();
+                submit(scene, area, meter.since(mark));
+            }
+        }
+        synchronized (lock) {
+            if (front != null)
+                g.drawImage(front, frontArea.x, frontArea.y, null);
+        }
+        if (meter.isEnabled())
+            meter.paint(g, target.getVisibleRect());
+    }
+
+    // Picks the scene to fill for the next frame: a, unless the render thread
+    // is painting it. A scene that was submitted but not yet taken is
+    // withdrawn, as the new frame replaces it anyway.
+    public <S extends Scene> S reuse(S a, S b) {
+        synchronized (lock) {
+            S s = a == painting ? b : a;
+            if (s == pending)
+                pending = null;
+            return s;
+        }
+    }
+
+    private void submit(Scene scene, Rectangle area, long bytes) {
+        synchronized (lock) {
+            pending = scene;
+            pendingBytes = bytes;
+            pendingArea = area;
+            pendingBackground = target.getBackground();
+            pendingFont = target.getFont();
+            lock.notifyAll();
+        }
+    }
+
+    private void renderLoop() {
+        Thread me = Thread.currentThread();
+        BufferedImage back = null;
+        while (true) {
+            Scene scene;
+            Rectangle area;
+            Color background;
+            Font font;
+            long bytes;
+            synchronized (lock) {
+                while (worker == me && pending == null) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (worker != me)
+                    return;
+                scene = pending;
+                area = pendingArea;
+                background = pendingBackground;
+                font = pendingFont;
+                bytes = pendingBytes;
+                pending = null;
+                painting = scene;
+            }
+            long mark = meter.mark();
+
+            if (back == null || back.getWidth() != area.width || back.getHeight() != area.height)
+                back = new BufferedImage(area.width, area.height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = back.createGraphics();
+            g.setColor(background);
+            g.fillRect(0, 0, area.width, area.height);
+            g.translate(-area.x, -area.y);
+            g.clipRect(area.x, area.y, area.width, area.height);
+            g.setFont(font);
+            scene.paint(g);
+            g.dispose();
+            if (meter.isEnabled())
+                meter.record(bytes + meter.since(mark));
+
+            synchronized (lock) {
+                painting = null;
+                if (worker != me)
+                    return;
+                BufferedImage done = back;
+                back = front;
+                front = done;
+                frontArea = area;
+            }
+            SwingUtilities.invokeLater(present);
+        }
+    }
+
+    // Paints the finished frame right away, without taking a new snapshot
+    private void present() {
+        presenting = true;
+        try {
+            target.paintImmediately(target.getVisibleRect());
+        } finally {
+            presenting = false;
+        }
+    }
+}
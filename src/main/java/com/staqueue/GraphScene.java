@@ -0,0 +1,250 @@
+package com.staqueue;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import javax.swing.JComponent;
+
+/**
+ * One frame of the BFS or DFS canvas: node positions and traversal states,
+ * the edges, and the highlights, copied out of the panel so the frame can
+ * be painted on the render thread while the panel keeps changing.
+ *
+ * The edges and the nodes in their unvisited look are kept in a Structure
+ * that the panel builds once per structural edit and shares between frames.
+ * The first paint rasterizes it into an image layer; later frames blit that
+ * layer and draw only the overlay on top: the last traversed edge, the edge
+ * being added, and the nodes that are visited, waiting, hovered or at either
+ * end of a highlighted edge. An animation tick therefore costs one blit plus
+ * the overlay, however many edges the graph has. Both are drawn under the
+ * panel's view transform (zoom and pan), with the detail LevelOfDetail picks
+ * for the on-screen node size; the legend stays at screen scale.
+ *
+ * The two panels differ only in the container they show, so the scene takes
+ * the legend names of "waiting in the container" and "taken out next".
+ */
+final class GraphScene implements FrameRenderer.Scene {
+
+    static final byte UNVISITED = 0;
+    static final byte VISITED = 1;
+    static final byte WAITING = 2; // in the queue or on the stack
+    static final byte NEXT = 3; // queue head or stack top
+
+    private static final Color EDGE = new Color(115, 115, 120);
+    private static final Color MOVE = new Color(220, 80, 80);
+    private static final Color[] FILL = {
+            new Color(70, 80, 200), // unvisited -> blue
+            new Color(60, 160, 80), // visited -> green
+            new Color(200, 160, 60), // waiting -> amber
+            new Color(200, 80, 60) // next -> red
+    };
+    private static final Color[] HOVER = { FILL[0].brighter(), FILL[1].brighter(), FILL[2].brighter(), FILL[3].brighter() };
+    private static final Color[] UNVISITED_SHADES = LevelOfDetail.shades(FILL[UNVISITED]);
+    private static final Stroke MOVE_STROKE = new BasicStroke(3f);
+    private static final Stroke PENDING_STROKE = new BasicStroke(1.5f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_ROUND, 1f,
+            new float[] { 6f, 6f }, 0f);
+
+    // Node positions and edges. Immutable once built; the panel replaces it
+    // after every edit that moves a node or changes the edges.
+    static final class Structure {
+        final int[] x, y;
+        final int[] edgeU, edgeV;
+        final boolean[] directed;
+
+        // the rasterized static layer, guarded by this
+        private BufferedImage layer;
+        private int layerW, layerH;
+        private double layerScaleX, layerScaleY;
+        private double layerZoom, layerPanX, layerPanY;
+        private Color layerBackground;
+
+        Structure(int nodes, int edges) {
+            x = new int[nodes];
+            y = new int[nodes];
+            edgeU = new int[edges];
+            edgeV = new int[edges];
+            directed = new boolean[edges];
+        }
+    }
+
+    Structure graph;
+    int width, height; // canvas size the static layer covers
+    double zoom = 1, panX, panY; // view transform: canvas point = graph point * zoom + pan
+    Color background;
+    final int radius;
+    byte[] state = new byte[0];
+    final String waitingName, nextName;
+    int hover = -1;
+    int moveU = -1, moveV = -1; // last traversed edge
+    int pendingU = -1, pendingV = -1; // edge being added
+
+    GraphScene(int radius, String waitingName, String nextName) {
+        this.radius = radius;
+        this.waitingName = waitingName;
+        this.nextName = nextName;
+    }
+
+    // Empties the scene for a new frame of the given structure and view:
+    // every node unvisited and nothing highlighted. The state array is kept
+    // while the node count stays the same.
+    void reset(Structure graph, JComponent canvas, double zoom, double panX, double panY) {
+        this.graph = graph;
+        width = canvas.getWidth();
+        height = canvas.getHeight();
+        background = canvas.getBackground();
+        this.zoom = zoom;
+        this.panX = panX;
+        this.panY = panY;
+        if (state.length == graph.x.length)
+            Arrays.fill(state, UNVISITED);
+        else
+            state = new byte[graph.x.length];
+        hover = moveU = moveV = pendingU = pendingV = -1;
+    }
+
+    @Override
+    public void paint(Graphics2D g2) {
+        drawStaticLayer(g2);
+        g2.translate(panX, panY);
+        g2.scale(zoom, zoom);
+        LevelOfDetail lod = LevelOfDetail.begin(g2, radius);
+
+        int[] x = graph.x, y = graph.y;
+        // highlight last traversed edge
+        if (moveU != -1) {
+            g2.setColor(MOVE);
+            g2.setStroke(MOVE_STROKE);
+            drawArrow(g2, x[moveU], y[moveU], x[moveV], y[moveV], 12);
+        }
+        // temporary edge
+        if (pendingU != -1) {
+            if (moveU == -1)
+                g2.setColor(EDGE);
+            g2.setStroke(PENDING_STROKE);
+            g2.drawLine(x[pendingU], y[pendingU], x[pendingV], y[pendingV]);
+        }
+
+        // nodes that do not look like the layer shows them
+        for (int i = 0; i < state.length; i++) {
+            if (state[i] != UNVISITED || i == hover || i == moveU || i == moveV || i == pendingU || i == pendingV)
+                lod.drawNode(g2, x[i], y[i], i == hover ? HOVER[state[i]] : FILL[state[i]], i);
+        }
+    }
+
+    // Blits the edges, unvisited nodes and legend, rasterizing them first if
+    // the structure, canvas size, view or device scale changed
+    private void drawStaticLayer(Graphics2D g2) {
+        AffineTransform t = g2.getTransform();
+        double sx = t.getScaleX(), sy = t.getScaleY();
+        synchronized (graph) {
+            if (graph.layer == null || graph.layerW != width || graph.layerH != height || graph.layerScaleX != sx
+                    || graph.layerScaleY != sy || graph.layerZoom != zoom || graph.layerPanX != panX
+                    || graph.layerPanY != panY || !background.equals(graph.layerBackground)) {
+                int pw = Math.max(1, (int) Math.ceil(width * sx)), ph = Math.max(1, (int) Math.ceil(height * sy));
+                BufferedImage img = new BufferedImage(pw, ph, BufferedImage.TYPE_INT_RGB);
+                Graphics2D lg = img.createGraphics();
+                lg.setColor(background);
+                lg.fillRect(0, 0, pw, ph);
+                lg.scale(sx, sy);
+                lg.setFont(g2.getFont());
+                lg.setRenderingHints(g2.getRenderingHints());
+                paintStatic(lg);
+                lg.dispose();
+                graph.layer = img;
+                graph.layerW = width;
+                graph.layerH = height;
+                graph.layerScaleX = sx;
+                graph.layerScaleY = sy;
+                graph.layerZoom = zoom;
+                graph.layerPanX = panX;
+                graph.layerPanY = panY;
+                graph.layerBackground = background;
+            }
+            g2.scale(1 / sx, 1 / sy); // one layer pixel per device pixel
+            g2.drawImage(graph.layer, 0, 0, null);
+            g2.setTransform(t);
+        }
+    }
+
+    private void paintStatic(Graphics2D g2) {
+        int[] x = graph.x, y = graph.y;
+        AffineTransform screen = g2.getTransform();
+        g2.translate(panX, panY);
+        g2.scale(zoom, zoom);
+        LevelOfDetail lod = LevelOfDetail.begin(g2, radius);
+        if (lod.level() == LevelOfDetail.TILES) {
+            // too small to tell apart: shade the view by node density
+            lod.beginDensity(new Rectangle((int) Math.floor(-panX / zoom), (int) Math.floor(-panY / zoom),
+                    (int) Math.ceil(width / zoom) + 1, (int) Math.ceil(height / zoom) + 1));
+            for (int i = 0; i < x.length; i++)
+                lod.addDensity(x[i], y[i]);
+            lod.paintDensity(g2, UNVISITED_SHADES);
+        } else {
+            // draw edges
+            g2.setStroke(lod.edgeStroke());
+            g2.setColor(EDGE);
+            for (int e = 0; e < graph.edgeU.length; e++) {
+                int a = graph.edgeU[e], b = graph.edgeV[e];
+                if (graph.directed[e])
+                    drawArrow(g2, x[a], y[a], x[b], y[b], 10);
+                else
+                    g2.drawLine(x[a], y[a], x[b], y[b]);
+            }
+            // draw nodes
+            for (int i = 0; i < x.length; i++)
+                lod.drawNode(g2, x[i], y[i], FILL[UNVISITED], i);
+        }
+
+        // legend
+        g2.setTransform(screen);
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        drawLegend(g2);
+    }
+
+    private void drawLegend(Graphics2D g2) {
+        int x = 12, y = 12;
+        g2.setColor(Color.WHITE);
+        g2.drawString("Legend:", x, y + 0);
+        y += 6;
+        y = legendItem(g2, x, y + 14, FILL[UNVISITED], "Unvisited");
+        y = legendItem(g2, x, y + 14, FILL[WAITING], waitingName);
+        y = legendItem(g2, x, y + 14, FILL[NEXT], nextName);
+        y = legendItem(g2, x, y + 14, FILL[VISITED], "Visited");
+    }
+
+    private int legendItem(Graphics2D g2, int x, int y, Color c, String name) {
+        g2.setColor(c);
+        g2.fillRect(x, y, 18, 12);
+        g2.setColor(Color.WHITE);
+        g2.drawRect(x, y, 18, 12);
+        g2.drawString("  " + name, x + 22, y + 11);
+        return y;
+    }
+
+    private void drawArrow(Graphics2D g2, int x1, int y1, int x2, int y2, int size) {
+        double dx = x2 - x1, dy = y2 - y1;
+        double dist = Math.hypot(dx, dy);
+        if (dist < 1)
+            return;
+        double ux = dx / dist, uy = dy / dist;
+        int sx1 = (int) (x1 + ux * radius * 0.9), sy1 = (int) (y1 + uy * radius * 0.9);
+        int sx2 = (int) (x2 - ux * radius * 0.9), sy2 = (int) (y2 - uy * radius * 0.9);
+        g2.drawLine(sx1, sy1, sx2, sy2);
+        // arrow head at (sx2, sy2)
+        double angle = Math.atan2(dy, dx);
+        double a1 = angle - Math.toRadians(25);
+        double a2 = angle + Math.toRadians(25);
+        int hx1 = (int) (sx2 - size * Math.cos(a1));
+        int hy1 = (int) (sy2 - size * Math.sin(a1));
+        int hx2 = (int) (sx2 - size * Math.cos(a2));
+        int hy2 = (int) (sy2 - size * Math.sin(a2));
+        g2.drawLine(sx2, sy2, hx1, hy1);
+        g2.drawLine(sx2, sy2, hx2, hy2);
+    }
+}
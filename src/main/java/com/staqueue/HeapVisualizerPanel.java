@@ -0,0 +1,638 @@
+package com.staqueue;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Priority Queue visualizer backed by a d-ary min-heap (DaryHeap).
+ * Matches the Linked List / BFS / DFS UI pattern:
+ * - Dry Run (pseudocode) panel at right, highlighting the line of each step
+ * - Bottom status bar with comparisons and swaps of the last operation
+ * - Insert / Poll Min / Heapify are replayed step by step on a Swing timer
+ * - Arity (2, 4, 8) can be switched at any time; the heap is rebuilt in place
+ * - Benchmark times poll+insert pairs on the current heap, so large heaps can
+ *   be compared across arities
+ */
+public class HeapVisualizerPanel extends JPanel {
+
+    // ---------- Model ----------
+    private final DaryHeap heap = new DaryHeap(2);
+
+    // ---------- UI ----------
+    private final JPanel topBar = new JPanel();
+
+    // Insert / poll
+    private final JLabel lblInsert = new JLabel("Insert:");
+    private final JTextField insertValue = new JTextField(5);
+    private final JButton btnInsert = new JButton("Insert");
+    private final JButton btnPoll = new JButton("Poll Min");
+
+    // Build
+    private final JLabel lblBuild = new JLabel("Heapify:");
+    private final JComboBox<String> buildType = new JComboBox<>(new String[] { "Random", "User" });
+    private final JTextField buildInput = new JTextField(12); // "15" or "9,4,7,1"
+    private final JButton btnBuild = new JButton("Build");
+
+    // Arity / benchmark
+    private final JLabel lblArity = new JLabel("Arity:");
+    private final JComboBox<Integer> arityChoice = new JComboBox<>(new Integer[] { 2, 4, 8 });
+    private final JButton btnBench = new JButton("Benchmark");
+
+    // Speed / controls
+    private final JLabel lblSpeed = new JLabel("  Speed:");
+    private final JSlider speed = new JSlider(50, 1200, 400);
+    private final JButton btnSkip = new JButton("Skip");
+    private final JButton btnClear = new JButton("Clear");
+
+    // Status (bottom) + Dry run (right)
+    private final JLabel statusLabel = new JLabel("Ready.");
+    private final DefaultListModel<String> pseudoModel = new DefaultListModel<>();
+    private final JList<String> pseudoList = new JList<>(pseudoModel);
+
+    // Canvas + scroll
+    private final DrawPanel canvas = new DrawPanel();
+    private JScrollPane canvasScroll;
+    private final AllocationMeter meter = new AllocationMeter();
+    private final JCheckBox chkAlloc = new JCheckBox("Alloc/frame");
+
+    // ---------- Animation state ----------
+    private static final int SHRINK = 2; // replay-only step: the last slot leaves the heap
+    private static final int MAX_STEPS = 600; // longer operations are applied at once
+    private static final int TRACE_LIMIT = 4096; // no tracing above this many elements
+
+    private javax.swing.Timer timer;
+    private int animDelay = 400;
+    private int[] shown = new int[0]; // heap contents as currently drawn
+    private int shownSize;
+    private int[] steps = new int[3 * 64]; // (kind, i, j) triples
+    private int stepCount, stepPos;
+    private boolean overflow; // operation had more than MAX_STEPS steps
+    private int hiA = -1, hiB = -1, hiKind = -1;
+    private int compareLine, childCompareLine, swapLine;
+    private String doneMessage = "";
+
+    // ---------- Bench ----------
+    private static final int BENCH_OPS = 200_000;
+    private static final int MAX_BUILD = 20_000_000;
+
+    // ---------- Layout constants ----------
+    private static final int W = 1000, H = 520;
+    private static final int NODE_D = 32;
+    private static final int SLOT_W = 40; // horizontal room per node on the widest drawn level
+    private static final int LEVEL_H = 80;
+    private static final int START_Y = 50;
+    private static final int WIDEST_LEVEL = 64; // deeper levels are not drawn
+
+    public HeapVisualizerPanel() {
+        setLayout(new BorderLayout());
+        setBackground(new Color(28, 28, 30));
+
+        topBar.setBackground(new Color(40, 40, 44));
+        topBar.setBorder(new EmptyBorder(6, 8, 6, 8));
+        for (JLabel l : new JLabel[] { lblInsert, lblBuild, lblArity, lblSpeed }) {
+            l.setForeground(Color.WHITE);
+            l.setOpaque(false);
+        }
+        statusLabel.setForeground(Color.WHITE);
+
+        // Build top bar grid (2x3 like the other visualizers)
+        topBar.setLayout(new GridLayout(2, 3, 12, 6));
+        topBar.add(row(lblInsert, insertValue, btnInsert, btnPoll));
+        topBar.add(row(lblBuild, buildType, buildInput, btnBuild));
+        topBar.add(row(btnSkip, btnClear, lblSpeed, speed));
+        topBar.add(row(lblArity, arityChoice));
+        topBar.add(row(btnBench));
+        chkAlloc.setOpaque(false);
+        chkAlloc.setForeground(Color.WHITE);
+        chkAlloc.setToolTipText("Show how many bytes each frame of the canvas allocates");
+        chkAlloc.addActionListener(e -> {
+            meter.setEnabled(chkAlloc.isSelected());
+            canvas.repaint();
+        });
+        topBar.add(row(chkAlloc));
+        add(topBar, BorderLayout.NORTH);
+
+        // Right: Dry Run (pseudocode) panel
+        JPanel right = new JPanel(new BorderLayout());
+        right.setBackground(new Color(40, 40, 44));
+        right.setBorder(new EmptyBorder(8, 8, 8, 8));
+        JLabel title = new JLabel("Dry Run (Heap)");
+        title.setForeground(Color.WHITE);
+        title.setBorder(new EmptyBorder(0, 0, 6, 0));
+        pseudoList.setBackground(new Color(32, 32, 36));
+        pseudoList.setForeground(Color.WHITE);
+        pseudoList.setSelectionBackground(new Color(75, 110, 175));
+        JScrollPane pseudoScroll = new JScrollPane(pseudoList);
+        pseudoScroll.setPreferredSize(new Dimension(360, 220));
+        right.add(title, BorderLayout.NORTH);
+        right.add(pseudoScroll, BorderLayout.CENTER);
+        add(right, BorderLayout.EAST);
+
+        // Bottom: status only
+        JPanel bottom = new JPanel(new BorderLayout());
+        bottom.setBackground(new Color(40, 40, 44));
+        JPanel left = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 6));
+        left.setBackground(new Color(40, 40, 44));
+        left.add(statusLabel);
+        bottom.add(left, BorderLayout.WEST);
+        add(bottom, BorderLayout.SOUTH);
+
+        // Center: canvas (scrollable)
+        canvas.setPreferredSize(new Dimension(W, H));
+        canvasScroll = new JScrollPane(canvas);
+        canvasScroll.setBorder(new EmptyBorder(0, 0, 0, 0));
+        canvasScroll.getHorizontalScrollBar().setUnitIncrement(24);
+        add(canvasScroll, BorderLayout.CENTER);
+
+        // Wire actions
+        btnInsert.addActionListener(e -> onInsert());
+        insertValue.addActionListener(e -> onInsert());
+        btnPoll.addActionListener(e -> onPoll());
+        btnBuild.addActionListener(e -> onBuild());
+        btnBench.addActionListener(e -> onBenchmark());
+        btnSkip.addActionListener(e -> finishAnimation());
+        btnClear.addActionListener(e -> {
+            finishAnimation();
+            heap.clear();
+            pseudoModel.clear();
+            syncShown();
+            status("Heap cleared.");
+        });
+        arityChoice.addActionListener(e -> onArity());
+        speed.addChangeListener(e -> {
+            animDelay = speed.getValue();
+            if (timer != null)
+                timer.setDelay(animDelay);
+        });
+
+        heap.trace = (kind, i, j) -> record(kind, i, j);
+        syncShown();
+        status("Empty " + heap.arity() + "-ary min-heap. Insert values or build one with Heapify.");
+    }
+
+    private JPanel row(Component... cs) {
+        JPanel p = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
+        p.setOpaque(false);
+        for (Component c : cs)
+            p.add(c);
+        return p;
+    }
+
+    // ---------- Operations ----------
+    private void onInsert() {
+        Integer v = parseInt(insertValue.getText());
+        if (v == null) {
+            status("Enter a number to insert.");
+            return;
+        }
+        insertValue.setText("");
+        beginOperation();
+        setPseudo("Insert(x)",
+                "a[n] = x; i = n; n++",
+                "while i > 0 and a[i] < a[parent(i)]:",
+                "    swap(a[i], a[parent(i)]); i = parent(i)",
+                "// parent(i) = (i - 1) / d");
+        compareLine = childCompareLine = 2;
+        swapLine = 3;
+
+        // the new value appears in the last slot before sifting up
+        if (heap.size() < TRACE_LIMIT) {
+            ensureShownCapacity(shownSize + 1);
+            shown[shownSize++] = v;
+        }
+        withTrace(heap.size() + 1, () -> heap.insert(v));
+        play("Inserted " + v + ".");
+    }
+
+    private void onPoll() {
+        if (heap.isEmpty()) {
+            status("The heap is empty! Nothing to poll.");
+            return;
+        }
+        beginOperation();
+        setPseudo("PollMin()",
+                "min = a[0]; swap(a[0], a[n-1]); n--",
+                "i = 0",
+                "while i has children:",
+                "    c = smallest of a[d*i+1 .. d*i+d]",
+                "    if a[c] >= a[i]: break",
+                "    swap(a[i], a[c]); i = c",
+                "return min");
+        childCompareLine = 4;
+        compareLine = 5;
+        swapLine = 6;
+
+        int n = heap.size();
+        int[] min = new int[1];
+        withTrace(n, () -> min[0] = heap.poll());
+        // the first step moves the last element to the root; the old root then leaves
+        if (n > 1)
+            insertStep(1, SHRINK, n - 1, n - 1);
+        else
+            insertStep(0, SHRINK, 0, 0);
+        play("Polled min = " + min[0] + ".");
+    }
+
+    private void onBuild() {
+        int[] vals;
+        if ("User".equals(buildType.getSelectedItem())) {
+            vals = parseCSV(buildInput.getText());
+            if (vals.length == 0) {
+                status("Enter comma separated values, e.g. 9,4,7,1");
+                return;
+            }
+        } else {
+            Integer n = parseInt(buildInput.getText());
+            if (n == null || n < 1 || n > MAX_BUILD) {
+                status("Enter how many random values to heapify (1.." + MAX_BUILD + ").");
+                return;
+            }
+            vals = new int[n];
+            Random rnd = new Random();
+            int bound = n <= 64 ? 100 : n <= TRACE_LIMIT ? 1000 : 1_000_000;
+            for (int i = 0; i < n; i++)
+                vals[i] = rnd.nextInt(bound);
+        }
+        beginOperation();
+        setPseudo("Heapify(a, n)",
+                "for i = parent(n-1) down to 0:",
+                "    siftDown(i)",
+                "        c = smallest child of i",
+                "        if a[c] >= a[i]: break",
+                "        swap(a[i], a[c]); i = c");
+        childCompareLine = 3;
+        compareLine = 4;
+        swapLine = 5;
+
+        shown = vals.length <= TRACE_LIMIT ? vals.clone() : new int[0];
+        shownSize = shown.length;
+        long t0 = System.nanoTime();
+        withTrace(vals.length, () -> heap.heapify(vals, 0, vals.length));
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        play("Heapified " + String.format("%,d", vals.length) + " values in " + ms + " ms.");
+    }
+
+    // Switching arity keeps the values and rebuilds the heap order in place
+    private void onArity() {
+        int d = (Integer) arityChoice.getSelectedItem();
+        if (d == heap.arity())
+            return;
+        finishAnimation();
+        heap.resetCounters();
+        long t0 = System.nanoTime();
+        withTrace(Integer.MAX_VALUE, () -> heap.setArity(d));
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        pseudoModel.clear();
+        syncShown();
+        status("Rebuilt as a " + d + "-ary heap in " + ms + " ms: " + counters());
+    }
+
+    // Times BENCH_OPS poll+insert pairs at the current size and arity, off
+    // the EDT; the controls that touch the heap are off until it is done
+    private void onBenchmark() {
+        if (heap.isEmpty()) {
+            status("Build a heap first (e.g. Heapify 1000000 random values).");
+            return;
+        }
+        finishAnimation();
+        DaryHeap.Trace saved = heap.trace;
+        heap.trace = null;
+        setHeapControlsEnabled(false);
+        status(String.format("Benchmarking %,d poll+insert pairs on %,d elements...", BENCH_OPS, heap.size()));
+
+        SwingWorker<Long, Void> run = new SwingWorker<Long, Void>() {
+            protected Long doInBackground() {
+                Random rnd = new Random(42);
+                for (int i = 0; i < BENCH_OPS / 10; i++) { // warm up
+                    heap.poll();
+                    heap.insert(rnd.nextInt(1_000_000));
+                }
+                heap.resetCounters();
+                long t0 = System.nanoTime();
+                for (int i = 0; i < BENCH_OPS; i++) {
+                    heap.poll();
+                    heap.insert(rnd.nextInt(1_000_000));
+                }
+                return System.nanoTime() - t0;
+            }
+
+            protected void done() {
+                heap.trace = saved;
+                setHeapControlsEnabled(true);
+                syncShown();
+                long ns;
+                try {
+                    ns = get();
+                } catch (InterruptedException | ExecutionException ex) {
+                    status("Benchmark failed: " + ex);
+                    return;
+                }
+                status(String.format(
+                        "%d-ary, n = %,d: %.1f ns per poll+insert, %.1f comparisons and %.1f swaps per pair",
+                        heap.arity(), heap.size(), (double) ns / BENCH_OPS, (double) heap.comparisons / BENCH_OPS,
+                        (double) heap.swaps / BENCH_OPS));
+            }
+        };
+        run.execute();
+    }
+
+    private void setHeapControlsEnabled(boolean on) {
+        for (JComponent c : new JComponent[] { insertValue, btnInsert, btnPoll, buildType, buildInput, btnBuild,
+                arityChoice, btnBench, btnSkip, btnClear })
+            c.setEnabled(on);
+    }
+
+    // ---------- Step recording ----------
+    private void beginOperation() {
+        finishAnimation();
+        heap.resetCounters();
+        stepCount = 0;
+        stepPos = 0;
+        overflow = false;
+    }
+
+    private void withTrace(int n, Runnable op) {
+        DaryHeap.Trace saved = heap.trace;
+        if (n > TRACE_LIMIT)
+            heap.trace = null;
+        op.run();
+        heap.trace = saved;
+        if (n > TRACE_LIMIT)
+            overflow = true;
+    }
+
+    private void record(int kind, int i, int j) {
+        if (overflow)
+            return;
+        if (stepCount == MAX_STEPS) {
+            overflow = true;
+            return;
+        }
+        if (3 * stepCount == steps.length)
+            steps = Arrays.copyOf(steps, steps.length * 2);
+        steps[3 * stepCount] = kind;
+        steps[3 * stepCount + 1] = i;
+        steps[3 * stepCount + 2] = j;
+        stepCount++;
+    }
+
+    private void insertStep(int at, int kind, int i, int j) {
+        if (overflow)
+            return;
+        record(0, 0, 0); // make room
+        System.arraycopy(steps, 3 * at, steps, 3 * at + 3, 3 * (stepCount - 1 - at));
+        steps[3 * at] = kind;
+        steps[3 * at + 1] = i;
+        steps[3 * at + 2] = j;
+    }
+
+    // ---------- Replay ----------
+    private void play(String message) {
+        doneMessage = message + " " + counters();
+        if (overflow || stepCount == 0) {
+            syncShown();
+            status(doneMessage + (overflow ? " (too many steps to animate)" : ""));
+            return;
+        }
+        status(message + " Replaying " + stepCount + " steps...");
+        timer = new javax.swing.Timer(animDelay, e -> advance());
+        timer.start();
+    }
+
+    private void advance() {
+        if (stepPos == stepCount) {
+            finishAnimation();
+            return;
+        }
+        int kind = steps[3 * stepPos], i = steps[3 * stepPos + 1], j = steps[3 * stepPos + 2];
+        stepPos++;
+        if (kind == DaryHeap.SWAP) {
+            int t = shown[i];
+            shown[i] = shown[j];
+            shown[j] = t;
+            selectPseudo(swapLine);
+        } else if (kind == DaryHeap.COMPARE) {
+            boolean children = j != 0 && i != 0 && heap.parent(i) == heap.parent(j);
+            selectPseudo(children ? childCompareLine : compareLine);
+        } else {
+            shownSize--; // SHRINK
+        }
+        hiKind = kind;
+        hiA = i;
+        hiB = j;
+        canvas.repaint();
+    }
+
+    // Stops any replay and draws the heap as it is now
+    private void finishAnimation() {
+        boolean wasRunning = timer != null && timer.isRunning();
+        if (timer != null)
+            timer.stop();
+        timer = null;
+        stepCount = stepPos = 0;
+        syncShown();
+        if (wasRunning) {
+            selectPseudo(pseudoModel.size() - 1);
+            status(doneMessage);
+        }
+    }
+
+    private void syncShown() {
+        hiA = hiB = hiKind = -1;
+        int n = Math.min(heap.size(), TRACE_LIMIT);
+        ensureShownCapacity(n);
+        for (int i = 0; i < n; i++)
+            shown[i] = heap.get(i);
+        shownSize = n;
+        layoutCanvas();
+        canvas.repaint();
+    }
+
+    private void ensureShownCapacity(int n) {
+        if (shown.length < n)
+            shown = Arrays.copyOf(shown, Math.max(n, shown.length * 2));
+    }
+
+    private String counters() {
+        return heap.comparisons + " comparisons, " + heap.swaps + " swaps. Size: "
+                + String.format("%,d", heap.size());
+    }
+
+    // ---------- Helpers ----------
+    private int[] parseCSV(String s) {
+        List<Integer> out = new java.util.ArrayList<>();
+        if (s != null) {
+            for (String part : s.split(",")) {
+                Integer v = parseInt(part);
+                if (v != null)
+                    out.add(v);
+            }
+        }
+        int[] vals = new int[out.size()];
+        for (int i = 0; i < vals.length; i++)
+            vals[i] = out.get(i);
+        return vals;
+    }
+
+    private Integer parseInt(String s) {
+        try {
+            return Integer.parseInt(s.trim().replace(",", ""));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void status(String s) {
+        statusLabel.setText(s);
+    }
+
+    // ---------- Pseudocode helpers ----------
+    private void selectPseudo(int idx) {
+        if (idx >= 0 && idx < pseudoModel.size())
+            pseudoList.setSelectedIndex(idx);
+    }
+
+    private void setPseudo(String title, String... lines) {
+        pseudoModel.clear();
+        pseudoModel.addElement("// " + title + " (d = " + heap.arity() + ")");
+        for (String ln : lines)
+            pseudoModel.addElement(ln);
+        pseudoList.setSelectedIndex(0);
+    }
+
+    // ---------- Layout + Drawing ----------
+    // Number of levels drawn: the deepest one holds at most WIDEST_LEVEL nodes
+    private int drawnLevels() {
+        int levels = 1;
+        for (long w = heap.arity(); w <= WIDEST_LEVEL; w *= heap.arity())
+            levels++;
+        return levels;
+    }
+
+    private int drawnSlots() {
+        int d = heap.arity(), total = 0, w = 1;
+        for (int l = 0; l < drawnLevels(); l++, w *= d)
+            total += w;
+        return total;
+    }
+
+    private void layoutCanvas() {
+        int width = Math.max(W, WIDEST_LEVEL * SLOT_W + 80);
+        int height = START_Y + drawnLevels() * LEVEL_H + 40;
+        canvas.setPreferredSize(new Dimension(width, Math.max(H, height)));
+        canvas.revalidate();
+    }
+
+    private class DrawPanel extends JPanel {
+        private final Color edge = new Color(160, 160, 165);
+        private final Color plain = new Color(70, 80, 200);
+        private final Color swap = new Color(200, 80, 60);
+        private final Color compare = new Color(220, 170, 40);
+        private final Stroke outline = new BasicStroke(2f);
+        private final java.awt.geom.Ellipse2D.Double circle = new java.awt.geom.Ellipse2D.Double();
+        // the caption is formatted again only when one of its numbers changes
+        private String caption = "";
+        private int captionArity, captionSize = -1, captionDrawn;
+
+        DrawPanel() {
+            setBackground(new Color(24, 24, 26));
+            setOpaque(true);
+        }
+
+        private int levelOf(int i) {
+            int d = heap.arity(), level = 0;
+            long start = 0, width = 1;
+            while (i >= start + width) {
+                start += width;
+                width *= d;
+                level++;
+            }
+            return level;
+        }
+
+        private int x(int i) {
+            int d = heap.arity(), level = levelOf(i);
+            long start = 0, width = 1;
+            for (int l = 0; l < level; l++) {
+                start += width;
+                width *= d;
+            }
+            int avail = getWidth() - 40;
+            return 20 + (int) ((2 * (i - start) + 1) * avail / (2 * width));
+        }
+
+        private int y(int i) {
+            return START_Y + levelOf(i) * LEVEL_H;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            long mark = meter.mark();
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+            int n = Math.min(shownSize, drawnSlots());
+
+            // Edges first
+            g2.setColor(edge);
+            g2.setStroke(outline);
+            for (int i = 1; i < n; i++) {
+                int p = heap.parent(i);
+                g2.drawLine(x(p), y(p) + NODE_D / 2, x(i), y(i) - NODE_D / 2);
+            }
+
+            // Nodes
+            for (int i = 0; i < n; i++)
+                drawNode(g2, i);
+
+            g2.setColor(Color.WHITE);
+            g2.drawString(caption(n), 20, 24);
+            g2.dispose();
+            if (meter.isEnabled()) {
+                meter.record(meter.since(mark));
+                meter.paint(g, getVisibleRect());
+            }
+        }
+
+        private String caption(int n) {
+            if (heap.arity() != captionArity || heap.size() != captionSize || n != captionDrawn) {
+                captionArity = heap.arity();
+                captionSize = heap.size();
+                captionDrawn = n;
+                if (heap.size() == 0)
+                    caption = "(empty heap)";
+                else if (heap.size() > n)
+                    caption = String.format("%d-ary heap, %,d elements; the first %,d slots are drawn", heap.arity(),
+                            heap.size(), n);
+                else
+                    caption = heap.arity() + "-ary heap, " + heap.size() + " elements";
+            }
+            return caption;
+        }
+
+        private void drawNode(Graphics2D g2, int i) {
+            int cx = x(i), cy = y(i);
+            boolean hi = i == hiA || i == hiB;
+            Color fill = plain;
+            if (hi && hiKind == DaryHeap.SWAP)
+                fill = swap;
+            else if (hi && hiKind == DaryHeap.COMPARE)
+                fill = compare;
+            g2.setStroke(outline);
+            g2.setColor(fill);
+            circle.setFrame(cx - NODE_D / 2, cy - NODE_D / 2, NODE_D, NODE_D);
+            g2.fill(circle);
+            g2.setColor(Color.WHITE);
+            g2.draw(circle);
+
+            LabelCache labels = LabelCache.forThread();
+            labels.drawCentered(g2, shown[i], cx, 0, cy + labels.ascent(g2) / 2 - 2);
+        }
+    }
+}
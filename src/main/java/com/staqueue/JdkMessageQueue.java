@@ -0,0 +1,63 @@
+package com.staqueue;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adapts a java.util.concurrent queue to MessageQueue so the producer/consumer
+ * mode can compare it with the ring queues under the same workload.
+ *
+ * Messages are boxed; most of them are 0, which Long.valueOf() serves from its
+ * cache, so only the timestamped ones allocate. An unbounded queue is given a
+ * backlog counter so fast producers cannot fill the heap while the consumers
+ * fall behind.
+ */
+public class JdkMessageQueue implements MessageQueue {
+
+    private final Queue<Long> queue;
+    private final String name;
+    private final AtomicInteger backlog; // null when the queue bounds itself
+    private final int bound;
+
+    private JdkMessageQueue(Queue<Long> queue, String name, int bound, boolean counted) {
+        this.queue = queue;
+        this.name = name;
+        this.bound = bound;
+        this.backlog = counted ? new AtomicInteger() : null;
+    }
+
+    public static JdkMessageQueue arrayBlocking(int capacity) {
+        return new JdkMessageQueue(new ArrayBlockingQueue<Long>(capacity), "ArrayBlockingQueue", capacity, false);
+    }
+
+    public static JdkMessageQueue concurrentLinked(int bound) {
+        return new JdkMessageQueue(new ConcurrentLinkedQueue<Long>(), "ConcurrentLinkedQueue", bound, true);
+    }
+
+    @Override
+    public boolean offer(long v) {
+        if (backlog != null) {
+            if (backlog.get() >= bound)
+                return false;
+            backlog.incrementAndGet();
+        }
+        return queue.offer(v);
+    }
+
+    @Override
+    public long poll() {
+        Long v = queue.poll();
+        if (v == null)
+            return EMPTY;
+        if (backlog != null)
+            backlog.decrementAndGet();
+        return v;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+}
@@ -0,0 +1,64 @@
+package com.staqueue;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.util.Arrays;
+
+/**
+ * Decimal labels of int values with their widths in one font, so a painter
+ * does not format and measure the same numbers again on every frame.
+ *
+ * The table is direct mapped: a value replaces whatever label shared its
+ * slot. It is rebuilt when the graphics font changes. Painters share the
+ * cache of their thread, see forThread().
+ */
+final class LabelCache {
+
+    private static final int SLOTS = 1024; // power of two
+
+    private static final ThreadLocal<LabelCache> CACHES = ThreadLocal.withInitial(LabelCache::new);
+
+    private final int[] values = new int[SLOTS];
+    private final String[] texts = new String[SLOTS];
+    private final int[] widths = new int[SLOTS];
+    private Font font;
+    private FontMetrics metrics;
+
+    // The cache of the calling thread
+    static LabelCache forThread() {
+        return CACHES.get();
+    }
+
+    // Draws the value centered in [left, left + width); a width of 0 centers
+    // it on left
+    void drawCentered(Graphics2D g2, int value, int left, int width, int baseline) {
+        int i = slot(g2, value);
+        g2.drawString(texts[i], left + (width - widths[i]) / 2, baseline);
+    }
+
+    int ascent(Graphics2D g2) {
+        bind(g2);
+        return metrics.getAscent();
+    }
+
+    private int slot(Graphics2D g2, int value) {
+        bind(g2);
+        int i = (value * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(SLOTS));
+        if (texts[i] == null || values[i] != value) {
+            values[i] = value;
+            texts[i] = String.valueOf(value);
+            widths[i] = metrics.stringWidth(texts[i]);
+        }
+        return i;
+    }
+
+    private void bind(Graphics2D g2) {
+        Font f = g2.getFont();
+        if (f != font && !f.equals(font)) {
+            font = f;
+            metrics = g2.getFontMetrics(f);
+            Arrays.fill(texts, null);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.staqueue;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram with log-linear buckets: every power of two of
+ * nanoseconds is split into 16 sub-buckets, so a percentile read back from it
+ * is within about 6% of the recorded value. Any thread may record; the UI
+ * takes the counts with snapshotAndReset() once per sample period.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;
+    static final int BUCKETS = 64 * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long nanos) {
+        counts.incrementAndGet(index(Math.max(0, nanos)));
+    }
+
+    // Copies the counts and zeroes them, so each sample covers one period
+    public long[] snapshotAndReset() {
+        long[] out = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+            out[i] = counts.getAndSet(i, 0);
+        return out;
+    }
+
+    // Upper bound of the bucket holding the p-th percentile (p in 0..100), or 0 if empty
+    public static long percentile(long[] snapshot, double p) {
+        long total = 0;
+        for (long c : snapshot)
+            total += c;
+        if (total == 0)
+            return 0;
+        long rank = (long) Math.ceil(total * p / 100.0);
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank)
+                return upperBound(i);
+        }
+        return upperBound(snapshot.length - 1);
+    }
+
+    public static long count(long[] snapshot) {
+        long total = 0;
+        for (long c : snapshot)
+            total += c;
+        return total;
+    }
+
+    static int index(long v) {
+        if (v < SUB)
+            return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v); // v in [2^exp, 2^(exp+1))
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+        return (exp - SUB_BITS + 1) * SUB + sub;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB)
+            return index;
+        int exp = index / SUB + SUB_BITS - 1;
+        int sub = index % SUB;
+        return ((long) (SUB + sub + 1) << (exp - SUB_BITS)) - 1;
+    }
+}
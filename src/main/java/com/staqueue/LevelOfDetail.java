@@ -0,0 +1,143 @@
+package com.staqueue;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Stroke;
+import java.awt.geom.Ellipse2D;
+import java.util.Arrays;
+
+/**
+ * Picks how much of a node to draw from its size on screen, so a canvas with
+ * a huge structure does not spend its frame on detail nobody can see.
+ *
+ * FULL draws antialiased circles with an outline and the label. SHAPES drops
+ * the label and the antialiasing. POINTS fills the node's square of a few
+ * pixels. TILES stops drawing nodes one by one: they are counted into a grid
+ * of small tiles, and each tile is shaded by how many nodes it holds.
+ *
+ * A scene takes the painter of its thread with begin() at the start of a
+ * frame. The painter keeps the labels, the density grid and the strokes
+ * between frames, so drawing a frame does not allocate.
+ */
+final class LevelOfDetail {
+
+    static final int FULL = 0, SHAPES = 1, POINTS = 2, TILES = 3;
+
+    // smallest on-screen diameter, in device pixels, for each level
+    private static final double FULL_PX = 14, SHAPES_PX = 5, POINTS_PX = 1.5;
+    private static final int TILE_PX = 4; // density tile side in device pixels
+    private static final int SHADES = 16;
+
+    private static final Stroke OUTLINE = new BasicStroke(2f);
+    private static final Stroke EDGE = new BasicStroke(2f);
+    private static final Stroke THIN = new BasicStroke(1f);
+
+    private static final ThreadLocal<LevelOfDetail> PAINTERS = ThreadLocal.withInitial(LevelOfDetail::new);
+
+    private final LabelCache labels = LabelCache.forThread();
+    private final Ellipse2D.Double circle = new Ellipse2D.Double(); // fillOval would allocate one per call
+    private int level, radius, point;
+    private double scale; // device pixels per user unit
+
+    // density grid over the area given to beginDensity
+    private int[] count = new int[0];
+    private int x0, y0, cols, rows, max;
+    private double cell; // tile side in user units
+
+    private LevelOfDetail() {
+    }
+
+    // The painter of the calling thread, set up for nodes of the given
+    // radius under the graphics' current transform
+    static LevelOfDetail begin(Graphics2D g2, int radius) {
+        LevelOfDetail p = PAINTERS.get();
+        p.scale = Math.sqrt(Math.abs(g2.getTransform().getDeterminant()));
+        p.radius = radius;
+        double d = 2 * radius * p.scale;
+        p.level = d >= FULL_PX ? FULL : d >= SHAPES_PX ? SHAPES : d >= POINTS_PX ? POINTS : TILES;
+        p.point = Math.max(2 * radius, (int) Math.ceil(2 * POINTS_PX / p.scale));
+        // antialiasing only pays off while the labels are drawn too
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                p.level == FULL ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+        return p;
+    }
+
+    int level() {
+        return level;
+    }
+
+    // Stroke for the edges; at TILES the caller skips them
+    Stroke edgeStroke() {
+        return level <= SHAPES ? EDGE : THIN;
+    }
+
+    // Draws one node. At TILES a node drawn on its own (a highlight above the
+    // density grid) is shown as a point.
+    void drawNode(Graphics2D g2, int x, int y, Color fill, int label) {
+        int r = radius;
+        g2.setColor(fill);
+        if (level >= POINTS) {
+            g2.fillRect(x - point / 2, y - point / 2, point, point);
+            return;
+        }
+        circle.setFrame(x - r, y - r, 2 * r, 2 * r);
+        g2.fill(circle);
+        g2.setColor(Color.WHITE);
+        g2.setStroke(level == SHAPES ? THIN : OUTLINE);
+        g2.draw(circle);
+        if (level == FULL)
+            labels.drawCentered(g2, label, x, 0, y + labels.ascent(g2) / 2 - 2);
+    }
+
+    // Clears the density grid and lays it over the given user-space area
+    void beginDensity(Rectangle area) {
+        cell = TILE_PX / scale;
+        x0 = area.x;
+        y0 = area.y;
+        cols = (int) Math.ceil(area.width / cell) + 1;
+        rows = (int) Math.ceil(area.height / cell) + 1;
+        if (count.length < cols * rows)
+            count = new int[cols * rows];
+        else
+            Arrays.fill(count, 0, cols * rows, 0);
+        max = 0;
+    }
+
+    void addDensity(int x, int y) {
+        int c = (int) ((x - x0) / cell), r = (int) ((y - y0) / cell);
+        if (x < x0 || y < y0 || c >= cols || r >= rows)
+            return;
+        int n = ++count[r * cols + c];
+        if (n > max)
+            max = n;
+    }
+
+    // Shades each occupied tile, from faint for a single node to solid for
+    // the fullest tile, on a log scale so sparse areas stay visible
+    void paintDensity(Graphics2D g2, Color[] shades) {
+        if (max == 0)
+            return;
+        double logMax = Math.log1p(max);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int n = count[r * cols + c];
+                if (n == 0)
+                    continue;
+                g2.setColor(shades[max == 1 ? SHADES - 1 : (int) ((SHADES - 1) * Math.log1p(n) / logMax)]);
+                int px = x0 + (int) Math.floor(c * cell), py = y0 + (int) Math.floor(r * cell);
+                g2.fillRect(px, py, x0 + (int) Math.floor((c + 1) * cell) - px, y0 + (int) Math.floor((r + 1) * cell) - py);
+            }
+        }
+    }
+
+    // The density palette of a node color, for paintDensity
+    static Color[] shades(Color color) {
+        Color[] s = new Color[SHADES];
+        for (int i = 0; i < SHADES; i++)
+            s[i] = new Color(color.getRed(), color.getGreen(), color.getBlue(), 70 + 185 * i / (SHADES - 1));
+        return s;
+    }
+}
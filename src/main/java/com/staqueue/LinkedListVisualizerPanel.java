@@ -74,6 +74,9 @@ public class LinkedListVisualizerPanel extends JPanel {
     // Canvas + scroll
     private final DrawPanel canvas = new DrawPanel();
     private JScrollPane canvasScroll;
+    private final FrameRenderer renderer = new FrameRenderer(canvas, "Linked list");
+    private final JCheckBox chkRenderThread = new JCheckBox("Render thread");
+    private final JCheckBox chkAlloc = new JCheckBox("Alloc/frame");
 
     // ---------- Animation state ----------
     private javax.swing.Timer timer;
@@ -119,7 +122,15 @@ public class LinkedListVisualizerPanel extends JPanel {
         JPanel pnlInsert = row(lblInsert, lblIdx, insertIndex, lblVal, insertValue, btnInsert);
         JPanel pnlSearch = row(lblSearch, searchInput, btnSearch);
         JPanel pnlRemove = row(lblRemove, removeValue, btnRemove);
-        JPanel pnlMode = row(chkDoubly);
+        chkRenderThread.setForeground(Color.WHITE);
+        chkRenderThread.setOpaque(false);
+        chkRenderThread.setToolTipText("Draw frames on a background thread; the UI thread only copies them to the screen");
+        chkRenderThread.addActionListener(e -> renderer.setEnabled(chkRenderThread.isSelected()));
+        chkAlloc.setOpaque(false);
+        chkAlloc.setForeground(Color.WHITE);
+        chkAlloc.setToolTipText("Show how many bytes each frame of the canvas allocates");
+        chkAlloc.addActionListener(e -> renderer.setAllocationOverlay(chkAlloc.isSelected()));
+        JPanel pnlMode = row(chkDoubly, chkRenderThread, chkAlloc);
         JPanel pnlCtrl = row(btnStep, btnReset, lblSpeed, speed);
 
         topBar.add(pnlCreate);
@@ -583,56 +594,80 @@ public class LinkedListVisualizerPanel extends JPanel {
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
-            Graphics2D g2 = (Graphics2D) g.create();
+            renderer.paint(g, LinkedListVisualizerPanel.this::snapshot);
+        }
+    }
+
+    // Copies node positions and values into a scene the render thread can paint
+    private ListScene snapshot() {
+        ListScene s = new ListScene(listSize(), doubly, cursorIndex == null ? -1 : cursorIndex);
+        int i = 0;
+        for (Node t = head; t != null; t = t.next, i++) {
+            s.x[i] = t.x;
+            s.y[i] = t.y;
+            s.val[i] = t.val;
+        }
+        return s;
+    }
+
+    // One frame of the list canvas, painted on the EDT or the render thread
+    private static final class ListScene implements FrameRenderer.Scene {
+        private static final Color LINK = new Color(160, 160, 165);
+        private static final Color NODE = new Color(70, 80, 200);
+        private static final Color HIGHLIGHT = new Color(200, 80, 60);
+        private static final Stroke OUTLINE = new BasicStroke(2f);
+        private final java.awt.geom.RoundRectangle2D.Double box = new java.awt.geom.RoundRectangle2D.Double();
+
+        final int[] x, y, val;
+        final boolean doubly;
+        final int highlight;
+
+        ListScene(int n, boolean doubly, int highlight) {
+            x = new int[n];
+            y = new int[n];
+            val = new int[n];
+            this.doubly = doubly;
+            this.highlight = highlight;
+        }
+
+        @Override
+        public void paint(Graphics2D g2) {
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
             // Draw links first
             drawArrows(g2);
 
             // Draw nodes
-            Node t = head;
-            int idx = 0;
-            while (t != null) {
-                boolean highlight = (cursorIndex != null && cursorIndex == idx);
-                drawNode(g2, t, highlight);
-                t = t.next;
-                idx++;
-            }
+            for (int i = 0; i < x.length; i++)
+                drawNode(g2, i, i == highlight);
 
             // HEAD label
             g2.setColor(Color.WHITE);
             g2.drawString("head", START_X - 35, START_Y + NODE_H / 2 - 8);
             g2.drawLine(START_X - 10, START_Y + NODE_H / 2 - 12, START_X - 2, START_Y + NODE_H / 2 - 12);
-
-            g2.dispose();
         }
 
-        private void drawNode(Graphics2D g2, Node n, boolean highlight) {
-            int x = n.x, y = n.y;
-            g2.setStroke(new BasicStroke(2f));
-            g2.setColor(highlight ? new Color(200, 80, 60) : new Color(70, 80, 200));
-            g2.fillRoundRect(x, y, NODE_W, NODE_H, 10, 10);
+        private void drawNode(Graphics2D g2, int i, boolean highlight) {
+            int x = this.x[i], y = this.y[i];
+            g2.setStroke(OUTLINE);
+            g2.setColor(highlight ? HIGHLIGHT : NODE);
+            box.setRoundRect(x, y, NODE_W, NODE_H, 10, 10);
+            g2.fill(box);
             g2.setColor(Color.WHITE);
-            g2.drawRoundRect(x, y, NODE_W, NODE_H, 10, 10);
+            g2.draw(box);
 
-            String s = String.valueOf(n.val);
-            FontMetrics fm = g2.getFontMetrics();
-            int tx = x + (NODE_W - fm.stringWidth(s)) / 2;
-            int ty = y + (NODE_H + fm.getAscent()) / 2 - 4;
-            g2.drawString(s, tx, ty);
+            LabelCache labels = LabelCache.forThread();
+            labels.drawCentered(g2, val[i], x, NODE_W, y + (NODE_H + labels.ascent(g2)) / 2 - 4);
         }
 
         private void drawArrows(Graphics2D g2) {
-            g2.setColor(new Color(160, 160, 165));
-            g2.setStroke(new BasicStroke(2f));
-            Node a = head;
-            while (a != null && a.next != null) {
-                Node b = a.next;
-                drawArrow(g2, a.x + NODE_W, a.y + NODE_H / 2, b.x, b.y + NODE_H / 2, 10);
+            g2.setColor(LINK);
+            g2.setStroke(OUTLINE);
+            for (int a = 0, b = 1; b < x.length; a++, b++) {
+                drawArrow(g2, x[a] + NODE_W, y[a] + NODE_H / 2, x[b], y[b] + NODE_H / 2, 10);
                 if (doubly) { // back link for DLL
-                    drawArrow(g2, b.x, b.y + NODE_H / 2 + 8, a.x + NODE_W, a.y + NODE_H / 2 + 8, 8);
+                    drawArrow(g2, x[b], y[b] + NODE_H / 2 + 8, x[a] + NODE_W, y[a] + NODE_H / 2 + 8, 8);
                 }
-                a = a.next;
             }
         }
 
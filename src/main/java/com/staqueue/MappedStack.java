@@ -0,0 +1,190 @@
+package com.staqueue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Stack whose elements live outside the Java heap.
+ *
+ * Values are written to a temp file that is memory-mapped in fixed 64 MB
+ * segments, mapped one at a time as the stack grows. The operating system
+ * pages the file in and out, so the stack can hold billions of ints with a
+ * small heap and no GC work. The element count is a long; top and nElts
+ * from Stack stop at Integer.MAX_VALUE, use length() beyond that.
+ */
+public class MappedStack extends Stack {
+
+    private static final int SEGMENT_SHIFT = 24; // 16M ints per segment
+    private static final int SEGMENT_INTS = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_INTS - 1;
+    public static final long SEGMENT_BYTES = (long) SEGMENT_INTS * Integer.BYTES;
+
+    private final File file;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private IntBuffer[] segments = new IntBuffer[8];
+    private int mappedSegments;
+    private long count;
+
+    public MappedStack() {
+        super(0);
+        size = Integer.MAX_VALUE;
+        try {
+            file = File.createTempFile("stack", ".bin");
+            file.deleteOnExit();
+            raf = new RandomAccessFile(file, "rw");
+            channel = raf.getChannel();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create off-heap stack file", e);
+        }
+    }
+
+    @Override
+    public void push(int elt) {
+        int seg = (int) (count >>> SEGMENT_SHIFT);
+        if (seg == mappedSegments) {
+            mapSegment();
+        }
+        segments[seg].put((int) (count & SEGMENT_MASK), elt);
+        count++;
+        syncCounts();
+        listeners.cellsChanged(count - 1, count - 1);
+    }
+
+    @Override
+    public int pop() {
+        if (count == 0) {
+            throw new IllegalStateException("Stack is empty");
+        }
+        count--;
+        syncCounts();
+        listeners.cellsChanged(count, count);
+        return segments[(int) (count >>> SEGMENT_SHIFT)].get((int) (count & SEGMENT_MASK));
+    }
+
+    // Bulk copy into the mapped segments, one put per segment touched
+    @Override
+    public void pushAll(int[] src, int off, int count) {
+        long first = this.count;
+        while (count > 0) {
+            int seg = (int) (this.count >>> SEGMENT_SHIFT);
+            if (seg == mappedSegments) {
+                mapSegment();
+            }
+            int idx = (int) (this.count & SEGMENT_MASK);
+            int n = Math.min(count, SEGMENT_INTS - idx);
+            IntBuffer b = segments[seg];
+            b.position(idx);
+            b.put(src, off, n);
+            this.count += n;
+            off += n;
+            count -= n;
+        }
+        syncCounts();
+        if (this.count > first) {
+            listeners.cellsChanged(first, this.count - 1);
+        }
+    }
+
+    @Override
+    public int popN(int count, int[] dst, int off) {
+        int n = (int) Math.min(count, this.count);
+        this.count -= n;
+        long from = this.count;
+        int remaining = n;
+        while (remaining > 0) {
+            int idx = (int) (from & SEGMENT_MASK);
+            int chunk = Math.min(remaining, SEGMENT_INTS - idx);
+            IntBuffer b = segments[(int) (from >>> SEGMENT_SHIFT)];
+            b.position(idx);
+            b.get(dst, off, chunk);
+            from += chunk;
+            off += chunk;
+            remaining -= chunk;
+        }
+        syncCounts();
+        if (n > 0) {
+            listeners.cellsChanged(this.count, this.count + n - 1);
+        }
+        return n;
+    }
+
+    @Override
+    public int getVal(int i) {
+        return getVal((long) i);
+    }
+
+    @Override
+    public int getVal(long i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of range");
+        }
+        return segments[(int) (i >>> SEGMENT_SHIFT)].get((int) (i & SEGMENT_MASK));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    @Override
+    public long length() {
+        return count;
+    }
+
+    // Segments stay mapped, so refilling after a reset does not remap the file
+    @Override
+    public void clear() {
+        count = 0;
+        syncCounts();
+        listeners.modelReset();
+    }
+
+    public int mappedSegments() {
+        return mappedSegments;
+    }
+
+    public File file() {
+        return file;
+    }
+
+    // Closes the file; the mappings are released once they are garbage collected
+    public void close() {
+        Arrays.fill(segments, null);
+        mappedSegments = 0;
+        count = 0;
+        syncCounts();
+        try {
+            channel.close();
+            raf.close();
+        } catch (IOException e) {
+            // nothing useful to do, the file is deleted on exit anyway
+        }
+        file.delete();
+    }
+
+    private void mapSegment() {
+        if (mappedSegments == segments.length) {
+            segments = Arrays.copyOf(segments, segments.length * 2);
+        }
+        try {
+            MappedByteBuffer mbb = channel.map(FileChannel.MapMode.READ_WRITE,
+                    mappedSegments * SEGMENT_BYTES, SEGMENT_BYTES);
+            segments[mappedSegments++] = mbb.order(ByteOrder.nativeOrder()).asIntBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map off-heap stack segment", e);
+        }
+    }
+
+    private void syncCounts() {
+        nElts = (int) Math.min(count, Integer.MAX_VALUE);
+        top = nElts - 1;
+    }
+}
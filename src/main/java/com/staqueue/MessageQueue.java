@@ -0,0 +1,31 @@
+package com.staqueue;
+
+/**
+ * Queue of long messages shared between producer and consumer threads, used by
+ * the producer/consumer mode of the Queue tab to drive and compare queue
+ * implementations with the same workload.
+ */
+public interface MessageQueue {
+
+    long EMPTY = Long.MIN_VALUE; // returned by poll() when there is nothing to take
+
+    // Adds v if there is room; returns false instead of blocking when full
+    boolean offer(long v);
+
+    // Takes the oldest message, or returns EMPTY
+    long poll();
+
+    // Takes up to max messages into dst, returns how many were taken
+    default int drain(long[] dst, int max) {
+        int n = 0;
+        while (n < max) {
+            long v = poll();
+            if (v == EMPTY)
+                break;
+            dst[n++] = v;
+        }
+        return n;
+    }
+
+    String name();
+}
@@ -0,0 +1,16 @@
+package com.staqueue;
+
+/**
+ * Receives changes of a Stack or Queue model, so a view can repaint only the
+ * cells an operation touched instead of refreshing the whole component tree.
+ * Models call their listeners on the thread that changed them, which for
+ * every model shown in the UI is the EDT.
+ */
+public interface ModelChangeListener {
+
+    // Cells first..last (model indices, inclusive) were written or freed
+    void cellsChanged(long first, long last);
+
+    // Capacity or layout changed, or the model was cleared: refresh everything
+    void modelReset();
+}
@@ -0,0 +1,42 @@
+package com.staqueue;
+
+import java.util.Arrays;
+
+/**
+ * Listener list shared by the Stack and Queue models. Listeners are kept in a
+ * plain array that is copied on add and remove, so firing an event is a loop
+ * with no allocation, and with no listeners just a length check.
+ */
+class ModelListeners {
+
+    private static final ModelChangeListener[] NONE = new ModelChangeListener[0];
+
+    private ModelChangeListener[] listeners = NONE;
+
+    void add(ModelChangeListener l) {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = l;
+    }
+
+    void remove(ModelChangeListener l) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == l) {
+                ModelChangeListener[] next = new ModelChangeListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, next, 0, i);
+                System.arraycopy(listeners, i + 1, next, i, next.length - i);
+                listeners = next.length == 0 ? NONE : next;
+                return;
+            }
+        }
+    }
+
+    void cellsChanged(long first, long last) {
+        for (ModelChangeListener l : listeners)
+            l.cellsChanged(first, last);
+    }
+
+    void modelReset() {
+        for (ModelChangeListener l : listeners)
+            l.modelReset();
+    }
+}
@@ -0,0 +1,89 @@
+package com.staqueue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded queue for any number of producer and consumer threads, after
+ * Dmitry Vyukov's array queue.
+ *
+ * Every slot has a sequence number next to its value. A slot whose sequence
+ * equals the enqueue position is free for that position; one whose sequence
+ * is position + 1 holds a message for the consumer at that position. A
+ * producer claims a position with one CAS on tail, writes the value and then
+ * stores the slot's sequence, which publishes the value. Consumers do the same
+ * with head and hand the slot back by setting its sequence one lap ahead.
+ * Threads only contend on the CAS of the index they move, and no lock is taken
+ * on either path.
+ */
+public class MpmcQueue implements MessageQueue {
+
+    private final long[] buffer;
+    private final AtomicLongArray sequence;
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong(); // next enqueue position
+    private final AtomicLong head = new AtomicLong(); // next dequeue position
+
+    public MpmcQueue(int capacity) {
+        int cap = 2;
+        while (cap < capacity)
+            cap <<= 1;
+        buffer = new long[cap];
+        sequence = new AtomicLongArray(cap);
+        mask = cap - 1;
+        for (int i = 0; i < cap; i++)
+            sequence.lazySet(i, i);
+    }
+
+    @Override
+    public boolean offer(long v) {
+        long pos = tail.get();
+        while (true) {
+            int slot = (int) pos & mask;
+            long diff = sequence.get(slot) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    buffer[slot] = v;
+                    sequence.lazySet(slot, pos + 1); // publishes the value
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false; // the slot still holds a message from the last lap: full
+            } else {
+                pos = tail.get(); // another producer took this position
+            }
+        }
+    }
+
+    @Override
+    public long poll() {
+        long pos = head.get();
+        while (true) {
+            int slot = (int) pos & mask;
+            long diff = sequence.get(slot) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    long v = buffer[slot];
+                    sequence.lazySet(slot, pos + mask + 1); // free for the next lap
+                    return v;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return EMPTY;
+            } else {
+                pos = head.get(); // another consumer took this position
+            }
+        }
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    @Override
+    public String name() {
+        return "MPMC ring";
+    }
+}
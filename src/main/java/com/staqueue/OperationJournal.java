@@ -0,0 +1,133 @@
+package com.staqueue;
+
+import java.util.Arrays;
+
+/**
+ * Undo/redo history for the Stack and Queue tabs.
+ *
+ * Every operation is stored as an (op, value) pair in two parallel int arrays
+ * used as a ring buffer, so recording, undoing and redoing are all O(1). Once
+ * the journal holds {@code maxDepth} entries the oldest one is overwritten
+ * instead of shifting the history down. Storage starts small and doubles until
+ * it reaches {@code maxDepth}, so a deep journal only costs memory when it is
+ * actually used.
+ */
+public class OperationJournal {
+
+    public static final int PUSH = 0; // push on stack / insert into queue
+    public static final int POP = 1; // pop from stack / delete from queue
+
+    public static final int DEFAULT_DEPTH = 1 << 20;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int maxDepth;
+    private int[] ops;
+    private int[] vals;
+    private int start; // slot of the oldest entry
+    private int undoCount; // entries before the cursor
+    private int redoCount; // undone entries after the cursor
+    private int lastVal; // value of the entry last stepped over by undo/redo
+
+    public OperationJournal() {
+        this(DEFAULT_DEPTH);
+    }
+
+    public OperationJournal(int maxDepth) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("Journal depth must be positive");
+        }
+        this.maxDepth = maxDepth;
+        int cap = Math.min(maxDepth, INITIAL_CAPACITY);
+        ops = new int[cap];
+        vals = new int[cap];
+    }
+
+    // Records a new operation; anything that was undone can no longer be redone
+    public void record(int op, int val) {
+        redoCount = 0;
+        if (undoCount == ops.length) {
+            if (ops.length < maxDepth) {
+                grow();
+            } else {
+                start = next(start); // evict the oldest entry
+                undoCount--;
+            }
+        }
+        int slot = slot(undoCount);
+        ops[slot] = op;
+        vals[slot] = val;
+        undoCount++;
+    }
+
+    public boolean canUndo() {
+        return undoCount > 0;
+    }
+
+    public boolean canRedo() {
+        return redoCount > 0;
+    }
+
+    // Steps the cursor back one entry and returns its operation code
+    public int undo() {
+        if (undoCount == 0) {
+            throw new IllegalStateException("Nothing to undo");
+        }
+        undoCount--;
+        redoCount++;
+        int slot = slot(undoCount);
+        lastVal = vals[slot];
+        return ops[slot];
+    }
+
+    // Steps the cursor forward one entry and returns its operation code
+    public int redo() {
+        if (redoCount == 0) {
+            throw new IllegalStateException("Nothing to redo");
+        }
+        int slot = slot(undoCount);
+        undoCount++;
+        redoCount--;
+        lastVal = vals[slot];
+        return ops[slot];
+    }
+
+    // Value of the entry returned by the last undo() or redo()
+    public int value() {
+        return lastVal;
+    }
+
+    public int undoDepth() {
+        return undoCount;
+    }
+
+    public int redoDepth() {
+        return redoCount;
+    }
+
+    public int maxDepth() {
+        return maxDepth;
+    }
+
+    public void clear() {
+        start = 0;
+        undoCount = 0;
+        redoCount = 0;
+    }
+
+    private int slot(int offset) {
+        int s = start + offset;
+        return (s >= ops.length) ? s - ops.length : s;
+    }
+
+    private int next(int s) {
+        return (s + 1 == ops.length) ? 0 : s + 1;
+    }
+
+    // Entries are contiguous from slot 0 until the first eviction, which only
+    // happens at full depth, so growing is a plain copy.
+    private void grow() {
+        int cap = (int) Math.min((long) ops.length * 2, maxDepth);
+        ops = Arrays.copyOf(ops, cap);
+        vals = Arrays.copyOf(vals, cap);
+    }
+}
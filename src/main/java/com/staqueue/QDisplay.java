@@ -4,269 +4,347 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.util.Random;
 
-import javax.swing.BorderFactory;
-import javax.swing.Box;
-import javax.swing.JLabel;
+import javax.swing.JComponent;
 import javax.swing.JPanel;
-import javax.swing.border.Border;
-
+import javax.swing.JScrollBar;
+
+/**
+ * Draws the circular queue as one row of array slots with the Front marker
+ * above and the Rear marker below, plus a spacer column at each end that
+ * shows the wrap sign while the elements run past the end of the array.
+ *
+ * Only the columns inside the view are painted. The view listens to the
+ * queue model: a change marks just the slot it touched and the marker columns
+ * that moved as dirty and repaints those clip rectangles; everything is
+ * repainted only when the array is resized or the view scrolls. The
+ * horizontal position is kept as a column offset driven by the scroll bar,
+ * so the row can hold millions of slots.
+ */
 public class QDisplay extends JPanel {
 
     // Theme
     private static final Color BG = new Color(24, 24, 26);
     private static final Color NODE = new Color(70, 80, 200); // occupied -> blue
     private static final Color TEXT = Color.WHITE;
-    private static final Color EMPTY = Color.WHITE; // dequeued -> white
+    private static final Color EMPTY = Color.WHITE; // free slot -> white
+    private static final Color INDEX_GREY = new Color(150, 150, 155);
+
+    private static final String WRAP = "↺"; // shown at both ends while the queue wraps around
+
+    public static final int DEFAULT_CAPACITY = 16;
+    public static final int MAX_CAPACITY = Queue.MAX_CAPACITY;
+
+    // --- Column geometry ---
+    private static final int COL_W = 55;
+    private static final int HEADER_H = 24;
+    private static final int FRONT_H = 30;
+    private static final int CELL_H = 45;
+    private static final int REAR_H = 20;
+    private static final int INDEX_H = 18;
+    private static final int VIEW_COLS = 18;
 
     public Queue q;
-    private JPanel panel[];
-    private JLabel elts[];
-    private JLabel front;
-    private JPanel[] frontPanel;
-    private JLabel rear;
-    private JPanel[] rearPanel;
     public TextInterface textSetter;
     public static Boolean q_isRandom;
 
-    // reuse the same padding for borders
-    private final Border pad = BorderFactory.createEmptyBorder(5, 5, 0, 5);
-    // black outline, as requested
-    private final Border blackOutline = BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(Color.BLACK, 2), pad);
+    private final CellView cells = new CellView();
+    private final JScrollBar scrollBar = new JScrollBar(JScrollBar.HORIZONTAL);
+    private int firstCol; // column at the left edge; column i + 1 shows slot i
+    private boolean syncingScrollBar;
+    // marker positions the view last drew
+    private int shownFront, shownRear;
+    private boolean shownWrapped;
+    private final Random getRandom = new Random();
+    private final ModelChangeListener modelListener = new ModelChangeListener() {
+        public void cellsChanged(long first, long last) {
+            queueChanged((int) first, (int) last);
+        }
+
+        public void modelReset() {
+            rememberMarkers();
+            scrollTo(firstCol);
+        }
+    };
 
     QDisplay() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    QDisplay(int capacity) {
         super();
         super.setLayout(new BorderLayout());
         setOpaque(true);
         setBackground(BG);
 
-        q = new Queue(15);
-
-        elts = new JLabel[q.size + 2];
-        panel = new JPanel[q.size + 2];
-        front = new JLabel("Front");
-        rear = new JLabel("Rear");
-        front.setFont(new Font("Serif", Font.BOLD, 12));
-        rear.setFont(new Font("Serif", Font.BOLD, 12));
-        front.setForeground(TEXT);
-        rear.setForeground(TEXT);
-
-        frontPanel = new JPanel[q.size + 2];
-        rearPanel = new JPanel[q.size + 2];
-        Box eltBox, panelBox[];
-        eltBox = Box.createHorizontalBox();
-        eltBox.setOpaque(true);
-        eltBox.setBackground(BG);
-        panelBox = new Box[q.size + 2];
-
-        // left spacer column
-        elts[0] = new JLabel("");
-        elts[0].setForeground(TEXT);
-
-        panel[0] = new JPanel();
-        panel[0].setOpaque(true);
-        panel[0].setBackground(BG);
-        panel[0].setPreferredSize(new Dimension(55, 45));
-
-        frontPanel[0] = new JPanel();
-        frontPanel[0].setOpaque(true);
-        frontPanel[0].setBackground(BG);
-        frontPanel[0].setPreferredSize(new Dimension(55, 30));
-
-        rearPanel[0] = new JPanel();
-        rearPanel[0].setOpaque(true);
-        rearPanel[0].setBackground(BG);
-        rearPanel[0].setPreferredSize(new Dimension(55, 20));
-        rearPanel[0].add(rear);
-
-        panelBox[0] = Box.createVerticalBox();
-        panelBox[0].setOpaque(true);
-        panelBox[0].setBackground(BG);
-        panelBox[0].add(frontPanel[0]);
-        panelBox[0].add(panel[0]);
-        panelBox[0].add(rearPanel[0]);
-        eltBox.add(panelBox[0]);
-
-        // queue cells 1..size
-        for (int i = 1; i <= q.size; i++) {
-            elts[i] = new JLabel("");
-            elts[i].setForeground(TEXT);
-
-            frontPanel[i] = new JPanel();
-            frontPanel[i].setOpaque(true);
-            frontPanel[i].setBackground(BG);
-            frontPanel[i].setPreferredSize(new Dimension(55, 30));
-
-            panel[i] = new JPanel();
-            panel[i].setOpaque(true);
-            panel[i].setBackground(NODE); // initially blue
-            panel[i].setBorder(blackOutline); // black border
-            panel[i].setPreferredSize(new Dimension(55, 45));
-            panel[i].add(elts[i]);
-
-            rearPanel[i] = new JPanel();
-            rearPanel[i].setOpaque(true);
-            rearPanel[i].setBackground(BG);
-            rearPanel[i].setPreferredSize(new Dimension(55, 20));
-
-            panelBox[i] = Box.createVerticalBox();
-            panelBox[i].setOpaque(true);
-            panelBox[i].setBackground(BG);
-            panelBox[i].add(frontPanel[i]);
-            panelBox[i].add(panel[i]);
-            panelBox[i].add(rearPanel[i]);
-
-            eltBox.add(panelBox[i]);
-        }
+        q = new Queue(capacity); // rounded up to a power of two
+        q.addModelListener(modelListener);
+        rememberMarkers();
+
+        scrollBar.addAdjustmentListener(e -> {
+            if (!syncingScrollBar) {
+                firstCol = Math.min(e.getValue(), maxFirstCol());
+                cells.repaint();
+            }
+        });
+        cells.addMouseWheelListener(e -> scrollTo(firstCol + 3 * e.getWheelRotation()));
+        cells.addComponentListener(new ComponentAdapter() {
+            public void componentResized(ComponentEvent e) {
+                scrollTo(firstCol);
+            }
+        });
+
+        super.add(cells, BorderLayout.CENTER);
+        super.add(scrollBar, BorderLayout.SOUTH);
+        syncScrollBar();
+    }
 
-        // right spacer column
-        frontPanel[q.size + 1] = new JPanel();
-        frontPanel[q.size + 1].setOpaque(true);
-        frontPanel[q.size + 1].setBackground(BG);
-        frontPanel[q.size + 1].setPreferredSize(new Dimension(55, 30));
-
-        rearPanel[q.size + 1] = new JPanel();
-        rearPanel[q.size + 1].setOpaque(true);
-        rearPanel[q.size + 1].setBackground(BG);
-        rearPanel[q.size + 1].setPreferredSize(new Dimension(55, 20));
-
-        elts[q.size + 1] = new JLabel("");
-        elts[q.size + 1].setForeground(TEXT);
-
-        panel[q.size + 1] = new JPanel();
-        panel[q.size + 1].setOpaque(true);
-        panel[q.size + 1].setBackground(BG);
-        panel[q.size + 1].add(elts[q.size + 1]);
-        panel[q.size + 1].setPreferredSize(new Dimension(55, 45));
-
-        panelBox[q.size + 1] = Box.createVerticalBox();
-        panelBox[q.size + 1].setOpaque(true);
-        panelBox[q.size + 1].setBackground(BG);
-        panelBox[q.size + 1].add(frontPanel[q.size + 1]);
-        panelBox[q.size + 1].add(panel[q.size + 1]);
-        panelBox[q.size + 1].add(rearPanel[q.size + 1]);
-        eltBox.add(panelBox[q.size + 1]);
-
-        frontPanel[1].add(front);
-
-        super.add(eltBox, BorderLayout.CENTER);
-        setBackground(BG);
+    // Replaces the queue with an empty one of the given starting capacity
+    public void setCapacity(int capacity) {
+        Queue next = new Queue(capacity);
+        q.removeModelListener(modelListener);
+        q = next;
+        q.addModelListener(modelListener);
+        rememberMarkers();
+        firstCol = 0;
+        scrollTo(0);
+        textSetter.setText("New empty queue. " + positions());
     }
 
-    public void update_insert(int num, Stack undo) {
-        if (q.front == q.size) {
-            textSetter.setText(
-                    "Cannot perform any more operations on the queue. Please try using the undo or the reset buttons to continue. Front = "
-                            + q.front + " Rear = " + q.rear);
+    public void update_insert(int num, OperationJournal journal) {
+        if (q.isFull()) {
+            textSetter.setText("The queue is full! Cannot insert " + num + ". " + positions());
             return;
         }
-        if (q.rear == q.size - 1) {
-            textSetter.setText("The queue is full! Cannot insert more elements. Front = " + q.front
-                    + " Rear = " + q.rear);
+        insertAtRear(num);
+        journal.record(OperationJournal.PUSH, num);
+
+        textSetter.setText(num + " has been inserted to the queue. " + positions());
+    }
+
+    public void update_delete(OperationJournal journal) {
+        if (q.isEmpty()) {
+            textSetter.setText("The queue is empty! Cannot remove elements. " + positions());
             return;
         }
-        if (undo.top == undo.size - 1)
-            undo.forgetEarlierChoice();
-        undo.push(0);
-
-        rearPanel[q.rear + 1].remove(rear);
-        q.insert(num);
-        rearPanel[q.rear + 1].add(rear);
+        int num = deleteAtFront();
+        journal.record(OperationJournal.POP, num); // deleted value is kept for undo
 
-        // paint newly occupied slot blue (border already black)
-        panel[q.rear + 1].setBackground(NODE);
-        elts[q.rear + 1].setText(Integer.toString(num));
-        elts[q.rear + 1].setForeground(TEXT);
+        textSetter.setText(num + " has been removed from the queue. " + positions());
+    }
 
-        textSetter.setText(num + " has been inserted to the queue. Front = "
-                + q.front + " Rear = " + q.rear);
+    // Reverts the operation the journal just stepped back over
+    public void undo(int choice, int value) {
+        if (choice == OperationJournal.PUSH) {
+            q.removeRear(); // the last inserted slot becomes free again
+        } else {
+            q.restoreFront(value); // restore the previously deleted value
+        }
+        textSetter.setText("Undo successful. " + positions());
     }
 
-    public void update_delete(Stack undo) {
-        if (q.front == q.size) {
-            textSetter.setText(
-                    "Cannot perform any more operations on the queue. Please try using the undo or the reset buttons to continue. Front = "
-                            + q.front + " Rear = " + q.rear);
-            return;
+    // Re-applies the operation the journal just stepped forward over
+    public void redo(int choice, int value) {
+        if (choice == OperationJournal.PUSH) {
+            insertAtRear(value);
+        } else {
+            deleteAtFront();
         }
-        if (q.front > q.rear) {
-            textSetter.setText("The queue is empty! Cannot remove elements. Front = " + q.front
-                    + " Rear = " + q.rear);
-            return;
+        textSetter.setText("Redo successful. " + positions());
+    }
+
+    private void insertAtRear(int num) {
+        q.insert(num);
+    }
+
+    private int deleteAtFront() {
+        return q.del();
+    }
+
+    // Repaints the changed slots that are in view, the columns the markers
+    // left and reached and the wrap spacers if wrapping started or stopped.
+    // The view keeps following the rear while it was in view.
+    private void queueChanged(int first, int last) {
+        boolean follow = isSlotVisible(shownRear) || q.nElts == 1;
+        int from = Math.max(first, firstCol - 1), to = Math.min(last, firstCol + visibleCols() - 2);
+        for (int slot = from; slot <= to; slot++)
+            repaintSlot(slot);
+        repaintSlot(shownFront);
+        repaintSlot(shownRear);
+        repaintSlot(q.front);
+        repaintSlot(q.rear);
+        if (shownWrapped != q.isWrapped()) {
+            repaintColumn(0);
+            repaintColumn(q.size + 1);
         }
-        if (undo.top == undo.size - 1)
-            undo.forgetEarlierChoice();
-        undo.push(1);
+        boolean inserted = q.rear != shownRear && first == q.rear;
+        rememberMarkers();
+        if (inserted && follow && !isSlotVisible(q.rear))
+            scrollToSlot(q.rear);
+    }
+
+    private void rememberMarkers() {
+        shownFront = q.front;
+        shownRear = q.rear;
+        shownWrapped = q.isWrapped();
+    }
+
+    private String positions() {
+        return "Front = " + q.front + " Rear = " + q.rear + " Size = " + q.nElts + " Capacity = " + q.size;
+    }
+
+    // --- View position ---
+
+    // Scrolls so the slot is the second column of the view
+    public void scrollToSlot(int slot) {
+        scrollTo(slot);
+    }
+
+    private void scrollTo(int col) {
+        firstCol = Math.max(0, Math.min(col, maxFirstCol()));
+        syncScrollBar();
+        cells.repaint();
+    }
+
+    private void syncScrollBar() {
+        int visible = visibleCols();
+        syncingScrollBar = true;
+        scrollBar.setValues(firstCol, Math.min(visible, q.size + 2), 0, q.size + 2);
+        scrollBar.setBlockIncrement(Math.max(1, visible - 1));
+        syncingScrollBar = false;
+    }
 
-        // turn ONLY the dequeued cell white and clear its label
-        frontPanel[q.front + 1].remove(front);
-        panel[q.front + 1].setBackground(EMPTY); // <- white
-        elts[q.front + 1].setText("");
+    private int maxFirstCol() {
+        return Math.max(0, q.size + 2 - visibleCols());
+    }
+
+    private int visibleCols() {
+        int w = cells.getWidth() > 0 ? cells.getWidth() : cells.getPreferredSize().width;
+        return Math.max(1, w / COL_W);
+    }
 
-        int num = q.del();
-        frontPanel[q.front + 1].add(front);
+    private boolean isSlotVisible(int slot) {
+        int col = slot + 1;
+        return col >= firstCol && col < firstCol + visibleCols();
+    }
 
-        textSetter.setText(num + " has been removed from the queue. Front = "
-                + q.front + " Rear = " + q.rear);
+    private void repaintSlot(int slot) {
+        repaintColumn(slot + 1);
     }
 
-    public void undoInsert() {
-        // the last inserted cell becomes empty again
-        elts[q.rear + 1].setText("");
-        panel[q.rear + 1].setBackground(EMPTY); // back to white
-        rearPanel[q.rear + 1].remove(rear);
-        q.rear--;
-        rearPanel[q.rear + 1].add(rear);
-        textSetter.setText("Undo successful. Front = " + q.front + " Rear = " + q.rear);
+    private void repaintColumn(int col) {
+        int c = col - firstCol;
+        if (c >= 0 && c < visibleCols())
+            cells.repaint(c * COL_W, HEADER_H, COL_W, FRONT_H + CELL_H + REAR_H + INDEX_H);
     }
 
-    public void undoDelete() {
-        // restore the value and color of the previously deleted cell
-        frontPanel[q.front + 1].remove(front);
-        q.front--;
-        frontPanel[q.front + 1].add(front);
+    // --- Painting ---
 
-        elts[q.front + 1].setText(Integer.toString(q.getVal(q.front)));
-        elts[q.front + 1].setForeground(TEXT);
-        panel[q.front + 1].setBackground(NODE); // back to blue
+    private class CellView extends JComponent {
+        private final Font markerFont = new Font("Serif", Font.BOLD, 12);
+        private final Font valueFont = new Font(Font.SANS_SERIF, Font.PLAIN, 13);
+        private final Font indexFont = new Font(Font.MONOSPACED, Font.PLAIN, 11);
 
-        textSetter.setText("Undo successful. Front = " + q.front + " Rear = " + q.rear);
+        CellView() {
+            setOpaque(true);
+            setPreferredSize(new Dimension(VIEW_COLS * COL_W, HEADER_H + FRONT_H + CELL_H + REAR_H + INDEX_H + 10));
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g;
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            Rectangle clip = g2.getClipBounds();
+            if (clip == null)
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            g2.setColor(BG);
+            g2.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+            int visible = visibleCols();
+            if (clip.y < HEADER_H) {
+                int lo = Math.max(0, firstCol - 1);
+                int hi = Math.min(q.size - 1, firstCol + visible - 2);
+                g2.setFont(indexFont);
+                g2.setColor(INDEX_GREY);
+                g2.drawString("slots " + lo + " .. " + hi + " of " + q.size, 4, 16);
+            }
+
+            // columns intersecting the clip only
+            int cFrom = Math.max(0, clip.x / COL_W);
+            int cTo = Math.min(visible - 1, (clip.x + clip.width) / COL_W);
+            for (int c = cFrom; c <= cTo; c++) {
+                int col = firstCol + c;
+                if (col > q.size + 1)
+                    break;
+                paintColumn(g2, c * COL_W, col);
+            }
+        }
+
+        private void paintColumn(Graphics2D g2, int x, int col) {
+            int yCell = HEADER_H + FRONT_H;
+            if (col == 0 || col == q.size + 1) { // spacer: wrap sign only
+                if (q.isWrapped()) {
+                    g2.setColor(TEXT);
+                    g2.setFont(valueFont);
+                    centered(g2, WRAP, x, yCell + CELL_H / 2);
+                }
+                return;
+            }
+            int slot = col - 1;
+            g2.setFont(markerFont);
+            g2.setColor(TEXT);
+            if (slot == q.front)
+                centered(g2, "Front", x, HEADER_H + FRONT_H / 2);
+            if (slot == q.rear)
+                centered(g2, "Rear", x, yCell + CELL_H + REAR_H / 2);
+
+            boolean occupied = q.isOccupied(slot);
+            g2.setColor(occupied ? NODE : EMPTY);
+            g2.fillRect(x + 5, yCell, COL_W - 10, CELL_H);
+            g2.setColor(Color.BLACK); // black outline
+            g2.drawRect(x + 5, yCell, COL_W - 11, CELL_H - 1);
+            g2.drawRect(x + 6, yCell + 1, COL_W - 13, CELL_H - 3);
+            if (occupied) {
+                g2.setFont(valueFont);
+                g2.setColor(TEXT);
+                centered(g2, Integer.toString(q.getVal(slot)), x, yCell + CELL_H / 2);
+            }
+            g2.setFont(indexFont);
+            g2.setColor(INDEX_GREY);
+            centered(g2, Integer.toString(slot), x, yCell + CELL_H + REAR_H + INDEX_H / 2);
+        }
+
+        private void centered(Graphics2D g2, String s, int x, int midY) {
+            FontMetrics fm = g2.getFontMetrics();
+            g2.drawString(s, x + (COL_W - fm.stringWidth(s)) / 2, midY + fm.getAscent() / 2 - 2);
+        }
     }
 
-    public void random(Stack undo) {
+    public void random(OperationJournal journal) {
         int choice;
-        Random getRandom = new Random();
-        if (q.rear == q.size - 1)
-            choice = 1;
-        else if (q.front > q.rear)
+        if (q.isEmpty())
             choice = 0;
         else {
             int r = getRandom.nextInt(10 + this.q.nElts);
             choice = (r < 5) ? 0 : 1;
         }
         if (choice == 1)
-            update_delete(undo);
+            update_delete(journal);
         else
-            update_insert(getRandom.nextInt(100), undo);
+            update_insert(getRandom.nextInt(100), journal);
     }
 
     public void reset() {
-        frontPanel[q.front + 1].remove(front);
-        rearPanel[q.rear + 1].remove(rear);
-        q.front = 0;
-        q.rear = -1;
-
-        // reset all cells to "empty but blue by default" as per your UI
-        for (int i = 1; i <= q.size; i++) {
-            elts[i].setText("");
-            panel[i].setBackground(NODE); // start state: blue
-            panel[i].setBorder(blackOutline); // ensure black border stays
-        }
-
-        frontPanel[1].add(front);
-        rearPanel[0].add(rear);
-        textSetter.setText("Queue has been reset. Front = " + q.front + " Rear = " + q.rear);
+        q.clear();
+        scrollTo(0);
+        textSetter.setText("Queue has been reset. " + positions());
     }
 }
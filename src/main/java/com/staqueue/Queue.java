@@ -7,32 +7,164 @@ package com.staqueue;
  */
 
 /**
+ * Circular queue over an int[] whose length is a power of two, so indices wrap
+ * with a mask instead of a modulo. front is the slot of the first element and
+ * rear the slot of the last one; an empty queue has rear one slot behind front.
+ *
+ * The array doubles when an insert finds it full and halves once it is only a
+ * quarter full (never below the starting capacity). It stops growing at
+ * MAX_CAPACITY, the largest power of two an int index can reach; a queue
+ * holding that many elements refuses further inserts. Growing at full and
+ * shrinking at a quarter leaves room between the two, so alternating inserts
+ * and deletes at a boundary do not resize every time.
  *
  * @author DELL
  */
 public class Queue {
+    public static final int MAX_CAPACITY = 1 << 30;
+
     public int front;
     public int rear;
     private int arr[];
-    public int size, nElts;
-    
+    public int size, nElts; // size is the current capacity
+    private int mask;
+    private final int minCapacity;
+    public int resizes;
+    private final ModelListeners listeners = new ModelListeners();
+
     public Queue(int sz){
-        front=0; rear=-1;
-        size=sz;
-        arr=new int[size];
+        minCapacity=powerOfTwo(sz);
+        allocate(minCapacity);
     }
-    
+
     public void insert(int elt){
-        arr[++rear]=elt;
+        if(nElts==size)
+            grow();
+        rear=(rear+1)&mask;
+        arr[rear]=elt;
         nElts++;
+        listeners.cellsChanged(rear,rear);
     }
-    
+
     public int del(){
+        if(nElts==0)
+            throw new IllegalStateException("Queue is empty");
+        int freed=front;
+        int elt=arr[front];
+        front=(front+1)&mask;
         nElts--;
-        return arr[front++];
+        if(!shrinkIfSparse())
+            listeners.cellsChanged(freed,freed);
+        return elt;
     }
-    
+
+    // Puts a deleted element back at the front (undo of del)
+    public void restoreFront(int elt){
+        if(nElts==size)
+            grow();
+        front=(front-1)&mask;
+        arr[front]=elt;
+        nElts++;
+        listeners.cellsChanged(front,front);
+    }
+
+    // Takes the last inserted element off the rear (undo of insert)
+    public int removeRear(){
+        if(nElts==0)
+            throw new IllegalStateException("Queue is empty");
+        int freed=rear;
+        int elt=arr[rear];
+        rear=(rear-1)&mask;
+        nElts--;
+        if(!shrinkIfSparse())
+            listeners.cellsChanged(freed,freed);
+        return elt;
+    }
+
+    // Value stored in array slot i
     public int getVal(int i){
-        return arr[i];
+        return arr[i&mask];
+    }
+
+    // k-th element counted from the front
+    public int peek(int k){
+        return arr[(front+k)&mask];
+    }
+
+    public boolean isEmpty(){
+        return nElts==0;
+    }
+
+    public boolean isFull(){
+        return nElts==MAX_CAPACITY;
+    }
+
+    // True if slot i currently holds an element
+    public boolean isOccupied(int i){
+        return ((i-front)&mask)<nElts;
+    }
+
+    // True if the elements run past the end of the array and continue at slot 0
+    public boolean isWrapped(){
+        return nElts>0 && front+nElts>size;
+    }
+
+    public void clear(){
+        allocate(minCapacity);
+        listeners.modelReset();
+    }
+
+    public void addModelListener(ModelChangeListener l){
+        listeners.add(l);
+    }
+
+    public void removeModelListener(ModelChangeListener l){
+        listeners.remove(l);
+    }
+
+    // Returns true if the array was resized
+    private boolean shrinkIfSparse(){
+        if(size>minCapacity && nElts<=size/4){
+            resize(size/2);
+            return true;
+        }
+        return false;
+    }
+
+    private void grow(){
+        if(size>=MAX_CAPACITY)
+            throw new IllegalStateException("Queue is full");
+        resize(size*2);
+    }
+
+    // Copies the elements in queue order to the start of a new array
+    private void resize(int capacity){
+        int[] next=new int[capacity];
+        int firstRun=Math.min(nElts,size-front);
+        System.arraycopy(arr,front,next,0,firstRun);
+        System.arraycopy(arr,0,next,firstRun,nElts-firstRun);
+        arr=next;
+        size=capacity;
+        mask=capacity-1;
+        front=0;
+        rear=(nElts-1)&mask;
+        resizes++;
+        listeners.modelReset();
+    }
+
+    private void allocate(int capacity){
+        arr=new int[capacity];
+        size=capacity;
+        mask=capacity-1;
+        front=0;
+        rear=mask;
+        nElts=0;
+    }
+
+    private static int powerOfTwo(int n){
+        int cap=2;
+        while(cap<n && cap<MAX_CAPACITY)
+            cap<<=1;
+        return cap;
     }
 };
@@ -7,6 +7,7 @@ package com.staqueue;
  */
 
 import java.awt.BorderLayout;
+import java.awt.CardLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
@@ -19,8 +20,7 @@ import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
-import javax.swing.JScrollPane;
-import javax.swing.SwingWorker;
+import javax.swing.Timer;
 
 /**
  *
@@ -35,7 +35,14 @@ public class QueueFrame extends JPanel {
 
     private static final Color MESSAGE_ACCENT = new Color(255, 215, 0); // gold/yellow
 
-    Stack choiceStack;
+    private static final String INTERACTIVE = "interactive";
+    private static final String THROUGHPUT = "throughput";
+
+    // Random mode: RANDOM_OPS_PER_TICK operations every RANDOM_TICK_MS, about 300 per second
+    private static final int RANDOM_TICK_MS = 20;
+    private static final int RANDOM_OPS_PER_TICK = 6;
+
+    OperationJournal journal;
     boolean isRandom;
     QDisplay qDisplay;
     JPanel qDisplayPanel;
@@ -44,6 +51,10 @@ public class QueueFrame extends JPanel {
     JPanel qPanel;
     JLabel qMessage;
     JPanel qMessagePanel;
+    JPanel qCenter;
+    QueueThroughputPanel throughputPanel;
+    boolean isThroughput;
+    Timer randomTimer;
 
     public QueueFrame() {
 
@@ -51,13 +62,9 @@ public class QueueFrame extends JPanel {
         setLayout(new BorderLayout());
         setBackground(BG);
 
-        choiceStack = new Stack(3);
+        journal = new OperationJournal(); // undo/redo history of insert and delete operations
         isRandom = false;
 
-        JScrollPane scrollPane = new JScrollPane();
-        scrollPane.setBorder(null);
-        scrollPane.getViewport().setBackground(BG);
-
         qPanel = new JPanel(new BorderLayout());
         qPanel.setOpaque(true);
         qPanel.setBackground(BG);
@@ -73,7 +80,7 @@ public class QueueFrame extends JPanel {
         qTitlePanel.add(qTitle);
 
         // Queue message panel and styling
-        qMessage = new JLabel(">>>Welcome to Queue Demo. An empty queue has been made. Front = 0, Rear = -1");
+        qMessage = new JLabel(">>>Welcome to Queue Demo. An empty queue has been made. Front = 0, Rear = 15");
         qMessage.setForeground(MESSAGE_ACCENT); // or Color.YELLOW, or a custom gold
         qMessage.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 20));
 
@@ -108,24 +115,22 @@ public class QueueFrame extends JPanel {
 
         qPanel.add(topDisplay, BorderLayout.NORTH);
 
-        // Queue display and styling
+        // Queue display and styling; the display scrolls itself horizontally
         qDisplay = new QDisplay();
-        qDisplayPanel = new JPanel();
+        qDisplayPanel = new JPanel(new BorderLayout());
         qDisplayPanel.setOpaque(true);
         qDisplayPanel.setBackground(BG);
-        qDisplayPanel.add(Box.createRigidArea(new Dimension(0, 425)));
-        qDisplayPanel.add(qDisplay);
+        qDisplayPanel.add(qDisplay, BorderLayout.NORTH);
         qDisplayPanel.setBorder(BorderFactory.createEtchedBorder(Color.DARK_GRAY, Color.LIGHT_GRAY));
 
-        Box qDisplayBox = Box.createVerticalBox();
-        qDisplayBox.setOpaque(true);
-        qDisplayBox.setBackground(BG);
-        qDisplayBox.add(qDisplayPanel);
+        // The center shows either the interactive queue or the producer/consumer run
+        throughputPanel = new QueueThroughputPanel();
+        qCenter = new JPanel(new CardLayout());
+        qCenter.setBackground(BG);
+        qCenter.add(qDisplayPanel, INTERACTIVE);
+        qCenter.add(throughputPanel, THROUGHPUT);
 
-        scrollPane.setViewportView(qDisplayBox);
-        scrollPane.setVisible(true);
-
-        qPanel.add(scrollPane, BorderLayout.CENTER);
+        qPanel.add(qCenter, BorderLayout.CENTER);
 
         // add the fully managed panel into this (BorderLayout.CENTER)
         add(qPanel, BorderLayout.CENTER);
@@ -136,6 +141,7 @@ public class QueueFrame extends JPanel {
                 qMessage.setText(">>>" + str);
             }
         };
+        throughputPanel.textSetter = qDisplay.textSetter;
 
         addQueueActionListeners(); // Function to add action listeners to queue menu buttons
     }
@@ -150,52 +156,89 @@ public class QueueFrame extends JPanel {
                 if (isNum(str)) {
                     str = str.replace(",", "");
                     int num = Integer.parseInt(str);
-                    qDisplay.update_insert(num, choiceStack);
+                    qDisplay.update_insert(num, journal);
                     qMenu.resetButton.setEnabled(true);
                     qMenu.resetEnabled = true;
                 } else {
                     qDisplay.textSetter.setText("Invalid number");
                 }
-                if (choiceStack.top != -1) {
-                    qMenu.undoButton.setEnabled(true);
-                    qMenu.undoEnabled = true;
-                }
-                qPanel.updateUI();
+                updateHistoryButtons();
             }
         });
 
         // Queue Delete
         qMenu.deleteButton.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent ae) {
-                qDisplay.update_delete(choiceStack);
-                if (choiceStack.top != -1) {
-                    qMenu.undoButton.setEnabled(true);
-                }
-                if (qDisplay.q.rear == -1 && qDisplay.q.front == 0 && choiceStack.top == -1) {
+                qDisplay.update_delete(journal);
+                updateHistoryButtons();
+                if (qDisplay.q.isEmpty() && !journal.canUndo()) {
                     qMenu.resetButton.setEnabled(false);
                 }
-                qPanel.updateUI();
             }
         });
 
         // Queue Undo
         qMenu.undoButton.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent ae) {
-                int choice = choiceStack.pop();
-                if (choice == 0) {
-                    qDisplay.undoInsert();
-                    if (qDisplay.q.rear == -1 && qDisplay.q.front == 0 && choiceStack.top == -1) {
+                int choice = journal.undo();
+                qDisplay.undo(choice, journal.value());
+                if (choice == OperationJournal.PUSH) {
+                    if (qDisplay.q.isEmpty() && !journal.canUndo()) {
                         qMenu.resetButton.setEnabled(false);
                     }
                 } else {
-                    qDisplay.undoDelete();
                     qMenu.resetButton.setEnabled(true);
                 }
-                if (choiceStack.top == -1) {
-                    qMenu.undoButton.setEnabled(false);
-                    qMenu.undoEnabled = false;
+                updateHistoryButtons();
+            }
+        });
+
+        // Queue Redo
+        qMenu.redoButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                int choice = journal.redo();
+                qDisplay.redo(choice, journal.value());
+                qMenu.resetButton.setEnabled(true);
+                qMenu.resetEnabled = true;
+                updateHistoryButtons();
+            }
+        });
+
+        // Queue Random
+        qMenu.randomButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                if (isRandom)
+                    stopQueueRandom();
+                else
+                    startQueueRandom();
+            }
+        });
+
+        // Queue Producer/Consumer mode
+        qMenu.throughputButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                toggleThroughput();
+            }
+        });
+
+        // Queue Capacity
+        qMenu.capacityButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                Object value = qMenu.capacityText.getValue();
+                if (value == null) {
+                    qDisplay.textSetter.setText("Invalid capacity. Enter 2 to " + QDisplay.MAX_CAPACITY);
+                    return;
+                }
+                try {
+                    qDisplay.setCapacity((Integer) value);
+                } catch (OutOfMemoryError ex) {
+                    qDisplay.textSetter.setText("Not enough memory for a queue of " + value + " slots");
+                    return;
                 }
-                qPanel.updateUI();
+                journal.clear();
+                updateHistoryButtons();
+                qMenu.resetButton.setEnabled(false);
+                qMenu.resetEnabled = false;
             }
         });
 
@@ -203,47 +246,80 @@ public class QueueFrame extends JPanel {
         qMenu.resetButton.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent ae) {
                 qDisplay.reset();
-                choiceStack.top = -1;
-                qMenu.undoButton.setEnabled(false);
-                qMenu.undoEnabled = false;
+                journal.clear();
+                updateHistoryButtons();
                 qMenu.resetButton.setEnabled(false);
                 qMenu.resetEnabled = false;
-                qPanel.updateUI();
             }
         });
     }
 
-    // Function to implement automatic random operations in Queue
+    // Switches between the interactive queue and the producer/consumer mode.
+    // The workload threads are stopped when leaving the throughput view.
+    private void toggleThroughput() {
+        isThroughput = !isThroughput;
+        if (!isThroughput)
+            throughputPanel.stop();
+        else
+            stopQueueRandom();
+        ((CardLayout) qCenter.getLayout()).show(qCenter, isThroughput ? THROUGHPUT : INTERACTIVE);
+        qMenu.throughputButton.setText(isThroughput ? "Interactive" : "Producer/Consumer");
+
+        boolean interactive = !isThroughput;
+        qMenu.text.setEnabled(interactive);
+        qMenu.insertButton.setEnabled(interactive);
+        qMenu.deleteButton.setEnabled(interactive);
+        qMenu.randomButton.setEnabled(interactive);
+        if (interactive) {
+            updateHistoryButtons();
+            qMenu.resetButton.setEnabled(!qDisplay.q.isEmpty() || journal.canUndo());
+            qDisplay.textSetter.setText("Back to the interactive queue");
+        } else {
+            qMenu.undoButton.setEnabled(false);
+            qMenu.redoButton.setEnabled(false);
+            qMenu.resetButton.setEnabled(false);
+            qDisplay.textSetter.setText("Choose a queue and thread counts, then press Start or Compare");
+        }
+    }
+
+    // Enables undo/redo only while the journal has entries in that direction
+    private void updateHistoryButtons() {
+        qMenu.undoButton.setEnabled(journal.canUndo());
+        qMenu.undoEnabled = journal.canUndo();
+        qMenu.redoButton.setEnabled(journal.canRedo());
+    }
+
+    // Function to implement automatic random operations in Queue. The timer
+    // fires on the EDT; the history buttons are refreshed once per tick.
     private void startQueueRandom() {
-        SwingWorker<Void, Void> q_random;
-        q_random = new SwingWorker<Void, Void>() {
-            protected Void doInBackground() throws Exception {
-                if (qDisplay.q.front == qDisplay.q.size) {
-                    qDisplay.textSetter.setText(
-                            "Cannot perform any more operations on the queue. Please try using the undo or the reset buttons to continue. Front = "
-                                    + Integer.toString(qDisplay.q.front) + " Rear = "
-                                    + Integer.toString(qDisplay.q.rear));
-                    qMenu.randomButton.doClick();
-                    return null;
-                }
-                Thread.sleep(100);
-                qDisplay.random(choiceStack);
-                if (choiceStack.top != -1) {
-                    qMenu.undoEnabled = true;
+        if (randomTimer == null) {
+            randomTimer = new Timer(RANDOM_TICK_MS, new ActionListener() {
+                public void actionPerformed(ActionEvent ae) {
+                    for (int i = 0; i < RANDOM_OPS_PER_TICK; i++)
+                        qDisplay.random(journal);
+                    updateHistoryButtons();
+                    qMenu.resetButton.setEnabled(true);
+                    qMenu.resetEnabled = true;
                 }
-                qMenu.resetEnabled = true;
-                qPanel.updateUI();
-                Thread.sleep(750);
-                return null;
-            }
+            });
+        }
+        isRandom = true;
+        randomTimer.start();
+        qMenu.randomButton.setText("Stop Random");
+    }
 
-            protected void done() {
-                if (isRandom) {
-                    startQueueRandom();
-                }
-            }
-        };
-        q_random.execute();
+    private void stopQueueRandom() {
+        isRandom = false;
+        if (randomTimer != null)
+            randomTimer.stop();
+        qMenu.randomButton.setText("Random");
+    }
+
+    @Override
+    public void removeNotify() {
+        stopQueueRandom();
+        throughputPanel.stop();
+        super.removeNotify();
     }
 
     // Function to check if the input string is a valid number or not
@@ -30,7 +30,11 @@ public class QueueMenu extends JPanel {
     public JButton deleteButton;
     public JButton resetButton;
     public JButton undoButton;
+    public JButton redoButton;
     public JButton randomButton;
+    public JButton throughputButton;
+    public JButton capacityButton;
+    public JFormattedTextField capacityText;
     public JFormattedTextField text;
     public boolean undoEnabled, resetEnabled;
 
@@ -77,15 +81,16 @@ public class QueueMenu extends JPanel {
         deletePanel.setBackground(Color.lightGray);
         qBox.add(deletePanel);
 
-        // randomButton=new JButton("Random");
-        // randomButton.setMinimumSize(new Dimension(150,30));
-        // randomButton.setPreferredSize(randomButton.getMinimumSize());
+        randomButton=new JButton("Random");
+        randomButton.setMinimumSize(new Dimension(150,30));
+        randomButton.setPreferredSize(randomButton.getMinimumSize());
+        randomButton.setToolTipText("run random inserts and deletes until pressed again");
 
-        // JPanel randomPanel=new JPanel();
-        // randomPanel.setLayout(new FlowLayout());
-        // //randomPanel.add(randomButton);
-        // randomPanel.setBackground(Color.lightGray);
-        // qBox.add(randomPanel);
+        JPanel randomPanel=new JPanel();
+        randomPanel.setLayout(new FlowLayout());
+        randomPanel.add(randomButton);
+        randomPanel.setBackground(Color.lightGray);
+        qBox.add(randomPanel);
 
         undoButton = new JButton("Undo");
         undoButton.setMinimumSize(new Dimension(150, 30));
@@ -98,6 +103,37 @@ public class QueueMenu extends JPanel {
         undoPanel.setBackground(Color.lightGray);
         qBox.add(undoPanel);
 
+        redoButton = new JButton("Redo");
+        redoButton.setMinimumSize(new Dimension(150, 30));
+        redoButton.setPreferredSize(redoButton.getMinimumSize());
+
+        JPanel redoPanel = new JPanel();
+        redoPanel.setLayout(new FlowLayout());
+        redoButton.setEnabled(false);
+        redoPanel.add(redoButton);
+        redoPanel.setBackground(Color.lightGray);
+        qBox.add(redoPanel);
+
+        // Starting capacity of the array, rounded up to a power of two
+        NumberFormatter capacityFormatter = new NumberFormatter(NumberFormat.getInstance());
+        capacityFormatter.setValueClass(Integer.class);
+        capacityFormatter.setMinimum(2);
+        capacityFormatter.setMaximum(QDisplay.MAX_CAPACITY);
+        capacityText = new JFormattedTextField(capacityFormatter);
+        capacityText.setValue(QDisplay.DEFAULT_CAPACITY);
+        capacityText.setPreferredSize(new Dimension(100, 30));
+        capacityText.setToolTipText("starting capacity, rounded up to a power of two");
+
+        capacityButton = new JButton("Set Capacity");
+        capacityButton.setPreferredSize(new Dimension(120, 30));
+
+        JPanel capacityPanel = new JPanel();
+        capacityPanel.setLayout(new FlowLayout());
+        capacityPanel.add(capacityText);
+        capacityPanel.add(capacityButton);
+        capacityPanel.setBackground(Color.lightGray);
+        qBox.add(capacityPanel);
+
         resetButton = new JButton("Reset");
         resetButton.setMinimumSize(new Dimension(150, 30));
         resetButton.setPreferredSize(resetButton.getMinimumSize());
@@ -109,6 +145,16 @@ public class QueueMenu extends JPanel {
         resetPanel.setBackground(Color.lightGray);
         qBox.add(resetPanel);
 
+        throughputButton = new JButton("Producer/Consumer");
+        throughputButton.setMinimumSize(new Dimension(170, 30));
+        throughputButton.setPreferredSize(throughputButton.getMinimumSize());
+
+        JPanel throughputPanel = new JPanel();
+        throughputPanel.setLayout(new FlowLayout());
+        throughputPanel.add(throughputButton);
+        throughputPanel.setBackground(Color.lightGray);
+        qBox.add(throughputPanel);
+
         super.add(qBox);
     }
 }
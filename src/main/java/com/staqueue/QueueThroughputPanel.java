@@ -0,0 +1,271 @@
+package com.staqueue;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.GridLayout;
+import java.awt.event.HierarchyEvent;
+import java.util.List;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+
+/**
+ * Producer/consumer mode of the Queue tab.
+ *
+ * Producer and consumer threads stream messages through the chosen queue. A
+ * Swing timer samples the workload twice a second and shows messages per
+ * second and latency percentiles for that period, with a chart of the recent
+ * message rate. Compare runs the same workload through the MPMC ring,
+ * ArrayBlockingQueue and ConcurrentLinkedQueue one after another and charts
+ * their throughput and p99 latency side by side.
+ */
+public class QueueThroughputPanel extends JPanel {
+
+    // ----- Dark theme -----
+    private static final Color BG = new Color(24, 24, 26);
+    private static final Color SURFACE = new Color(40, 40, 44);
+    private static final Color TEXT = Color.WHITE;
+
+    private static final int SAMPLE_MS = 500;
+    private static final int QUEUE_CAPACITY = 1 << 16;
+    private static final int WARMUP_MS = 500;
+    private static final int MEASURE_MS = 2000; // per queue in a comparison run
+
+    private static final String SPSC = "SPSC ring";
+    private static final String MPMC = "MPMC ring";
+    private static final String ABQ = "ArrayBlockingQueue";
+    private static final String CLQ = "ConcurrentLinkedQueue";
+    private static final String[] COMPARED = { MPMC, ABQ, CLQ };
+
+    private final JComboBox<String> queueChoice = new JComboBox<>(new String[] { SPSC, MPMC, ABQ, CLQ });
+    private final JSpinner producerCount = new JSpinner(new SpinnerNumberModel(1, 1, 16, 1));
+    private final JSpinner consumerCount = new JSpinner(new SpinnerNumberModel(1, 1, 16, 1));
+    private final JButton startButton = new JButton("Start");
+    private final JButton stopButton = new JButton("Stop");
+    private final JButton compareButton = new JButton("Compare");
+    private final JLabel rateLabel = new JLabel("Messages/sec: 0");
+    private final JLabel p50Label = new JLabel("p50: -");
+    private final JLabel p99Label = new JLabel("p99: -");
+    private final JLabel p999Label = new JLabel("p99.9: -");
+    private final JLabel totalLabel = new JLabel("Total: 0");
+    private final RateChart chart = new RateChart("messages/sec", SAMPLE_MS);
+    private final ComparisonChart comparison = new ComparisonChart();
+    public TextInterface textSetter;
+
+    private QueueWorkload workload;
+    private SwingWorker<Void, String> compareRun;
+    private final Timer sampler;
+    private long lastConsumed, lastTime;
+    private boolean idle = true;
+
+    public QueueThroughputPanel() {
+        setLayout(new BorderLayout());
+        setBackground(BG);
+
+        stopButton.setEnabled(false);
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.CENTER, 12, 8));
+        controls.setBackground(SURFACE);
+        controls.setBorder(BorderFactory.createEtchedBorder(Color.DARK_GRAY, Color.LIGHT_GRAY));
+        controls.add(caption("Queue:"));
+        controls.add(queueChoice);
+        controls.add(caption("Producers:"));
+        controls.add(producerCount);
+        controls.add(caption("Consumers:"));
+        controls.add(consumerCount);
+        controls.add(startButton);
+        controls.add(stopButton);
+        controls.add(compareButton);
+
+        JPanel stats = new JPanel(new GridLayout(1, 5, 12, 0));
+        stats.setBackground(BG);
+        stats.setBorder(BorderFactory.createEmptyBorder(12, 24, 12, 24));
+        for (JLabel l : new JLabel[] { rateLabel, p50Label, p99Label, p999Label, totalLabel }) {
+            l.setForeground(TEXT);
+            l.setFont(new Font(Font.MONOSPACED, Font.BOLD, 18));
+            stats.add(l);
+        }
+
+        JPanel top = new JPanel(new BorderLayout());
+        top.setBackground(BG);
+        top.add(controls, BorderLayout.NORTH);
+        top.add(stats, BorderLayout.CENTER);
+        add(top, BorderLayout.NORTH);
+
+        JPanel charts = new JPanel(new GridLayout(2, 1, 0, 8));
+        charts.setBackground(BG);
+        charts.add(chart);
+        charts.add(comparison);
+        add(charts, BorderLayout.CENTER);
+
+        sampler = new Timer(SAMPLE_MS, e -> sample());
+        startButton.addActionListener(e -> start());
+        stopButton.addActionListener(e -> stop());
+        compareButton.addActionListener(e -> compare());
+        queueChoice.addActionListener(e -> matchThreadCounts());
+        matchThreadCounts();
+        // another tab, or the window closing, hides the panel; nothing
+        // should keep running unseen
+        addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && !isShowing())
+                stop();
+        });
+    }
+
+    private JLabel caption(String str) {
+        JLabel l = new JLabel(str);
+        l.setForeground(TEXT);
+        return l;
+    }
+
+    // The SPSC ring is only correct with one thread on each side
+    private void matchThreadCounts() {
+        boolean spsc = SPSC.equals(queueChoice.getSelectedItem());
+        if (spsc) {
+            producerCount.setValue(1);
+            consumerCount.setValue(1);
+        }
+        producerCount.setEnabled(idle && !spsc);
+        consumerCount.setEnabled(idle && !spsc);
+    }
+
+    private static MessageQueue newQueue(String kind) {
+        switch (kind) {
+        case SPSC:
+            return new SpscQueue(QUEUE_CAPACITY);
+        case MPMC:
+            return new MpmcQueue(QUEUE_CAPACITY);
+        case ABQ:
+            return JdkMessageQueue.arrayBlocking(QUEUE_CAPACITY);
+        default:
+            return JdkMessageQueue.concurrentLinked(QUEUE_CAPACITY);
+        }
+    }
+
+    private void start() {
+        stop();
+        int producers = (Integer) producerCount.getValue();
+        int consumers = (Integer) consumerCount.getValue();
+        workload = new QueueWorkload(newQueue((String) queueChoice.getSelectedItem()), producers, consumers);
+        chart.clear();
+        lastConsumed = 0;
+        lastTime = System.nanoTime();
+        workload.start();
+        sampler.start();
+        setControlsIdle(false);
+        message("Streaming through " + workload.queue().name() + " with " + producers + " producer(s) and "
+                + consumers + " consumer(s)");
+    }
+
+    // Stops the threads; called when the user leaves this mode or the panel
+    // is hidden
+    public void stop() {
+        if (compareRun != null) {
+            if (compareRun.cancel(true)) // done() restores the controls
+                message("Comparison stopped");
+            compareRun = null;
+        }
+        if (workload == null || !workload.isRunning())
+            return;
+        workload.stop();
+        sampler.stop();
+        setControlsIdle(true);
+        message("Producer/consumer run stopped");
+    }
+
+    private void setControlsIdle(boolean idle) {
+        this.idle = idle;
+        startButton.setEnabled(idle);
+        compareButton.setEnabled(idle);
+        queueChoice.setEnabled(idle);
+        stopButton.setEnabled(!idle);
+        matchThreadCounts();
+    }
+
+    private void sample() {
+        long now = System.nanoTime();
+        long consumed = workload.consumed.sum();
+        double rate = (consumed - lastConsumed) / ((now - lastTime) / 1e9);
+        long[] hist = workload.latency.snapshotAndReset();
+
+        rateLabel.setText(String.format("Messages/sec: %,.0f", rate));
+        p50Label.setText("p50: " + formatNanos(LatencyHistogram.percentile(hist, 50)));
+        p99Label.setText("p99: " + formatNanos(LatencyHistogram.percentile(hist, 99)));
+        p999Label.setText("p99.9: " + formatNanos(LatencyHistogram.percentile(hist, 99.9)));
+        totalLabel.setText(String.format("Total: %,d", consumed));
+        chart.add(rate);
+
+        lastConsumed = consumed;
+        lastTime = now;
+    }
+
+    // Runs each compared queue for WARMUP_MS + MEASURE_MS off the EDT and
+    // charts the measured period when all of them are done.
+    private void compare() {
+        stop();
+        final int producers = (Integer) producerCount.getValue();
+        final int consumers = (Integer) consumerCount.getValue();
+        final double[] rates = new double[COMPARED.length];
+        final long[] p99 = new long[COMPARED.length];
+        setControlsIdle(false);
+
+        compareRun = new SwingWorker<Void, String>() {
+            protected Void doInBackground() throws Exception {
+                for (int i = 0; i < COMPARED.length && !isCancelled(); i++) {
+                    publish("Comparing: running " + COMPARED[i] + " with " + producers + " producer(s) and "
+                            + consumers + " consumer(s)");
+                    QueueWorkload run = new QueueWorkload(newQueue(COMPARED[i]), producers, consumers);
+                    run.start();
+                    try {
+                        Thread.sleep(WARMUP_MS);
+                        long before = run.consumed.sum();
+                        run.latency.snapshotAndReset();
+                        long t0 = System.nanoTime();
+                        Thread.sleep(MEASURE_MS);
+                        long done = run.consumed.sum() - before;
+                        rates[i] = done / ((System.nanoTime() - t0) / 1e9);
+                        p99[i] = LatencyHistogram.percentile(run.latency.snapshotAndReset(), 99);
+                    } finally {
+                        run.stop();
+                    }
+                }
+                return null;
+            }
+
+            protected void process(List<String> chunks) {
+                message(chunks.get(chunks.size() - 1));
+            }
+
+            protected void done() {
+                if (compareRun == this)
+                    compareRun = null;
+                setControlsIdle(true);
+                if (isCancelled())
+                    return;
+                comparison.setResults(COMPARED, rates, p99);
+                message("Comparison finished: " + (MEASURE_MS / 1000) + " s per queue");
+            }
+        };
+        compareRun.execute();
+    }
+
+    private void message(String str) {
+        if (textSetter != null)
+            textSetter.setText(str);
+    }
+
+    static String formatNanos(long ns) {
+        if (ns < 1_000)
+            return ns + " ns";
+        if (ns < 1_000_000)
+            return String.format("%.1f us", ns / 1e3);
+        return String.format("%.1f ms", ns / 1e6);
+    }
+}
@@ -0,0 +1,98 @@
+package com.staqueue;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs producer and consumer threads against one MessageQueue until stopped.
+ *
+ * Producers offer messages as fast as the queue accepts them. Every
+ * SAMPLE_EVERY-th message carries its send time from System.nanoTime(); the
+ * others carry 0. Consumers drain in batches, count what they take and record
+ * the queueing latency of the timestamped messages. Sampling keeps the clock
+ * reads off the hot path, which would otherwise cap the message rate.
+ */
+public class QueueWorkload {
+
+    private static final int SAMPLE_EVERY = 256; // power of two
+    private static final int BATCH = 256;
+
+    private final MessageQueue queue;
+    private final int producers, consumers;
+    private final Thread[] threads;
+    private volatile boolean running;
+
+    public final LongAdder consumed = new LongAdder();
+    public final LatencyHistogram latency = new LatencyHistogram();
+
+    public QueueWorkload(MessageQueue queue, int producers, int consumers) {
+        this.queue = queue;
+        this.producers = producers;
+        this.consumers = consumers;
+        this.threads = new Thread[producers + consumers];
+    }
+
+    public MessageQueue queue() {
+        return queue;
+    }
+
+    public void start() {
+        running = true;
+        for (int i = 0; i < producers; i++) {
+            threads[i] = new Thread(this::produce, "producer-" + i);
+        }
+        for (int i = 0; i < consumers; i++) {
+            threads[producers + i] = new Thread(this::consume, "consumer-" + i);
+        }
+        for (Thread t : threads) {
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    // Stops all threads and waits for them to finish
+    public void stop() {
+        running = false;
+        for (Thread t : threads) {
+            if (t == null)
+                continue;
+            try {
+                t.join(2000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void produce() {
+        long seq = 0;
+        while (running) {
+            long v = ((seq++ & (SAMPLE_EVERY - 1)) == 0) ? System.nanoTime() : 0;
+            while (!queue.offer(v)) {
+                if (!running)
+                    return;
+                Thread.yield();
+            }
+        }
+    }
+
+    private void consume() {
+        long[] batch = new long[BATCH];
+        while (running) {
+            int n = queue.drain(batch, BATCH);
+            if (n == 0) {
+                Thread.yield();
+                continue;
+            }
+            for (int i = 0; i < n; i++) {
+                if (batch[i] != 0)
+                    latency.record(System.nanoTime() - batch[i]);
+            }
+            consumed.add(n);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.staqueue;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import javax.swing.JPanel;
+
+/**
+ * Line chart of the most recent rate samples (ops/sec, messages/sec), used by
+ * the live throughput views of the Stack and Queue tabs.
+ */
+public class RateChart extends JPanel {
+
+    private static final Color BG = new Color(24, 24, 26);
+    private static final Color AXIS = new Color(115, 115, 120);
+    private static final Color LINE = new Color(70, 80, 200);
+    private static final int HISTORY = 120; // samples kept
+
+    private final String unit;
+    private final int sampleMs;
+    private final double[] values = new double[HISTORY];
+    private int count;
+
+    public RateChart(String unit, int sampleMs) {
+        this.unit = unit;
+        this.sampleMs = sampleMs;
+        setBackground(BG);
+        setPreferredSize(new Dimension(900, 300));
+    }
+
+    public void add(double v) {
+        if (count == HISTORY) {
+            System.arraycopy(values, 1, values, 0, HISTORY - 1);
+            count--;
+        }
+        values[count++] = v;
+        repaint();
+    }
+
+    public void clear() {
+        count = 0;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        int w = getWidth() - 140, h = getHeight() - 40;
+        int x0 = 120, y0 = 20;
+        g2.setColor(AXIS);
+        g2.drawRect(x0, y0, w, h);
+
+        double max = 1;
+        for (int i = 0; i < count; i++)
+            max = Math.max(max, values[i]);
+        g2.setColor(Color.WHITE);
+        g2.drawString(String.format("%,.0f", max), 4, y0 + 12);
+        g2.drawString("0", 4, y0 + h);
+        g2.drawString(unit + " over the last " + (HISTORY * sampleMs / 1000) + " s", x0 + 8, y0 + 16);
+
+        g2.setColor(LINE);
+        g2.setStroke(new BasicStroke(2f));
+        for (int i = 1; i < count; i++) {
+            int xa = x0 + (i - 1) * w / (HISTORY - 1);
+            int xb = x0 + i * w / (HISTORY - 1);
+            int ya = y0 + h - (int) (values[i - 1] / max * h);
+            int yb = y0 + h - (int) (values[i] / max * h);
+            g2.drawLine(xa, ya, xb, yb);
+        }
+        g2.dispose();
+    }
+}
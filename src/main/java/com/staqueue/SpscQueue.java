@@ -0,0 +1,108 @@
+package com.staqueue;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Bounded queue for exactly one producer thread and one consumer thread.
+ *
+ * The producer only writes tail and the consumer only writes head, so neither
+ * needs a CAS. Each index is published with lazySet (an ordered store with no
+ * full fence) after the slot it covers was written or read. The two indices
+ * sit on their own cache lines, padded by the superclasses below, and each
+ * side keeps a plain cached copy of the other side's index so it only reads
+ * the shared one when the cached value says the queue looks full or empty.
+ * drain() takes every available message with one read of tail and one
+ * publication of head.
+ */
+public class SpscQueue extends SpscPadHead implements MessageQueue {
+
+    private static final AtomicLongFieldUpdater<SpscProducerFields> TAIL = AtomicLongFieldUpdater
+            .newUpdater(SpscProducerFields.class, "tail");
+    private static final AtomicLongFieldUpdater<SpscConsumerFields> HEAD = AtomicLongFieldUpdater
+            .newUpdater(SpscConsumerFields.class, "head");
+
+    private final long[] buffer;
+    private final int mask;
+
+    public SpscQueue(int capacity) {
+        int cap = 2;
+        while (cap < capacity)
+            cap <<= 1;
+        buffer = new long[cap];
+        mask = cap - 1;
+    }
+
+    @Override
+    public boolean offer(long v) {
+        long t = tail;
+        if (t - headCache > mask) {
+            headCache = head;
+            if (t - headCache > mask)
+                return false;
+        }
+        buffer[(int) t & mask] = v;
+        TAIL.lazySet(this, t + 1);
+        return true;
+    }
+
+    @Override
+    public long poll() {
+        long h = head;
+        if (h >= tailCache) {
+            tailCache = tail;
+            if (h >= tailCache)
+                return EMPTY;
+        }
+        long v = buffer[(int) h & mask];
+        HEAD.lazySet(this, h + 1);
+        return v;
+    }
+
+    @Override
+    public int drain(long[] dst, int max) {
+        long h = head;
+        if (h >= tailCache) {
+            tailCache = tail;
+            if (h >= tailCache)
+                return 0;
+        }
+        int n = (int) Math.min(max, tailCache - h);
+        for (int i = 0; i < n; i++)
+            dst[i] = buffer[(int) (h + i) & mask];
+        HEAD.lazySet(this, h + n);
+        return n;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    @Override
+    public String name() {
+        return "SPSC ring";
+    }
+}
+
+// Cache-line padding: the JVM lays out superclass fields first, so each group
+// of 7 unused longs keeps the fields around it off a shared 64-byte line.
+abstract class SpscPadStart {
+    long p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class SpscProducerFields extends SpscPadStart {
+    volatile long tail; // next slot the producer writes
+    long headCache; // producer's last view of head
+}
+
+abstract class SpscPadMiddle extends SpscProducerFields {
+    long p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class SpscConsumerFields extends SpscPadMiddle {
+    volatile long head; // next slot the consumer reads
+    long tailCache; // consumer's last view of tail
+}
+
+abstract class SpscPadHead extends SpscConsumerFields {
+    long p21, p22, p23, p24, p25, p26, p27;
+}
@@ -6,6 +6,8 @@ package com.staqueue;
  * and open the template in the editor.
  */
 
+import java.util.Arrays;
+
 /**
  *
  * @author DELL
@@ -13,10 +15,12 @@ package com.staqueue;
 public class Stack {
 
     public int top;
-    private int arr[];
-    private int[][] array;
+    protected int arr[];
+    private int[] rows; // row stack: row i is rows[i * stride .. (i + 1) * stride)
+    private int stride;
     public int size;
     public int nElts;
+    protected final ModelListeners listeners = new ModelListeners();
 
     public Stack(int sz) {
         top = -1;
@@ -28,28 +32,44 @@ public class Stack {
     public Stack(int row, int column) {
         top = -1;
         size = row;
-        array = new int[row][column];
+        stride = column;
+        rows = new int[row * column];
         nElts = 0;
     }
 
     public void push(int elt) {
         arr[++top] = elt;
         nElts++;
+        listeners.cellsChanged(top, top);
     }
 
+    // Copies the row in, the caller may reuse elt afterwards
     public void push(int[] elt) {
-        array[++top] = elt;
+        int base = ++top * stride;
+        int n = Math.min(elt.length, stride);
+        System.arraycopy(elt, 0, rows, base, n);
+        Arrays.fill(rows, base + n, base + stride, 0);
         nElts++;
+        listeners.cellsChanged(top, top);
     }
 
     public int pop() {
         nElts--;
+        listeners.cellsChanged(top, top);
         return arr[top--];
     }
 
     public int[] popArr() {
+        int[] out = new int[stride];
+        popArr(out);
+        return out;
+    }
+
+    // Copies the top row into dst without allocating
+    public void popArr(int[] dst) {
+        System.arraycopy(rows, top-- * stride, dst, 0, stride);
         nElts--;
-        return array[top--];
+        listeners.cellsChanged(top + 1, top + 1);
     }
 
     public int getVal(int i) {
@@ -57,22 +77,78 @@ public class Stack {
     }
 
     public int[] getValue(int i) {
-        return array[i];
+        return Arrays.copyOfRange(rows, i * stride, (i + 1) * stride);
+    }
+
+    // Pushes count values (count rows of stride ints on a row stack) from src,
+    // starting at off, with a single copy
+    public void pushAll(int[] src, int off, int count) {
+        if (count > size - nElts) {
+            throw new IllegalStateException("Stack is full");
+        }
+        if (rows != null) {
+            System.arraycopy(src, off, rows, (top + 1) * stride, count * stride);
+        } else {
+            System.arraycopy(src, off, arr, top + 1, count);
+        }
+        top += count;
+        nElts += count;
+        if (count > 0) {
+            listeners.cellsChanged(top - count + 1, top);
+        }
+    }
+
+    // Pops up to count values (or rows) into dst at off, in the order they were
+    // pushed, so pushAll(dst, off, n) puts them back. Returns how many were popped.
+    public int popN(int count, int[] dst, int off) {
+        int n = Math.min(count, nElts);
+        top -= n;
+        nElts -= n;
+        if (rows != null) {
+            System.arraycopy(rows, (top + 1) * stride, dst, off, n * stride);
+        } else {
+            System.arraycopy(arr, top + 1, dst, off, n);
+        }
+        if (n > 0) {
+            listeners.cellsChanged(top + 1, top + n);
+        }
+        return n;
     }
 
     public boolean isEmpty() {
         return nElts == 0;
     }
 
+    // Element count as a long, variants that hold more than an int can count override this
+    public long length() {
+        return nElts;
+    }
+
+    public int getVal(long i) {
+        return getVal((int) i);
+    }
+
+    public void clear() {
+        top = -1;
+        nElts = 0;
+        listeners.modelReset();
+    }
+
+    public void addModelListener(ModelChangeListener l) {
+        listeners.add(l);
+    }
+
+    public void removeModelListener(ModelChangeListener l) {
+        listeners.remove(l);
+    }
+
     // For undo option in Stack and Queue, to remove earlier choices when number of
     // operations > 3
     public void forgetEarlierChoice() {
         if (isEmpty()) {
             throw new IllegalStateException("Stack is empty");
         }
-        for (int i = 0; i < this.top; i++) {
-            this.arr[i] = this.arr[i + 1];
-        }
+        System.arraycopy(this.arr, 1, this.arr, 0, this.top);
         this.top--;
         this.nElts--;
     }
@@ -81,9 +157,7 @@ public class Stack {
         if (isEmpty()) {
             throw new IllegalStateException("Stack is empty");
         }
-        for (int i = 0; i < this.top; i++) {
-            this.array[i] = this.array[i + 1];
-        }
+        System.arraycopy(this.rows, this.stride, this.rows, 0, this.top * this.stride);
         this.top--;
         this.nElts--;
     }
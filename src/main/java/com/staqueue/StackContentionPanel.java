@@ -0,0 +1,221 @@
+package com.staqueue;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.GridLayout;
+import java.awt.event.HierarchyEvent;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.swing.BorderFactory;
+import javax.swing.Box;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.Timer;
+
+/**
+ * Contention mode of the Stack tab.
+ *
+ * N worker threads push and pop random values on one ConcurrentStack as fast
+ * as they can. A Swing timer samples the stack counters twice a second and
+ * shows operations per second, the share of CAS attempts that failed and the
+ * number of push/pop pairs that met in the elimination array.
+ */
+public class StackContentionPanel extends JPanel {
+
+    // ----- Dark theme -----
+    private static final Color BG = new Color(24, 24, 26);
+    private static final Color SURFACE = new Color(40, 40, 44);
+    private static final Color TEXT = Color.WHITE;
+    private static final Color MESSAGE_ACCENT = new Color(255, 215, 0); // gold/yellow
+
+    private static final int SAMPLE_MS = 500;
+
+    public JButton settingsBtn;
+    private final JButton startButton = new JButton("Start");
+    private final JButton stopButton = new JButton("Stop");
+    private final JSpinner threadCount = new JSpinner(
+            new SpinnerNumberModel(Runtime.getRuntime().availableProcessors(), 1, 64, 1));
+    private final JCheckBox eliminationBox = new JCheckBox("Elimination backoff", true);
+
+    private final JLabel stackMessage = new JLabel(">>>Choose the number of threads and press Start");
+    private final JLabel opsLabel = new JLabel("Ops/sec: 0");
+    private final JLabel casLabel = new JLabel("CAS failure rate: 0.0%");
+    private final JLabel elimLabel = new JLabel("Elimination hits: 0");
+    private final JLabel threadsLabel = new JLabel("Threads: 0");
+    private final RateChart chart = new RateChart("ops/sec", SAMPLE_MS);
+
+    private ConcurrentStack stack;
+    private Thread[] workers = new Thread[0];
+    private volatile boolean running;
+    private final Timer sampler;
+
+    // counter values at the previous sample
+    private long lastOps, lastAttempts, lastFailures, lastElims, lastTime;
+
+    public StackContentionPanel() {
+        setLayout(new BorderLayout());
+        setBackground(BG);
+
+        JLabel stackTitle = new JLabel("<HTML><U>DATA STRUCTURES : CONCURRENT STACK UNDER CONTENTION</U></HTML>");
+        stackTitle.setFont(new Font("Baskerville Old Face", Font.PLAIN, 28));
+        stackTitle.setForeground(Color.YELLOW);
+        stackTitle.setPreferredSize(new Dimension(900, 80));
+        JPanel stackTitlePanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 0, 0));
+        stackTitlePanel.setBackground(SURFACE);
+        stackTitlePanel.add(stackTitle);
+
+        stackMessage.setForeground(MESSAGE_ACCENT);
+        stackMessage.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 20));
+        JPanel stackMessagePanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 0, 0));
+        stackMessagePanel.setBackground(BG);
+        stackMessagePanel.add(stackMessage);
+
+        // Controls
+        JLabel threadsCaption = new JLabel("Worker threads:");
+        threadsCaption.setForeground(TEXT);
+        eliminationBox.setOpaque(false);
+        eliminationBox.setForeground(TEXT);
+        settingsBtn = new JButton("Change Settings");
+        stopButton.setEnabled(false);
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.CENTER, 12, 8));
+        controls.setBackground(SURFACE);
+        controls.setBorder(BorderFactory.createEtchedBorder(Color.DARK_GRAY, Color.LIGHT_GRAY));
+        controls.add(threadsCaption);
+        controls.add(threadCount);
+        controls.add(eliminationBox);
+        controls.add(startButton);
+        controls.add(stopButton);
+        controls.add(settingsBtn);
+
+        Box topDisplay = Box.createVerticalBox();
+        topDisplay.add(stackTitlePanel);
+        topDisplay.add(stackMessagePanel);
+        topDisplay.add(controls);
+        add(topDisplay, BorderLayout.NORTH);
+
+        // Live readouts + ops/sec history
+        JPanel stats = new JPanel(new GridLayout(1, 4, 12, 0));
+        stats.setBackground(BG);
+        stats.setBorder(BorderFactory.createEmptyBorder(12, 24, 12, 24));
+        for (JLabel l : new JLabel[] { opsLabel, casLabel, elimLabel, threadsLabel }) {
+            l.setForeground(TEXT);
+            l.setFont(new Font(Font.MONOSPACED, Font.BOLD, 18));
+            stats.add(l);
+        }
+
+        JPanel center = new JPanel(new BorderLayout());
+        center.setBackground(BG);
+        center.add(stats, BorderLayout.NORTH);
+        center.add(chart, BorderLayout.CENTER);
+        add(center, BorderLayout.CENTER);
+
+        sampler = new Timer(SAMPLE_MS, e -> sample());
+
+        startButton.addActionListener(e -> start());
+        stopButton.addActionListener(e -> stop());
+        eliminationBox.addActionListener(e -> {
+            if (stack != null)
+                stack.setElimination(eliminationBox.isSelected());
+        });
+        // another tab, or the window closing, hides the panel; the workers
+        // should not keep spinning unseen
+        addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && !isShowing())
+                stop();
+        });
+    }
+
+    private void start() {
+        stop();
+        stack = new ConcurrentStack(eliminationBox.isSelected());
+        chart.clear();
+        lastOps = lastAttempts = lastFailures = lastElims = 0;
+        lastTime = System.nanoTime();
+
+        int n = (Integer) threadCount.getValue();
+        running = true;
+        workers = new Thread[n];
+        for (int i = 0; i < n; i++) {
+            final ConcurrentStack s = stack;
+            workers[i] = new Thread(() -> hammer(s), "stack-worker-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+        sampler.start();
+        startButton.setEnabled(false);
+        stopButton.setEnabled(true);
+        threadCount.setEnabled(false);
+        threadsLabel.setText("Threads: " + n);
+        stackMessage.setText(">>>" + n + " threads are pushing and popping on one lock-free stack");
+    }
+
+    @Override
+    public void removeNotify() {
+        stop();
+        super.removeNotify();
+    }
+
+    // Stops the workers and waits for them so the next run starts clean;
+    // also called when the panel is hidden or removed
+    public void stop() {
+        if (!running)
+            return;
+        running = false;
+        for (Thread t : workers) {
+            try {
+                t.join(1000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        sampler.stop();
+        startButton.setEnabled(true);
+        stopButton.setEnabled(false);
+        threadCount.setEnabled(true);
+        stackMessage.setText(">>>Stopped. Press Start to run again");
+    }
+
+    // Worker loop: an even mix of pushes and pops
+    private void hammer(ConcurrentStack s) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        while (running) {
+            for (int i = 0; i < 256; i++) {
+                if (rnd.nextBoolean())
+                    s.push(rnd.nextInt(1000));
+                else
+                    s.pop();
+            }
+        }
+    }
+
+    private void sample() {
+        long now = System.nanoTime();
+        long ops = stack.pushes.sum() + stack.pops.sum();
+        long attempts = stack.casAttempts.sum();
+        long failures = stack.casFailures.sum();
+        long elims = stack.eliminations.sum();
+
+        double secs = (now - lastTime) / 1e9;
+        double opsPerSec = (ops - lastOps) / secs;
+        long dAttempts = attempts - lastAttempts;
+        double failRate = dAttempts == 0 ? 0 : 100.0 * (failures - lastFailures) / dAttempts;
+
+        opsLabel.setText(String.format("Ops/sec: %,.0f", opsPerSec));
+        casLabel.setText(String.format("CAS failure rate: %.1f%%", failRate));
+        elimLabel.setText(String.format("Elimination hits: %,d (%,.0f/s)", elims, (elims - lastElims) / secs));
+        chart.add(opsPerSec);
+
+        lastOps = ops;
+        lastAttempts = attempts;
+        lastFailures = failures;
+        lastElims = elims;
+        lastTime = now;
+    }
+}
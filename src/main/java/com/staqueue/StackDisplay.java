@@ -10,13 +10,29 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
-import java.util.ArrayList;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.util.Random;
-import javax.swing.Box;
-import javax.swing.JLabel;
+import javax.swing.JComponent;
 import javax.swing.JPanel;
+import javax.swing.JScrollBar;
 
 /**
+ * Draws the stack as one column of cells, the highest slot at the top and a
+ * base row under slot 0 that holds the TOP marker while the stack is empty.
+ *
+ * Only the rows inside the view are painted, straight from the model, so the
+ * cost of a frame does not depend on how many elements the stack holds. The
+ * view listens to the stack model, so any change, including undo, redo and
+ * bulk operations, repaints just the cells it touched and the rows the TOP
+ * marker left and reached. The rows are positioned by the scroll bar rather
+ * than by a scroll pane, so the column can be longer than a component may be
+ * tall.
  *
  * @author DELL
  */
@@ -26,240 +42,437 @@ public class StackDisplay extends JPanel {
     private static final Color NODE_BLUE = new Color(70, 80, 200);
     private static final Color BG_DARK = new Color(24, 24, 26);
     private static final Color FG_WHITE = Color.WHITE;
-    private static final Color EMPTY_CELL = Color.WHITE; // <-- empty static cells are white
+    private static final Color EMPTY_CELL = Color.WHITE; // <-- empty cells are white
+    private static final Color INDEX_GREY = new Color(150, 150, 155);
+
+    public static final int DEFAULT_STATIC_CAPACITY = 9;
+    // bulk operations move values through this many ints at a time
+    private static final int BULK_CHUNK = 1 << 16;
+    // rows the view asks for; it shows more if the window gives it room
+    private static final int VIEW_ROWS = 12;
+    // display capacity of an off-heap stack starts here and doubles with it
+    private static final long MIN_MAPPED_ROWS = 16;
+
+    // --- Cell geometry ---
+    private static final int HEADER_H = 26;
+    private static final int CELL_H = 40;
+    private static final int MARKER_W = 60;
+    private static final int CELL_W = 110;
+    private static final int INDEX_W = 110;
 
     public Stack stack;
-    private JLabel topLabel;
     public TextInterface textSetter;
-    public Stack popStack;
-    public StackElement[] rowElement;
-    public ArrayList dynamicStack;
-    public Box columnBox;
+    public TextInterface statsSetter;
+    private final boolean isDynamic;
+    private int[] bulkBuffer; // reused by every bulk push/pop
+
+    private final CellView cells = new CellView();
+    private final JScrollBar scrollBar = new JScrollBar(JScrollBar.VERTICAL);
+    private long slots; // number of cells drawn above the base row
+    private long firstRow; // row at the top of the view; row r shows slot slots - 1 - r
+    private long scrollUnit = 1; // rows per scroll bar unit, > 1 only beyond int range
+    private boolean syncingScrollBar;
+    private final Random getRandom = new Random(); // source of the random mode operations
+    private long shownLength; // stack length when the view last heard from the model
 
     StackDisplay(boolean isDynamic) {
+        this(isDynamic, false, DEFAULT_STATIC_CAPACITY);
+    }
+
+    StackDisplay(boolean isDynamic, boolean isOffHeap) {
+        this(isDynamic, isOffHeap, DEFAULT_STATIC_CAPACITY);
+    }
+
+    StackDisplay(boolean isDynamic, boolean isOffHeap, int staticCapacity) {
         super();
         super.setLayout(new BorderLayout());
         super.setBackground(BG_DARK);
-
-        popStack = new Stack(3); // stack used to store recently popped elements, for undo
-
-        topLabel = new JLabel("TOP->"); // Label to point to top element in gui
-        topLabel.setFont(new Font("Serif", Font.BOLD, 12));
-        topLabel.setForeground(FG_WHITE);
-
-        columnBox = Box.createVerticalBox(); // columnBox to hold all rows
-        columnBox.setBackground(BG_DARK);
-        columnBox.add(Box.createRigidArea(new Dimension(0, isDynamic ? 60 : 30)));
+        this.isDynamic = isDynamic;
 
         if (!isDynamic) {
-            stack = new Stack(9); // Object of type Stack class used to simulate the stack
-            rowElement = new StackElement[stack.size + 1];
-
-            // actual cells
-            for (int i = 0; i < stack.size; i++) {
-                rowElement[i] = new StackElement();
-                rowElement[i].setOpaque(false);
-                rowElement[i].topPanel.setOpaque(false);
-                rowElement[i].eltPanel.setOpaque(true);
-                rowElement[i].eltPanel.setBackground(EMPTY_CELL); // empty cells start WHITE
-                // label text color is irrelevant for empty cells, but set to black just in case
-                rowElement[i].elt.setForeground(Color.BLACK);
-                columnBox.add(rowElement[i]);
-            }
-
-            // last row only to host TOP label (no blue box)
-            rowElement[stack.size] = new StackElement();
-            rowElement[stack.size].topPanel.add(topLabel);
-            rowElement[stack.size].eltPanel.setBorder(null);
-            rowElement[stack.size].eltPanel.setOpaque(false);
-            rowElement[stack.size].setOpaque(false);
-            columnBox.add(rowElement[stack.size]);
+            stack = new Stack(staticCapacity); // Object of type Stack class used to simulate the stack
         } else {
-            dynamicStack = new ArrayList();
-            StackElement elt = new StackElement();
-            // host TOP label; no blue box here
-            elt.topPanel.add(topLabel);
-            elt.topPanel.setVisible(true);
-            elt.eltPanel.setBorder(null);
-            elt.eltPanel.setOpaque(false);
-            dynamicStack.add(elt);
-            columnBox.add((StackElement) dynamicStack.get(0));
+            // growable primitive stack, or a memory-mapped one
+            stack = isOffHeap ? new MappedStack() : new DynamicStack();
         }
+        stack.addModelListener(new ModelChangeListener() {
+            public void cellsChanged(long first, long last) {
+                stackChanged(first, last);
+            }
+
+            public void modelReset() {
+                boolean follow = isSlotVisible(shownLength - 1);
+                shownLength = stack.length();
+                refreshAll(follow);
+            }
+        });
+        slots = displaySlots();
+        firstRow = Math.max(0, slots + 1 - VIEW_ROWS); // start at the bottom of the column
+
+        scrollBar.setUnitIncrement(1);
+        scrollBar.addAdjustmentListener(e -> {
+            if (!syncingScrollBar) {
+                firstRow = Math.min((long) e.getValue() * scrollUnit, maxFirstRow());
+                cells.repaint();
+            }
+        });
+        cells.addMouseWheelListener(e -> scrollTo(firstRow + 3L * e.getWheelRotation()));
+        cells.addComponentListener(new ComponentAdapter() {
+            public void componentResized(ComponentEvent e) {
+                scrollTo(firstRow);
+            }
+        });
 
-        super.add(columnBox, BorderLayout.CENTER);
+        super.add(cells, BorderLayout.CENTER);
+        super.add(scrollBar, BorderLayout.EAST);
         setOpaque(true);
-        setBackground(BG_DARK);
+        syncScrollBar();
     }
 
-    // --- Helpers to tint a cell (occupied vs empty) ---
+    // Function to update GUI when push button is pressed
+    public void update_push(int num, OperationJournal journal, int stackNumber, boolean isDynamic) {
 
-    private void paintAsOccupied(StackElement se, int value) {
-        se.eltPanel.setOpaque(true);
-        se.eltPanel.setBackground(NODE_BLUE);
-        se.elt.setForeground(FG_WHITE);
-        se.elt.setText(Integer.toString(value));
-        se.revalidate();
-        se.repaint();
-    }
+        // Check if stack is full
+        if (!isDynamic && stack.nElts == stack.size) {
+            // Stack full message
+            textSetter.setText("Stack " + Integer.toString(stackNumber + 1)
+                    + " is full! Cannot push more elements. Top = " + Integer.toString(stack.top));
+            return;
+        }
+
+        placeOnTop(num);
+        journal.record(OperationJournal.PUSH, num);
 
-    private void paintAsEmpty(StackElement se) {
-        se.elt.setText("");
-        se.eltPanel.setOpaque(true);
-        se.eltPanel.setBackground(EMPTY_CELL); // always WHITE for static stack
-        se.revalidate();
-        se.repaint();
+        // Display message of successful push
+        textSetter.setText(Integer.toString(num) + " has been pushed on to Stack " + Integer.toString(stackNumber + 1)
+                + ". Top = " + Long.toString(stack.length() - 1));
     }
 
-    // Function to update GUI when push button is pressed
-    public void update_push(int num, Stack undo, int stackNumber, boolean isDynamic) {
+    public void update_pop(OperationJournal journal, int stackNumber, boolean isDynamic) {
 
-        if (undo.nElts == undo.size) {
-            undo.forgetEarlierChoice(); // Deleting earlier options - push or pop
+        // Check if stack is empty
+        if (stack.isEmpty()) {
+            textSetter.setText("Stack " + Integer.toString(stackNumber + 1) +
+                    " is empty! Cannot pop any element. Top = -1");
+            return;
         }
 
-        undo.push(0); // 0 for push
-        if (!isDynamic) {
-            // Check if stack is full
-            if (stack.nElts == stack.size) {
-                // Stack full message
-                textSetter.setText("Stack " + Integer.toString(stackNumber + 1)
-                        + " is full! Cannot push more elements. Top = " + Integer.toString(stack.top));
-                return;
+        int num = removeTop();
+        journal.record(OperationJournal.POP, num); // popped value is kept for undo
+
+        // Display message of successful pop
+        textSetter.setText(Integer.toString(num) + " has been popped from Stack " + Integer.toString(stackNumber + 1)
+                + ". Top = " + Long.toString(stack.length() - 1));
+    }
+
+    // Pushes count random values, a chunk at a time through one reused buffer
+    public void update_pushAll(int count, OperationJournal journal, int stackNumber, boolean isDynamic) {
+        if (!isDynamic && count > stack.size - stack.nElts) {
+            textSetter.setText("Stack " + Integer.toString(stackNumber + 1) + " has room for only "
+                    + (stack.size - stack.nElts) + " more elements. Top = " + Integer.toString(stack.top));
+            return;
+        }
+        long capacity = capacity();
+        int[] buf = bulkBuffer();
+        int left = count;
+        while (left > 0) {
+            int n = Math.min(left, buf.length);
+            for (int i = 0; i < n; i++) {
+                buf[i] = getRandom.nextInt(100);
+            }
+            stack.pushAll(buf, 0, n);
+            for (int i = 0; i < n; i++) {
+                journal.record(OperationJournal.PUSH, buf[i]);
+            }
+            left -= n;
+        }
+        showStorageStats(capacity);
+        textSetter.setText(count + " random values have been pushed on to Stack " + Integer.toString(stackNumber + 1)
+                + ". Top = " + Long.toString(stack.length() - 1));
+    }
+
+    // Pops up to count values; the journal records them as individual pops
+    public void update_popN(int count, OperationJournal journal, int stackNumber, boolean isDynamic) {
+        if (stack.isEmpty()) {
+            textSetter.setText("Stack " + Integer.toString(stackNumber + 1) +
+                    " is empty! Cannot pop any element. Top = -1");
+            return;
+        }
+        int[] buf = bulkBuffer();
+        int popped = 0;
+        while (popped < count && !stack.isEmpty()) {
+            int want = Math.min(count - popped, buf.length);
+            int n = stack.popN(want, buf, 0); // bottom first, so journal from the end
+            for (int i = n - 1; i >= 0; i--) {
+                journal.record(OperationJournal.POP, buf[i]);
             }
+            popped += n;
+        }
+        showStorageStats(capacity());
+        textSetter.setText(popped + " values have been popped from Stack " + Integer.toString(stackNumber + 1)
+                + ". Top = " + Long.toString(stack.length() - 1));
+    }
 
-            rowElement[stack.size - stack.nElts].topPanel.remove(topLabel); // Remove topLabel from current position
-            stack.push(num); // Push new element in actual stack
-            rowElement[stack.size - stack.nElts].topPanel.add(topLabel); // topLabel points to new top
+    private int[] bulkBuffer() {
+        if (bulkBuffer == null) {
+            bulkBuffer = new int[BULK_CHUNK];
+        }
+        return bulkBuffer;
+    }
 
-            // color the newly occupied cell
-            paintAsOccupied(rowElement[stack.size - stack.top - 1], num);
+    // Reverts the operation the journal just stepped back over
+    public void undo(int choice, int value, int stackNumber, boolean isDynamic) {
+        if (choice == OperationJournal.PUSH) {
+            removeTop(); // Remove recently pushed element
+        } else {
+            placeOnTop(value); // Push back recently popped element
+        }
+        textSetter.setText("Undo on Stack " + Integer.toString(stackNumber + 1)
+                + " successful. Top = " + Long.toString(stack.length() - 1));
+    }
 
-            // Display message of successful push
-            textSetter
-                    .setText(Integer.toString(num) + " has been pushed on to Stack " + Integer.toString(stackNumber + 1)
-                            + ". Top = " + Integer.toString(stack.top));
+    // Re-applies the operation the journal just stepped forward over
+    public void redo(int choice, int value, int stackNumber, boolean isDynamic) {
+        if (choice == OperationJournal.PUSH) {
+            placeOnTop(value);
         } else {
-            StackElement elt = new StackElement(num);
-            // visuals for the new dynamic node
-            elt.eltPanel.setOpaque(true);
-            elt.eltPanel.setBackground(NODE_BLUE);
-            elt.elt.setForeground(FG_WHITE);
-
-            ((StackElement) dynamicStack.get(dynamicStack.size() - 1)).topPanel.remove(topLabel);
-            elt.topPanel.add(topLabel);
-            dynamicStack.add(elt);
-            columnBox.add((StackElement) dynamicStack.get(dynamicStack.size() - 1), 1);
-
-            textSetter
-                    .setText(Integer.toString(num) + " has been pushed on to Stack " + Integer.toString(stackNumber + 1)
-                            + ". Top = " + Integer.toString(dynamicStack.size() - 2));
+            removeTop();
         }
+        textSetter.setText("Redo on Stack " + Integer.toString(stackNumber + 1)
+                + " successful. Top = " + Long.toString(stack.length() - 1));
     }
 
-    public void update_pop(Stack undo, int stackNumber, boolean isDynamic) {
+    // Pushes num; the model listener repaints what changed
+    private void placeOnTop(int num) {
+        long capacity = capacity();
+        stack.push(num);
+        showStorageStats(capacity);
+    }
 
-        // Check if stack is empty
-        if (!isDynamic && stack.top == -1) {
-            textSetter.setText("Stack " + Integer.toString(stackNumber + 1) +
-                    " is empty! Cannot pop any element. Top = " + Integer.toString(stack.top));
-            return;
-        }
-        if (isDynamic && dynamicStack.size() == 1) {
-            textSetter.setText("Stack " + Integer.toString(stackNumber + 1) +
-                    " is empty! Cannot pop any element. Top = " + Integer.toString(dynamicStack.size() - 2));
+    // Pops the top element; the model listener repaints what changed
+    private int removeTop() {
+        long capacity = capacity();
+        int num = stack.pop();
+        showStorageStats(capacity);
+        return num;
+    }
+
+    // Repaints the changed cells that are in view and the rows the TOP marker
+    // left and reached, and keeps following the top if it was in view
+    private void stackChanged(long first, long last) {
+        long length = stack.length();
+        long oldTop = shownLength - 1;
+        boolean follow = isSlotVisible(oldTop);
+        shownLength = length;
+        if (displaySlots() != slots) {
+            refreshAll(follow);
             return;
         }
+        long highest = slots - 1 - firstRow;
+        long from = Math.max(first, highest - visibleRows() + 1), to = Math.min(last, highest);
+        for (long slot = from; slot <= to; slot++)
+            repaintSlot(slot);
+        repaintSlot(oldTop);
+        repaintSlot(length - 1);
+        if (follow && !isSlotVisible(length - 1))
+            jumpToTop();
+    }
 
-        if (undo.nElts == undo.size) {
-            undo.forgetEarlierChoice(); // Deleting earlier options - push or pop
+    // --- View position ---
+
+    // Scrolls so the top of the stack sits a few rows below the top of the view
+    public void jumpToTop() {
+        scrollTo(slots - stack.length() - 2);
+    }
+
+    // Scrolls so the given slot is the second row of the view
+    public void scrollToSlot(long slot) {
+        scrollTo(slots - 2 - slot);
+    }
+
+    private void scrollTo(long row) {
+        firstRow = Math.max(0, Math.min(row, maxFirstRow()));
+        syncScrollBar();
+        cells.repaint();
+    }
+
+    // Keeps the same slot at the top of the view when the number of slots changed
+    private void refreshAll(boolean follow) {
+        long newSlots = displaySlots();
+        long anchorSlot = slots - 1 - firstRow;
+        slots = newSlots;
+        firstRow = Math.max(0, Math.min(slots - 1 - anchorSlot, maxFirstRow()));
+        if (follow && !isTopVisible())
+            jumpToTop();
+        else
+            scrollTo(firstRow);
+    }
+
+    private void syncScrollBar() {
+        long rows = slots + 1; // + base row
+        scrollUnit = Math.max(1, (rows + (1 << 30) - 1) >> 30);
+        int visible = visibleRows();
+        syncingScrollBar = true;
+        scrollBar.setValues((int) (firstRow / scrollUnit), (int) Math.max(1, visible / scrollUnit), 0,
+                (int) ((rows + scrollUnit - 1) / scrollUnit));
+        scrollBar.setBlockIncrement(Math.max(1, visible - 1));
+        syncingScrollBar = false;
+    }
+
+    private long maxFirstRow() {
+        return Math.max(0, slots + 1 - visibleRows());
+    }
+
+    private int visibleRows() {
+        int h = cells.getHeight() > 0 ? cells.getHeight() : cells.getPreferredSize().height;
+        return Math.max(1, (h - HEADER_H) / CELL_H);
+    }
+
+    private boolean isSlotVisible(long slot) {
+        long row = slots - 1 - slot;
+        return row >= firstRow && row < firstRow + visibleRows();
+    }
+
+    private boolean isTopVisible() {
+        return isSlotVisible(stack.length() - 1);
+    }
+
+    private void repaintSlot(long slot) {
+        long r = slots - 1 - slot - firstRow;
+        if (r >= 0 && r < visibleRows())
+            cells.repaint(0, HEADER_H + (int) r * CELL_H, cells.getWidth(), CELL_H);
+    }
+
+    // Cells drawn above the base row: the static size, the array length of a
+    // dynamic stack, or a doubling display capacity for the off-heap stack
+    private long displaySlots() {
+        if (!isDynamic)
+            return stack.size;
+        if (stack instanceof DynamicStack)
+            return ((DynamicStack) stack).capacity();
+        long rows = MIN_MAPPED_ROWS;
+        while (rows < stack.length())
+            rows <<= 1;
+        return rows;
+    }
+
+    // --- Painting ---
+
+    private class CellView extends JComponent {
+        private final Font valueFont = new Font(Font.SANS_SERIF, Font.BOLD, 14);
+        private final Font markerFont = new Font("Serif", Font.BOLD, 12);
+        private final Font indexFont = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+
+        CellView() {
+            setOpaque(true);
+            setPreferredSize(new Dimension(MARKER_W + CELL_W + INDEX_W + 20, HEADER_H + VIEW_ROWS * CELL_H));
         }
-        if (popStack.nElts == popStack.size) {
-            popStack.forgetEarlierChoice(); // Deleting elements popped earlier from temporary stack
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g;
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            Rectangle clip = g2.getClipBounds();
+            if (clip == null)
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            g2.setColor(BG_DARK);
+            g2.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+            int x0 = Math.max(0, (getWidth() - MARKER_W - CELL_W - INDEX_W) / 2);
+            long length = stack.length();
+            int visible = visibleRows();
+
+            if (clip.y < HEADER_H) {
+                long hiSlot = slots - 1 - firstRow;
+                long loSlot = Math.max(-1, hiSlot - visible + 1);
+                g2.setFont(indexFont);
+                g2.setColor(INDEX_GREY);
+                g2.drawString("slots " + Math.max(0, loSlot) + " .. " + Math.max(0, hiSlot) + " of " + slots
+                        + (isDynamic ? "" : " (fixed)"), x0, 17);
+            }
+
+            // rows intersecting the clip only
+            int rFrom = Math.max(0, (clip.y - HEADER_H) / CELL_H);
+            int rTo = Math.min(visible - 1, (clip.y + clip.height - HEADER_H) / CELL_H);
+            for (int r = rFrom; r <= rTo; r++) {
+                long slot = slots - 1 - (firstRow + r);
+                if (slot < -1)
+                    break;
+                paintRow(g2, x0, HEADER_H + r * CELL_H, slot, length);
+            }
         }
 
-        undo.push(1);// 1 for pop
+        private void paintRow(Graphics2D g2, int x0, int y, long slot, long length) {
+            if (slot == length - 1) { // TOP marker, on the base row while empty
+                g2.setFont(markerFont);
+                g2.setColor(FG_WHITE);
+                g2.drawString("TOP->", x0 + 8, y + CELL_H / 2 + 5);
+            }
+            if (slot < 0)
+                return;
 
-        if (!isDynamic) {
-            // make the current top cell empty (WHITE)
-            paintAsEmpty(rowElement[stack.size - stack.top - 1]);
-
-            rowElement[stack.size - stack.nElts].topPanel.remove(topLabel); // Remove topLabel from current position
-            int num = stack.pop(); // Popping element from actual stack (updates top & nElts)
-            popStack.push(num); // Storing recently popped element for undo purpose
-            rowElement[stack.size - stack.nElts].topPanel.add(topLabel); // Updating topLabel to point to new top
-
-            // Display message of successful pop
-            textSetter
-                    .setText(Integer.toString(num) + " has been popped from Stack " + Integer.toString(stackNumber + 1)
-                            + ". Top = " + Integer.toString(stack.top));
-        } else {
-            StackElement elt = (StackElement) dynamicStack.get(dynamicStack.size() - 1);
-            elt.topPanel.remove(topLabel);
-            popStack.push(elt.val);
-            dynamicStack.remove(dynamicStack.size() - 1);
-            columnBox.remove(1);
-
-            textSetter.setText(
-                    Integer.toString(elt.val) + " has been popped from Stack " + Integer.toString(stackNumber + 1)
-                            + ". Top = " + Integer.toString(dynamicStack.size() - 2));
-
-            elt = (StackElement) dynamicStack.get(dynamicStack.size() - 1);
-            elt.topPanel.add(topLabel);
+            int cx = x0 + MARKER_W;
+            boolean occupied = slot < length;
+            g2.setColor(occupied ? NODE_BLUE : EMPTY_CELL);
+            g2.fillRect(cx, y, CELL_W, CELL_H);
+            g2.setColor(Color.BLACK);
+            g2.drawRect(cx, y, CELL_W - 1, CELL_H - 1);
+            if (occupied) {
+                String s = Integer.toString(stack.getVal(slot));
+                g2.setFont(valueFont);
+                g2.setColor(FG_WHITE);
+                FontMetrics fm = g2.getFontMetrics();
+                g2.drawString(s, cx + (CELL_W - fm.stringWidth(s)) / 2, y + (CELL_H + fm.getAscent()) / 2 - 3);
+            }
+            g2.setFont(indexFont);
+            g2.setColor(INDEX_GREY);
+            g2.drawString("[" + slot + "]", cx + CELL_W + 8, y + CELL_H / 2 + 4);
         }
     }
 
-    public void undoPush(int stackNumber, boolean isDynamic) {
-        if (!isDynamic) {
-            // Remove recently pushed element visuals (back to WHITE)
-            paintAsEmpty(rowElement[stack.size - stack.top - 1]);
-            rowElement[stack.size - stack.nElts].topPanel.remove(topLabel); // Remove topLabel from current top
-            stack.pop(); // Remove element from actual stack
-            rowElement[stack.size - stack.nElts].topPanel.add(topLabel); // topLabel points to new top
-            textSetter.setText("Undo on Stack " + Integer.toString(stackNumber + 1)
-                    + " successful. Top = " + Integer.toString(stack.top));
-        } else {
-            StackElement elt = (StackElement) dynamicStack.get(dynamicStack.size() - 1);
-            elt.topPanel.remove(topLabel);
-            dynamicStack.remove(dynamicStack.size() - 1);
-            columnBox.remove(1);
-
-            textSetter.setText("Undo on Stack " + Integer.toString(stackNumber + 1)
-                    + " successful. Top = " + Integer.toString(dynamicStack.size() - 2));
+    // Size of the storage behind a dynamic stack: array length or mapped bytes
+    private long capacity() {
+        if (stack instanceof MappedStack) {
+            return ((MappedStack) stack).mappedSegments() * MappedStack.SEGMENT_BYTES;
+        }
+        if (stack instanceof DynamicStack) {
+            return ((DynamicStack) stack).capacity();
+        }
+        return stack.size;
+    }
 
-            elt = (StackElement) dynamicStack.get(dynamicStack.size() - 1);
-            elt.topPanel.add(topLabel);
+    // Reports the storage behind the dynamic stack and what growing it has cost
+    private void showStorageStats(long capacityBefore) {
+        if (statsSetter == null || !isDynamic) {
+            return;
+        }
+        if (stack instanceof MappedStack) {
+            MappedStack ms = (MappedStack) stack;
+            statsSetter.setText("Off-heap, mapped file " + ms.file().getName()
+                    + ", Segments = " + ms.mappedSegments()
+                    + " x " + (MappedStack.SEGMENT_BYTES >> 20) + " MB"
+                    + ", Elements = " + ms.length());
+            return;
         }
+        DynamicStack ds = (DynamicStack) stack;
+        String resized = (ds.capacity() != capacityBefore)
+                ? "Resized " + capacityBefore + " -> " + ds.capacity() + ". "
+                : "";
+        statsSetter.setText(resized + "Capacity = " + ds.capacity()
+                + ", Resizes = " + ds.resizes
+                + ", Elements copied = " + ds.copiedElements
+                + ", Amortized copy cost = " + String.format("%.2f", ds.amortizedCopyCost()) + " per push");
     }
 
-    public void undoPop(int stackNumber, boolean isDynamic) {
-        if (!isDynamic) {
-            rowElement[stack.size - stack.nElts].topPanel.remove(topLabel); // Remove topLabel from current top
-            int restored = popStack.pop();
-            stack.push(restored); // Push back recently popped element
-            rowElement[stack.size - stack.nElts].topPanel.add(topLabel); // topLabel points to new top
-            // paint as occupied again
-            paintAsOccupied(rowElement[stack.size - stack.top - 1], stack.getVal(stack.top));
-            textSetter.setText("Undo on Stack " + Integer.toString(stackNumber + 1)
-                    + " successful. Top = " + Integer.toString(stack.top));
-        } else {
-            StackElement elt = new StackElement(popStack.pop());
-            elt.eltPanel.setOpaque(true);
-            elt.eltPanel.setBackground(NODE_BLUE);
-            elt.elt.setForeground(FG_WHITE);
-
-            ((StackElement) dynamicStack.get(dynamicStack.size() - 1)).topPanel.remove(topLabel);
-            elt.topPanel.add(topLabel);
-            dynamicStack.add(elt);
-            columnBox.add((StackElement) dynamicStack.get(dynamicStack.size() - 1), 1);
-
-            textSetter.setText("Undo on Stack " + Integer.toString(stackNumber + 1)
-                    + " successful. Top = " + Integer.toString(dynamicStack.size() - 2));
+    // Releases storage held outside the heap, called when the stack is discarded
+    public void release() {
+        if (stack instanceof MappedStack) {
+            ((MappedStack) stack).close();
         }
     }
 
-    public void random(Stack undo, int stackNumber, boolean isDynamic) throws InterruptedException {
+    public void random(OperationJournal journal, int stackNumber, boolean isDynamic) {
         int choice;
-        Random getRandom = new Random(); // object which gets random numbers
         if (!isDynamic) {
             if (stack.nElts == stack.size) {
                 choice = 1; // if stack full, then pop
@@ -270,55 +483,27 @@ public class StackDisplay extends JPanel {
                 choice = (r > this.stack.nElts) ? 0 : 1;
             }
         } else {
-            if (dynamicStack.size() == 1) {
+            if (stack.nElts == 0) {
                 choice = 0;
             } else {
-                int r = getRandom.nextInt(4 + dynamicStack.size()); // random number
-                choice = (r > dynamicStack.size()) ? 0 : 1;
+                int r = getRandom.nextInt(4 + stack.nElts); // random number
+                choice = (r > stack.nElts) ? 0 : 1;
             }
         }
 
         if (choice == 1) {
-            update_pop(undo, stackNumber, isDynamic);
+            update_pop(journal, stackNumber, isDynamic);
         } else {
-            update_push(getRandom.nextInt(100), undo, stackNumber, isDynamic);
+            update_push(getRandom.nextInt(100), journal, stackNumber, isDynamic);
         }
     }
 
     public void reset(int stackNumber, boolean isDynamic) {
+        stack.clear();
+        jumpToTop();
+        showStorageStats(capacity());
 
-        if (!isDynamic) {
-            rowElement[stack.size - stack.nElts].topPanel.remove(topLabel); // remove topLabel from current position
-
-            // Clear actual stack
-            stack.nElts = 0;
-            stack.top = -1;
-
-            // repaint all cells as EMPTY (WHITE)
-            for (int i = 0; i < stack.size; i++) {
-                paintAsEmpty(rowElement[i]);
-                rowElement[i].elt.setForeground(Color.BLACK); // harmless; ensures legible text if any
-            }
-
-            rowElement[stack.size - stack.nElts].topPanel.add(topLabel); // topLabel points to -1
-            textSetter.setText("Stack " + Integer.toString(stackNumber + 1)
-                    + " has been reset. Top = " + Integer.toString(stack.top));
-        } else {
-            ((StackElement) dynamicStack.get(dynamicStack.size() - 1)).topPanel.remove(topLabel);
-            dynamicStack.clear();
-
-            StackElement elt = new StackElement();
-            elt.topPanel.add(topLabel);
-            elt.eltPanel.setBorder(null);
-            elt.eltPanel.setOpaque(false);
-            dynamicStack.add(elt);
-            columnBox.add((StackElement) dynamicStack.get(0));
-
-            columnBox.removeAll();
-            columnBox.add(Box.createRigidArea(new Dimension(0, 60)));
-
-            textSetter.setText("Stack " + Integer.toString(stackNumber + 1)
-                    + " has been reset. Top = " + Integer.toString(dynamicStack.size() - 2));
-        }
+        textSetter.setText("Stack " + Integer.toString(stackNumber + 1)
+                + " has been reset. Top = " + Long.toString(stack.length() - 1));
     }
 }
@@ -18,7 +18,7 @@ import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
-import javax.swing.SwingWorker;
+import javax.swing.Timer;
 
 /**
  *
@@ -33,9 +33,13 @@ public class StackFrame extends JPanel {
 
     private static final Color MESSAGE_ACCENT = new Color(255, 215, 0); // gold/yellow
 
+    // Random mode: RANDOM_OPS_PER_TICK operations every RANDOM_TICK_MS, about 300 per second
+    private static final int RANDOM_TICK_MS = 20;
+    private static final int RANDOM_OPS_PER_TICK = 6;
+
     boolean isRandom;
     boolean isDynamic;
-    Stack choiceStack;
+    OperationJournal journal;
     StackDisplay stackDisplay;
     JPanel stackDisplayPanel;
     StackMenu stackMenu;
@@ -43,14 +47,24 @@ public class StackFrame extends JPanel {
     JPanel stackPanel;
     JLabel stackMessage;
     JPanel stackMessagePanel;
+    JLabel stackStats;
+    Timer randomTimer;
 
     StackFrame(int numberOfStacks, boolean isDynamicStack) {
+        this(numberOfStacks, isDynamicStack, false);
+    }
+
+    StackFrame(int numberOfStacks, boolean isDynamicStack, boolean isOffHeapStack) {
+        this(numberOfStacks, isDynamicStack, isOffHeapStack, StackDisplay.DEFAULT_STATIC_CAPACITY);
+    }
+
+    StackFrame(int numberOfStacks, boolean isDynamicStack, boolean isOffHeapStack, int staticCapacity) {
 
         // Fill parent like Queue: use BorderLayout on *this* panel
         setLayout(new BorderLayout());
         setBackground(BG);
 
-        choiceStack = new Stack(3);
+        journal = new OperationJournal(); // undo/redo history of push and pop operations
         isRandom = false;
         isDynamic = isDynamicStack;
 
@@ -77,6 +91,15 @@ public class StackFrame extends JPanel {
         stackMessagePanel.setBackground(BG);
         stackMessagePanel.add(stackMessage);
 
+        // Storage statistics of the dynamic stack (capacity, resizes, copy cost)
+        stackStats = new JLabel(" ");
+        stackStats.setForeground(TEXT);
+        stackStats.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 14));
+        JPanel stackStatsPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 0, 0));
+        stackStatsPanel.setBackground(BG);
+        stackStatsPanel.add(stackStats);
+        stackStatsPanel.setVisible(isDynamic);
+
         // Stack Menu and styling
         stackMenu = new StackMenu(numberOfStacks);
         stackMenu.setOpaque(true);
@@ -100,16 +123,17 @@ public class StackFrame extends JPanel {
         topDisplay.setBackground(BG);
         topDisplay.add(stackTitlePanel);
         topDisplay.add(stackMessagePanel);
+        topDisplay.add(stackStatsPanel);
         topDisplay.add(stackMenuPanel);
 
         stackPanel.add(topDisplay, BorderLayout.NORTH);
 
         // Stack display area (fills remaining space)
-        stackDisplay = new StackDisplay(isDynamic);
-        stackDisplayPanel = new JPanel(); // container panel
+        stackDisplay = new StackDisplay(isDynamic, isOffHeapStack, staticCapacity);
+        stackDisplayPanel = new JPanel(new BorderLayout()); // container panel, the display fills it
         stackDisplayPanel.setOpaque(true);
         stackDisplayPanel.setBackground(BG);
-        stackDisplayPanel.add(stackDisplay);
+        stackDisplayPanel.add(stackDisplay, BorderLayout.CENTER);
         stackDisplayPanel.setBorder(BorderFactory.createEtchedBorder(Color.DARK_GRAY, Color.LIGHT_GRAY));
 
         Box stackDisplayBox = Box.createHorizontalBox();
@@ -128,6 +152,11 @@ public class StackFrame extends JPanel {
                 stackMessage.setText(">>>" + str);
             }
         };
+        stackDisplay.statsSetter = new TextInterface() {
+            public void setText(String str) {
+                stackStats.setText(str);
+            }
+        };
 
         addStackActionListeners(); // Function to add the action listeners to the buttons
     }
@@ -143,11 +172,10 @@ public class StackFrame extends JPanel {
                 if (isNum(str)) {
                     str = str.replace(",", "");
                     int num = Integer.parseInt(str);
-                    stackDisplay.update_push(num, choiceStack, selectedStack, isDynamic);
+                    stackDisplay.update_push(num, journal, selectedStack, isDynamic);
                 } else {
                     stackMessage.setText(">>>Invalid number. Enter a valid number to be pushed.");
                 }
-                stackPanel.updateUI();
             }
         });
 
@@ -155,8 +183,26 @@ public class StackFrame extends JPanel {
         stackMenu.popButton.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent ae) {
                 int selectedStack = 0;
-                stackDisplay.update_pop(choiceStack, selectedStack, isDynamic);
-                stackPanel.updateUI();
+                stackDisplay.update_pop(journal, selectedStack, isDynamic);
+            }
+        });
+
+        // Bulk push / pop
+        stackMenu.bulkPushButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                Integer count = bulkCount();
+                if (count != null) {
+                    stackDisplay.update_pushAll(count, journal, 0, isDynamic);
+                }
+            }
+        });
+
+        stackMenu.bulkPopButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                Integer count = bulkCount();
+                if (count != null) {
+                    stackDisplay.update_popN(count, journal, 0, isDynamic);
+                }
             }
         });
 
@@ -164,19 +210,45 @@ public class StackFrame extends JPanel {
         stackMenu.undoButton.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent ae) {
                 int selectedStack = 0;
-                if (choiceStack.nElts == 0) {
+                if (!journal.canUndo()) {
                     stackMessage.setText(">>>Cannot undo any more operations on Stack " +
                             Integer.toString(selectedStack + 1) +
                             ".Perform some other operation and try again.");
                     return;
                 }
-                int choice = choiceStack.pop();
-                if (choice == 0) {
-                    stackDisplay.undoPush(selectedStack, isDynamic);
-                } else {
-                    stackDisplay.undoPop(selectedStack, isDynamic);
+                int choice = journal.undo();
+                stackDisplay.undo(choice, journal.value(), selectedStack, isDynamic);
+            }
+        });
+
+        // Redo
+        stackMenu.redoButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                int selectedStack = 0;
+                if (!journal.canRedo()) {
+                    stackMessage.setText(">>>Nothing to redo on Stack " +
+                            Integer.toString(selectedStack + 1) + ".");
+                    return;
                 }
-                stackPanel.updateUI();
+                int choice = journal.redo();
+                stackDisplay.redo(choice, journal.value(), selectedStack, isDynamic);
+            }
+        });
+
+        // Random
+        stackMenu.randomButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                if (isRandom)
+                    stopStackRandom();
+                else
+                    startStackRandom(0);
+            }
+        });
+
+        // Jump to top
+        stackMenu.jumpTopButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                stackDisplay.jumpToTop();
             }
         });
 
@@ -185,32 +257,50 @@ public class StackFrame extends JPanel {
             public void actionPerformed(ActionEvent ae) {
                 int selectedStack = 1;
                 stackDisplay.reset(selectedStack, isDynamic);
-                choiceStack.top = -1;
-                choiceStack.nElts = 0;
-                stackPanel.updateUI();
+                journal.clear();
             }
         });
     }
 
-    // Function to implement automatic random operations in Stack
+    // Function to implement automatic random operations in Stack. The timer
+    // fires on the EDT, and each operation repaints only what it changed, so a
+    // tick of several operations costs a few dirty cells rather than a relayout.
     private void startStackRandom(int selectedStack) {
-        SwingWorker<Void, Void> stk_random = new SwingWorker<Void, Void>() {
-            protected Void doInBackground() throws Exception { // Repeatedly performs random operations on a background
-                                                               // thread
-                Thread.sleep(100);
-                stackDisplay.random(choiceStack, selectedStack, isDynamic);
-                stackPanel.updateUI();
-                Thread.sleep(750);
-                return null;
-            }
-
-            protected void done() {
-                if (isRandom) {
-                    startStackRandom(selectedStack);
+        if (randomTimer == null) {
+            randomTimer = new Timer(RANDOM_TICK_MS, new ActionListener() {
+                public void actionPerformed(ActionEvent ae) {
+                    for (int i = 0; i < RANDOM_OPS_PER_TICK; i++)
+                        stackDisplay.random(journal, selectedStack, isDynamic);
                 }
-            }
-        };
-        stk_random.execute();
+            });
+        }
+        isRandom = true;
+        randomTimer.start();
+        stackMenu.randomButton.setText("Stop Random");
+    }
+
+    private void stopStackRandom() {
+        isRandom = false;
+        if (randomTimer != null)
+            randomTimer.stop();
+        stackMenu.randomButton.setText("Random");
+    }
+
+    // The timer would keep the stack alive after the setup screen replaces it
+    @Override
+    public void removeNotify() {
+        stopStackRandom();
+        super.removeNotify();
+    }
+
+    // Reads the bulk count field, null (with a message) if it is not a positive number
+    private Integer bulkCount() {
+        String str = stackMenu.bulkText.getText().replace(",", "");
+        if (isNum(str) && Integer.parseInt(str) > 0) {
+            return Integer.parseInt(str);
+        }
+        stackMessage.setText(">>>Invalid count. Enter how many values to push or pop.");
+        return null;
     }
 
     // Function to check if the input string is a valid number or not
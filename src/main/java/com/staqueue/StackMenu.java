@@ -33,9 +33,14 @@ public class StackMenu extends JPanel {
     public JButton popButton;
     public JButton resetButton;
     public JButton undoButton;
+    public JButton redoButton;
     public JButton randomButton;
     public JButton settingsBtn;
     public JFormattedTextField text;
+    public JFormattedTextField bulkText;
+    public JButton bulkPushButton;
+    public JButton bulkPopButton;
+    public JButton jumpTopButton;
 
     public StackMenu(int numberOfStacks) {
 
@@ -78,6 +83,29 @@ public class StackMenu extends JPanel {
         pushPanel.setBackground(Color.lightGray);
         menuBox.add(pushPanel);
 
+        // Bulk push/pop of N values at a time
+        NumberFormatter countFormatter = new NumberFormatter(NumberFormat.getInstance());
+        countFormatter.setValueClass(Integer.class);
+        countFormatter.setMinimum(1);
+        countFormatter.setMaximum(Integer.MAX_VALUE);
+        bulkText = new JFormattedTextField(countFormatter);
+        bulkText.setValue(1000);
+        bulkText.setPreferredSize(new Dimension(90, 30));
+        bulkText.setToolTipText("number of values for bulk push / pop");
+
+        bulkPushButton = new JButton("Push N");
+        bulkPushButton.setPreferredSize(new Dimension(80, 30));
+        bulkPushButton.setToolTipText("push N random values");
+        bulkPopButton = new JButton("Pop N");
+        bulkPopButton.setPreferredSize(new Dimension(80, 30));
+
+        JPanel bulkPanel = new JPanel(new FlowLayout());
+        bulkPanel.add(bulkText);
+        bulkPanel.add(bulkPushButton);
+        bulkPanel.add(bulkPopButton);
+        bulkPanel.setBackground(Color.lightGray);
+        menuBox.add(bulkPanel);
+
         // Pop button properties
         popButton = new JButton("Pop");
         popButton.setMinimumSize(new Dimension(150, 30));
@@ -90,15 +118,16 @@ public class StackMenu extends JPanel {
         menuBox.add(popPanel);
 
         // Random button properties
-        // randomButton = new JButton("Random");
-        // randomButton.setMinimumSize(new Dimension(150, 30));
-        // randomButton.setPreferredSize(randomButton.getMinimumSize());
+        randomButton = new JButton("Random");
+        randomButton.setMinimumSize(new Dimension(150, 30));
+        randomButton.setPreferredSize(randomButton.getMinimumSize());
+        randomButton.setToolTipText("run random pushes and pops until pressed again");
 
-        // JPanel randomPanel = new JPanel();
-        // randomPanel.setLayout(new FlowLayout());
-        // //randomPanel.add(randomButton);
-        // randomPanel.setBackground(Color.lightGray);
-        // menuBox.add(randomPanel);
+        JPanel randomPanel = new JPanel();
+        randomPanel.setLayout(new FlowLayout());
+        randomPanel.add(randomButton);
+        randomPanel.setBackground(Color.lightGray);
+        menuBox.add(randomPanel);
 
         // Undo button properties
         undoButton = new JButton("Undo");
@@ -111,6 +140,17 @@ public class StackMenu extends JPanel {
         undoPanel.setBackground(Color.lightGray);
         menuBox.add(undoPanel);
 
+        // Redo button properties
+        redoButton = new JButton("Redo");
+        redoButton.setMinimumSize(new Dimension(150, 30));
+        redoButton.setPreferredSize(redoButton.getMinimumSize());
+
+        JPanel redoPanel = new JPanel();
+        redoPanel.setLayout(new FlowLayout());
+        redoPanel.add(redoButton);
+        redoPanel.setBackground(Color.lightGray);
+        menuBox.add(redoPanel);
+
         // Reset button properties
         resetButton = new JButton("Reset");
         resetButton.setMinimumSize(new Dimension(150, 30));
@@ -122,6 +162,16 @@ public class StackMenu extends JPanel {
         resetPanel.setBackground(Color.lightGray);
         menuBox.add(resetPanel);
 
+        // Scrolls the stack view back to the top element
+        jumpTopButton = new JButton("Jump to Top");
+        jumpTopButton.setMinimumSize(new Dimension(150, 30));
+        jumpTopButton.setPreferredSize(jumpTopButton.getMinimumSize());
+
+        JPanel jumpPanel = new JPanel(new FlowLayout());
+        jumpPanel.add(jumpTopButton);
+        jumpPanel.setBackground(Color.lightGray);
+        menuBox.add(jumpPanel);
+
         JPanel settingsPanel = new JPanel(new FlowLayout());
         settingsPanel.setBackground(Color.lightGray);
         settingsBtn = new JButton("Change Settings");
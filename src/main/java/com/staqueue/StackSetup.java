@@ -11,13 +11,16 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Font;
+import java.text.NumberFormat;
 import javax.swing.Box;
 import javax.swing.ButtonGroup;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
+import javax.swing.JFormattedTextField;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.text.NumberFormatter;
 
 /**
  *
@@ -25,13 +28,21 @@ import javax.swing.JPanel;
  */
 public class StackSetup extends JPanel {
 
+    public static final int MAX_STATIC_CAPACITY = 100_000_000;
+
     public boolean isDynamicStack;
+    public boolean isOffHeapStack;
+    public int staticCapacity;
     public int numberOfStacks;
     public JLabel stackMessage;
     public JPanel stackMessagePanel;
     public JButton createStackButton;
+    public JButton contentionButton;
     public JCheckBox dynamicStackYes;
     public JCheckBox dynamicStackNo;
+    public JCheckBox offHeapStackYes;
+    public JCheckBox offHeapStackNo;
+    public JFormattedTextField staticCapacityText;
     public JComboBox stackNumberComboBox;
 
     public StackSetup() {
@@ -39,6 +50,8 @@ public class StackSetup extends JPanel {
         super.setBackground(Color.BLACK);
 
         isDynamicStack = true;
+        isOffHeapStack = false;
+        staticCapacity = StackDisplay.DEFAULT_STATIC_CAPACITY;
         numberOfStacks = 1;
 
         JPanel stackPanel = new JPanel();
@@ -95,10 +108,72 @@ public class StackSetup extends JPanel {
 
         verticalBox.add(Box.createRigidArea(new Dimension(0, 10)));
 
+        // Off-heap storage (memory-mapped temp file), only for dynamic stacks
+        Box offHeapBox = Box.createHorizontalBox();
+
+        JLabel offHeapStackLabel = new JLabel("Off-heap Storage :  ");
+        offHeapStackLabel.setFont(new Font("Baskerville Old Face", Font.PLAIN, 28));
+        offHeapStackLabel.setForeground(Color.WHITE);
+
+        offHeapStackYes = new JCheckBox("Yes");
+        offHeapStackNo = new JCheckBox("No");
+
+        ButtonGroup offHeapStackBtnGroup = new ButtonGroup();
+        offHeapStackBtnGroup.add(offHeapStackYes);
+        offHeapStackBtnGroup.add(offHeapStackNo);
+
+        offHeapStackYes.setSelected(false);
+        offHeapStackNo.setSelected(true);
+
+        dynamicStackYes.addItemListener(e -> {
+            offHeapStackYes.setEnabled(dynamicStackYes.isSelected());
+            if (!dynamicStackYes.isSelected()) {
+                offHeapStackNo.setSelected(true);
+            }
+        });
+
+        offHeapBox.add(offHeapStackLabel);
+        offHeapBox.add(offHeapStackYes);
+        offHeapBox.add(offHeapStackNo);
+
+        verticalBox.add(offHeapBox);
+
+        verticalBox.add(Box.createRigidArea(new Dimension(0, 10)));
+
+        // Number of cells of a static stack, only for static stacks
+        Box capacityBox = Box.createHorizontalBox();
+
+        JLabel staticCapacityLabel = new JLabel("Static Capacity :  ");
+        staticCapacityLabel.setFont(new Font("Baskerville Old Face", Font.PLAIN, 28));
+        staticCapacityLabel.setForeground(Color.WHITE);
+
+        NumberFormatter capacityFormatter = new NumberFormatter(NumberFormat.getInstance());
+        capacityFormatter.setValueClass(Integer.class);
+        capacityFormatter.setMinimum(1);
+        capacityFormatter.setMaximum(MAX_STATIC_CAPACITY);
+        staticCapacityText = new JFormattedTextField(capacityFormatter);
+        staticCapacityText.setValue(StackDisplay.DEFAULT_STATIC_CAPACITY);
+        staticCapacityText.setMaximumSize(new Dimension(150, 30));
+        staticCapacityText.setToolTipText("number of cells, up to " + MAX_STATIC_CAPACITY);
+        staticCapacityText.setEnabled(false);
+
+        dynamicStackNo.addItemListener(e -> staticCapacityText.setEnabled(dynamicStackNo.isSelected()));
+
+        capacityBox.add(staticCapacityLabel);
+        capacityBox.add(staticCapacityText);
+
+        verticalBox.add(capacityBox);
+
+        verticalBox.add(Box.createRigidArea(new Dimension(0, 10)));
+
         createStackButton = new JButton("Create Stack");
         createStackButton.setPreferredSize(new Dimension(150, 40));
+        contentionButton = new JButton("Contention Mode");
+        contentionButton.setPreferredSize(new Dimension(150, 40));
+        contentionButton.setToolTipText("many threads on one lock-free stack");
         JPanel buttonPanel = new JPanel();
         buttonPanel.add(createStackButton);
+        buttonPanel.add(contentionButton);
 
         verticalBox.add(buttonPanel);
         verticalBox.add(Box.createRigidArea(new Dimension(0, 100)));
@@ -115,10 +190,15 @@ public class StackSetup extends JPanel {
     public void reset() {
 
         isDynamicStack = true;
+        isOffHeapStack = false;
         numberOfStacks = 1;
 
         dynamicStackYes.setSelected(true);
         dynamicStackNo.setSelected(false);
+        offHeapStackYes.setSelected(false);
+        offHeapStackNo.setSelected(true);
+        staticCapacity = StackDisplay.DEFAULT_STATIC_CAPACITY;
+        staticCapacityText.setValue(staticCapacity);
     }
 
 }
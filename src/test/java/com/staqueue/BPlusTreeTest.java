@@ -0,0 +1,160 @@
+package com.staqueue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BPlusTree under random inserts and deletes, checked against a TreeSet
+ * after every one: key counts per node, separators routing to the right
+ * children, parent links, leaves at one depth, the leaf chain both ways,
+ * and range().
+ */
+class BPlusTreeTest {
+
+    @Test
+    void fanout3() {
+        run(3, 20_000, 2_000);
+    }
+
+    @Test
+    void fanout4() {
+        run(4, 20_000, 2_000);
+    }
+
+    @Test
+    void fanout256() {
+        run(256, 20_000, 2_000);
+    }
+
+    // Enough keys for three levels at the widest fanout, checked less often
+    @Test
+    void fanout256ThreeLevels() {
+        BPlusTree tree = new BPlusTree(256);
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random rnd = new Random(5);
+        for (int i = 0; i < 60_000; i++) {
+            int k = rnd.nextInt(200_000);
+            assertEquals(expected.add(k), tree.insert(k));
+            if (i % 997 == 0)
+                check(tree, expected, rnd);
+        }
+        assertEquals(3, tree.height());
+        check(tree, expected, rnd);
+        for (int i = 0; i < 60_000; i++) {
+            int k = rnd.nextInt(200_000);
+            assertEquals(expected.remove(k), tree.delete(k));
+            if (i % 997 == 0)
+                check(tree, expected, rnd);
+        }
+        for (int k : new ArrayList<>(expected))
+            assertTrue(tree.delete(k));
+        expected.clear();
+        check(tree, expected, rnd);
+        assertEquals(1, tree.height());
+    }
+
+    @Test
+    void rejectsFanoutOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new BPlusTree(BPlusTree.MIN_FANOUT - 1));
+        assertThrows(IllegalArgumentException.class, () -> new BPlusTree(BPlusTree.MAX_FANOUT + 1));
+    }
+
+    private static void run(int fanout, int ops, int keyRange) {
+        BPlusTree tree = new BPlusTree(fanout);
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random rnd = new Random(fanout);
+        for (int i = 0; i < ops; i++) {
+            int k = rnd.nextInt(keyRange);
+            // grow for the first half, then shrink, so merges run down to
+            // an empty tree as well as splits up
+            boolean insert = rnd.nextInt(10) < (i < ops / 2 ? 7 : 3);
+            if (insert)
+                assertEquals(expected.add(k), tree.insert(k), "insert " + k);
+            else
+                assertEquals(expected.remove(k), tree.delete(k), "delete " + k);
+            check(tree, expected, rnd);
+        }
+        tree.clear();
+        expected.clear();
+        check(tree, expected, rnd);
+    }
+
+    private static void check(BPlusTree tree, TreeSet<Integer> expected, Random rnd) {
+        assertEquals(expected.size(), tree.size());
+        int[] keys = toArray(expected);
+        assertArrayEquals(keys, tree.keys());
+
+        BPlusTree.Node root = tree.root();
+        assertNull(root.parent, "root has a parent");
+        List<BPlusTree.Node> leaves = new ArrayList<>();
+        int maxKeys = tree.fanout() - 1, minKeys = (tree.fanout() - 1) / 2;
+        node(root, true, Long.MIN_VALUE, Long.MAX_VALUE, 1, tree.height(), maxKeys, minKeys, leaves);
+
+        // the leaf chain runs through the leaves in tree order, both ways
+        BPlusTree.Node prev = null;
+        int at = 0;
+        for (BPlusTree.Node leaf = tree.firstLeaf(); leaf != null; leaf = leaf.next) {
+            assertTrue(at < leaves.size() && leaf == leaves.get(at), "leaf chain out of tree order");
+            assertTrue(leaf.prev == prev, "bad prev link");
+            prev = leaf;
+            at++;
+        }
+        assertEquals(leaves.size(), at, "leaf chain stops early");
+
+        for (int i = 0; i < 3; i++) {
+            int lo = rnd.nextInt(keys.length == 0 ? 10 : keys[keys.length - 1] + 10) - 5;
+            int hi = lo + rnd.nextInt(300);
+            int[] got = new int[tree.size()];
+            int n = tree.range(lo, hi, got);
+            assertArrayEquals(toArray(expected.subSet(lo, true, hi, true)), java.util.Arrays.copyOf(got, n),
+                    "range " + lo + ".." + hi);
+            assertEquals(n, tree.range(lo, hi, null));
+        }
+    }
+
+    // Every key of n lies in [lo, hi); leaves are collected left to right
+    private static void node(BPlusTree.Node n, boolean isRoot, long lo, long hi, int depth, int height,
+            int maxKeys, int minKeys, List<BPlusTree.Node> leaves) {
+        assertTrue(n.count <= maxKeys, "node over full: " + n.count);
+        if (!isRoot)
+            assertTrue(n.count >= minKeys, "node under full: " + n.count);
+        for (int i = 0; i < n.count; i++) {
+            assertTrue(lo <= n.keys[i] && n.keys[i] < hi, "key " + n.keys[i] + " outside its separators");
+            if (i > 0)
+                assertTrue(n.keys[i - 1] < n.keys[i], "keys out of order");
+        }
+        if (n.isLeaf()) {
+            assertEquals(height, depth, "leaf at the wrong depth");
+            leaves.add(n);
+            return;
+        }
+        assertTrue(n.count >= 1, "internal node without a key");
+        for (int i = 0; i <= n.count; i++) {
+            BPlusTree.Node child = n.children[i];
+            assertTrue(child != null && child.parent == n, "bad parent link");
+            long childLo = i == 0 ? lo : n.keys[i - 1];
+            long childHi = i == n.count ? hi : n.keys[i];
+            node(child, false, childLo, childHi, depth + 1, height, maxKeys, minKeys, leaves);
+        }
+        for (int i = n.count + 1; i < n.children.length; i++)
+            assertNull(n.children[i], "stale child past the count");
+    }
+
+    private static int[] toArray(java.util.Collection<Integer> keys) {
+        int[] out = new int[keys.size()];
+        int i = 0;
+        for (int k : keys)
+            out[i++] = k;
+        return out;
+    }
+}
@@ -0,0 +1,97 @@
+package com.staqueue;
+
+import java.util.Random;
+
+/**
+ * Point and range queries on the B-tree tab's model (BPlusTree) against the
+ * binary search tree (IntBst) holding the same N keys.
+ *
+ * Keys are scattered over the whole int range, so the binary tree stays
+ * about 2.5 log2 N levels deep rather than degenerating. Each run times the
+ * build, QUERIES lookups of random present keys, and QUERIES range counts of
+ * about SPAN keys each, reported per query. Sizes are the arguments, 1M and
+ * 10M by default:
+ *
+ * java -Xmx4g -cp target/classes:target/test-classes com.staqueue.BTreeBenchmark 1000000 10000000
+ */
+public class BTreeBenchmark {
+
+    private static final int[] FANOUTS = { 4, 16, 64, 256 };
+    private static final int QUERIES = 1_000_000;
+    private static final int SPAN = 100; // keys per range scan, on average
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[] { 1_000_000, 10_000_000 } : new int[args.length];
+        for (int i = 0; i < args.length; i++)
+            sizes[i] = Integer.parseInt(args[i].replace("_", ""));
+        run(200_000, false); // warm up
+        for (int n : sizes)
+            run(n, true);
+    }
+
+    private static void run(int n, boolean print) {
+        int[] probes = new int[QUERIES];
+        Random rnd = new Random(7);
+        for (int i = 0; i < QUERIES; i++)
+            probes[i] = scatter(rnd.nextInt(n));
+        long width = SPAN * (1L << 32) / n; // keys are spread evenly over 2^32 values
+        if (print)
+            System.out.printf("%,d keys%n", n);
+
+        IntBst bst = new IntBst(n);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n; i++)
+            bst.insert(scatter(i));
+        long t1 = System.nanoTime();
+        long found = 0;
+        for (int k : probes)
+            found += bst.contains(k) ? 1 : 0;
+        long t2 = System.nanoTime();
+        long scanned = 0;
+        for (int k : probes)
+            scanned += bst.range(k, (int) Math.min(Integer.MAX_VALUE, k + width), null);
+        long t3 = System.nanoTime();
+        check(found, scanned, n);
+        if (print)
+            report("binary (height " + bst.height() + ")", t1 - t0, t2 - t1, t3 - t2, scanned);
+        bst = null;
+
+        for (int f : FANOUTS) {
+            BPlusTree tree = new BPlusTree(f);
+            t0 = System.nanoTime();
+            for (int i = 0; i < n; i++)
+                tree.insert(scatter(i));
+            t1 = System.nanoTime();
+            found = 0;
+            for (int k : probes)
+                found += tree.contains(k) ? 1 : 0;
+            t2 = System.nanoTime();
+            long scannedB = 0;
+            for (int k : probes)
+                scannedB += tree.range(k, (int) Math.min(Integer.MAX_VALUE, k + width), null);
+            t3 = System.nanoTime();
+            check(found, scannedB, n);
+            if (scannedB != scanned)
+                throw new AssertionError("fanout " + f + " scanned " + scannedB + " keys, the binary tree " + scanned);
+            if (print)
+                report("fanout " + f + " (height " + tree.height() + ")", t1 - t0, t2 - t1, t3 - t2, scannedB);
+        }
+    }
+
+    private static void check(long found, long scanned, int n) {
+        if (found != QUERIES)
+            throw new AssertionError("found " + found + " of " + QUERIES + " keys at n = " + n);
+        if (scanned < QUERIES)
+            throw new AssertionError("range scans found only " + scanned + " keys at n = " + n);
+    }
+
+    private static void report(String name, long build, long lookups, long scans, long scanned) {
+        System.out.printf("  %-22s build %7.0f ms  lookup %6.0f ns  range %7.0f ns (%.0f keys)%n", name, build / 1e6,
+                (double) lookups / QUERIES, (double) scans / QUERIES, (double) scanned / QUERIES);
+    }
+
+    // Distinct for distinct i, in no useful order
+    private static int scatter(int i) {
+        return i * 0x9E3779B1;
+    }
+}
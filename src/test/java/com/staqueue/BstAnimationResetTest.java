@@ -0,0 +1,146 @@
+package com.staqueue;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.AbstractButton;
+import javax.swing.JSlider;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * The BST tab's Clear, New Tree and Insert while an animated red-black
+ * insert is still rebalancing, driven through the buttons on the event
+ * thread. Most of it steps by hand, so the timer never gets a tick in.
+ */
+class BstAnimationResetTest {
+
+    @Test
+    void clearDropsPendingRebalancing() throws Exception {
+        onEdt(() -> {
+            BSTVisualizerPanel panel = pendingRedBlackFix();
+            click(panel, "Clear");
+            click(panel, "Step"); // nothing left to step through
+            assertEquals(Collections.emptyList(), panel.inorderList());
+            insert(panel, 5);
+            assertEquals(Arrays.asList(5), panel.inorderList());
+        });
+    }
+
+    @Test
+    void newTreeDropsPendingRebalancing() throws Exception {
+        onEdt(() -> {
+            BSTVisualizerPanel panel = pendingRedBlackFix();
+            click(panel, "New Tree");
+            List<Integer> filled = panel.inorderList();
+            click(panel, "Step");
+            assertEquals(filled, panel.inorderList());
+            insert(panel, 1000);
+            filled.add(1000);
+            assertEquals(filled, panel.inorderList());
+        });
+    }
+
+    // The running animation used to finish the old fixup, stop, and never
+    // get to the new insert
+    @Test
+    void insertFinishesPendingRebalancing() throws Exception {
+        BSTVisualizerPanel[] panel = new BSTVisualizerPanel[1];
+        onEdt(() -> {
+            panel[0] = pendingRedBlackFix();
+            JSlider speed = find(panel[0], JSlider.class, c -> true);
+            speed.setValue(speed.getMinimum());
+            valueField(panel[0]).setText("40");
+            click(panel[0], "Insert");
+        });
+        AtomicReference<List<Integer>> keys = new AtomicReference<>();
+        for (int i = 0; i < 100 && (keys.get() == null || keys.get().size() < 4); i++) {
+            Thread.sleep(50);
+            onEdt(() -> keys.set(panel[0].inorderList()));
+        }
+        assertEquals(Arrays.asList(10, 20, 30, 40), keys.get());
+        onEdt(() -> {
+            click(panel[0], "Step"); // stops the timer
+            assertEquals(Arrays.asList(20, 10, 30, 40), panel[0].preorderList());
+        });
+    }
+
+    // 10 and 20 in a red-black tree, then an animated insert of 30 stepped
+    // up to where the rotation that fixes the red-red pair is still to come
+    private static BSTVisualizerPanel pendingRedBlackFix() {
+        BSTVisualizerPanel panel = new BSTVisualizerPanel();
+        panel.setBalance(BSTVisualizerPanel.Balance.RED_BLACK);
+        panel.insertRaw(10);
+        panel.insertRaw(20);
+        valueField(panel).setText("30");
+        click(panel, "Insert");
+        for (int i = 0; i < 3; i++) // past 10 and 20, then the attach
+            click(panel, "Step");
+        assertEquals(Arrays.asList(10, 20, 30), panel.preorderList());
+        return panel;
+    }
+
+    private static void insert(BSTVisualizerPanel panel, int key) {
+        valueField(panel).setText(Integer.toString(key));
+        click(panel, "Insert");
+        for (int i = 0; i < 40; i++)
+            click(panel, "Step");
+    }
+
+    private static void click(Container panel, String text) {
+        AbstractButton b = find(panel, AbstractButton.class, c -> text.equals(((AbstractButton) c).getText()));
+        assertNotNull(b, text);
+        b.doClick();
+    }
+
+    // The field next to the Insert button
+    private static JTextField valueField(Container panel) {
+        AbstractButton insert = find(panel, AbstractButton.class, c -> "Insert".equals(((AbstractButton) c).getText()));
+        JTextField field = null;
+        for (Component c : insert.getParent().getComponents()) {
+            if (c == insert)
+                break;
+            if (c instanceof JTextField)
+                field = (JTextField) c;
+        }
+        assertNotNull(field, "value field");
+        return field;
+    }
+
+    private static <T> T find(Container in, Class<T> type, java.util.function.Predicate<Component> match) {
+        for (Component c : in.getComponents()) {
+            if (type.isInstance(c) && match.test(c))
+                return type.cast(c);
+            if (c instanceof Container) {
+                T found = find((Container) c, type, match);
+                if (found != null)
+                    return found;
+            }
+        }
+        return null;
+    }
+
+    private static void onEdt(Runnable body) throws Exception {
+        Throwable[] failure = new Throwable[1];
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                body.run();
+            } catch (Throwable t) {
+                failure[0] = t;
+            }
+        });
+        if (failure[0] instanceof Error)
+            throw (Error) failure[0];
+        if (failure[0] != null)
+            throw new AssertionError(failure[0]);
+    }
+}
@@ -0,0 +1,163 @@
+package com.staqueue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The BST tab's AVL, red-black and treap fixups, one step at a time as the
+ * animation runs them.
+ *
+ * After every step the tree must still be a search tree with consistent
+ * parent links, sizes and heights; the mode's own invariant (AVL balance,
+ * red-black colors, treap heap order) only has to hold again once the
+ * fixup is finished.
+ */
+class BstRebalanceInvariantTest {
+
+    private static final int KEYS = 300;
+
+    @Test
+    void avl() {
+        run(BSTVisualizerPanel.Balance.AVL);
+    }
+
+    @Test
+    void redBlack() {
+        run(BSTVisualizerPanel.Balance.RED_BLACK);
+    }
+
+    @Test
+    void treap() {
+        run(BSTVisualizerPanel.Balance.TREAP);
+    }
+
+    private static void run(BSTVisualizerPanel.Balance mode) {
+        Random rnd = new Random(42);
+        List<Integer> shuffled = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++)
+            shuffled.add(i * 7);
+        Collections.shuffle(shuffled, rnd);
+        List<Integer> sorted = new ArrayList<>(shuffled);
+        Collections.sort(sorted);
+
+        // random and sorted input; sorted takes the append fast path
+        for (List<Integer> input : java.util.Arrays.asList(shuffled, sorted)) {
+            BSTVisualizerPanel panel = new BSTVisualizerPanel();
+            panel.setBalance(mode);
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int k : input) {
+                panel.attach(k);
+                expected.add(k);
+                finishFix(panel, mode);
+                checkDone(panel, mode, expected);
+            }
+            List<Integer> order = new ArrayList<>(input);
+            Collections.shuffle(order, rnd);
+            for (int k : order.subList(0, KEYS / 2)) {
+                assertTrue(panel.detach(k), "delete " + k);
+                expected.remove(k);
+                finishFix(panel, mode);
+                checkDone(panel, mode, expected);
+            }
+            assertFalse(panel.detach(-1));
+        }
+    }
+
+    private static void finishFix(BSTVisualizerPanel panel, BSTVisualizerPanel.Balance mode) {
+        int steps = 0;
+        do {
+            checkShape(panel.root());
+            assertTrue(++steps <= 4 * KEYS, mode + " fixup does not finish");
+        } while (panel.fixStep());
+        checkShape(panel.root());
+    }
+
+    // Holds between any two steps
+    private static void checkShape(BSTVisualizerPanel.Node root) {
+        if (root != null)
+            assertNull(root.parent, "root has a parent");
+        shape(root, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    private static void shape(BSTVisualizerPanel.Node n, long lo, long hi) {
+        if (n == null)
+            return;
+        assertTrue(lo < n.key && n.key < hi, "key " + n.key + " out of order");
+        for (BSTVisualizerPanel.Node child : new BSTVisualizerPanel.Node[] { n.left, n.right })
+            if (child != null)
+                assertTrue(child.parent == n, "bad parent link at " + child.key);
+        shape(n.left, lo, n.key);
+        shape(n.right, n.key, hi);
+        assertEquals(1 + size(n.left) + size(n.right), n.size, "size at " + n.key);
+        assertEquals(1 + Math.max(height(n.left), height(n.right)), n.height, "height at " + n.key);
+    }
+
+    // Holds once a fixup is finished
+    private static void checkDone(BSTVisualizerPanel panel, BSTVisualizerPanel.Balance mode, TreeSet<Integer> expected) {
+        assertEquals(new ArrayList<>(expected), panel.inorderList());
+        BSTVisualizerPanel.Node root = panel.root();
+        switch (mode) {
+            case AVL:
+                avl(root);
+                break;
+            case RED_BLACK:
+                assertFalse(root != null && root.red, "red root");
+                blackHeight(root);
+                break;
+            case TREAP:
+                heap(root);
+                break;
+            default:
+        }
+    }
+
+    private static void avl(BSTVisualizerPanel.Node n) {
+        if (n == null)
+            return;
+        assertTrue(Math.abs(height(n.left) - height(n.right)) <= 1, "unbalanced at " + n.key);
+        avl(n.left);
+        avl(n.right);
+    }
+
+    private static int blackHeight(BSTVisualizerPanel.Node n) {
+        if (n == null)
+            return 1;
+        if (n.red)
+            assertFalse(isRed(n.left) || isRed(n.right), "red child of red " + n.key);
+        int left = blackHeight(n.left), right = blackHeight(n.right);
+        assertEquals(left, right, "black heights differ at " + n.key);
+        return left + (n.red ? 0 : 1);
+    }
+
+    private static void heap(BSTVisualizerPanel.Node n) {
+        if (n == null)
+            return;
+        for (BSTVisualizerPanel.Node child : new BSTVisualizerPanel.Node[] { n.left, n.right })
+            if (child != null)
+                assertTrue(child.priority <= n.priority, "heap order broken below " + n.key);
+        heap(n.left);
+        heap(n.right);
+    }
+
+    private static boolean isRed(BSTVisualizerPanel.Node n) {
+        return n != null && n.red;
+    }
+
+    private static int size(BSTVisualizerPanel.Node n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static int height(BSTVisualizerPanel.Node n) {
+        return n == null ? 0 : n.height;
+    }
+}
@@ -0,0 +1,118 @@
+package com.staqueue;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+import javax.swing.SwingUtilities;
+
+/**
+ * Times the BST tab's engine on degenerate and random input: inserting N
+ * keys, laying the tree out, an in-order traversal, one paint of the whole
+ * tree fitted to the canvas, the mean of RANGES range queries of RANGE_KEYS
+ * keys each, which walk one path plus the keys they report, and then the
+ * mean of EDITS edits (a random key deleted and put back) each followed by
+ * a layout, which only lays out the paths the edit changed.
+ *
+ * Sorted input builds a single spine N levels deep. The recursive engine
+ * this replaced overflowed the thread stack laying out 10,000 sorted keys;
+ * every step here must finish for a million. Runs headless:
+ *
+ * java -Djava.awt.headless=true -cp target/classes:target/test-classes com.staqueue.BstSortedInsertBenchmark
+ */
+public class BstSortedInsertBenchmark {
+
+    private static final int WIDTH = 1400, HEIGHT = 900;
+    private static final int[] SIZES = { 10_000, 100_000, 1_000_000 };
+    private static final String[] ORDERS = { "ascending", "descending", "random" };
+    private static final int EDITS = 20;
+    private static final int RANGES = 100, RANGE_KEYS = 100;
+
+    public static void main(String[] args) throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            run(SIZES[0], ORDERS[0], false); // warm up
+            for (int n : SIZES) {
+                for (String order : ORDERS)
+                    run(n, order, true);
+            }
+        });
+        System.exit(0);
+    }
+
+    private static void run(int n, String order, boolean print) {
+        BSTVisualizerPanel panel = new BSTVisualizerPanel();
+        panel.setSize(WIDTH, HEIGHT);
+        layoutTree(panel);
+        int[] keys = keys(n, order);
+
+        long t0 = System.nanoTime();
+        for (int k : keys)
+            panel.insertRaw(k);
+        long t1 = System.nanoTime();
+        panel.layoutTree();
+        long t2 = System.nanoTime();
+        List<Integer> inorder = panel.inorderList();
+        long t3 = System.nanoTime();
+        panel.fitView();
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        panel.paint(g);
+        g.dispose();
+        long t4 = System.nanoTime();
+        Random random = new Random(2);
+        long ranged = 0;
+        for (int i = 0; i < RANGES; i++) {
+            int lo = random.nextInt(n);
+            ranged += panel.rangeList(lo, lo + RANGE_KEYS - 1).size();
+        }
+        long t5 = System.nanoTime();
+        for (int i = 0; i < EDITS; i++) {
+            int k = keys[random.nextInt(n)];
+            panel.deleteRaw(k);
+            panel.layoutTree();
+            panel.insertRaw(k);
+            panel.layoutTree();
+        }
+        long t6 = System.nanoTime();
+
+        if (inorder.size() != n)
+            throw new AssertionError(order + " " + n + ": in-order has " + inorder.size() + " keys");
+        if (ranged == 0)
+            throw new AssertionError(order + " " + n + ": range queries found no keys");
+        if (print)
+            System.out.printf("%,9d %-10s  insert %8.1f ms   layout %7.1f ms   in-order %7.1f ms   fit paint %7.1f ms"
+                    + "   range %7.3f ms   edit+layout %8.3f ms%n", n, order, ms(t1 - t0), ms(t2 - t1), ms(t3 - t2),
+                    ms(t4 - t3), ms(t5 - t4) / RANGES, ms(t6 - t5) / (2 * EDITS));
+    }
+
+    private static int[] keys(int n, String order) {
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++)
+            keys[i] = order.equals("descending") ? n - i : i;
+        if (order.equals("random")) {
+            Random random = new Random(1);
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1), t = keys[i];
+                keys[i] = keys[j];
+                keys[j] = t;
+            }
+        }
+        return keys;
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+    // Components without a peer never validate themselves, so the first
+    // layout is done by hand
+    private static void layoutTree(Container c) {
+        c.doLayout();
+        for (Component child : c.getComponents()) {
+            if (child instanceof Container)
+                layoutTree((Container) child);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.staqueue;
+
+/**
+ * Compares IntBst, which keeps its nodes in int arrays, with the same tree
+ * built from one object per node as the BST tab does.
+ *
+ * For each size N: insert N distinct keys in scattered order, look up N
+ * keys, delete every other key and insert as many new ones (IntBst reuses
+ * the freed slots), an in-order walk, and a layout pass. Heap is measured
+ * after a GC with the full tree live. Sizes are the arguments, 1M and 10M
+ * by default; 100M takes about 3 GB for IntBst and far more for the
+ * objects, so give it a large heap:
+ *
+ * java -Xmx12g -cp target/classes:target/test-classes com.staqueue.BstStorageBenchmark 1000000 10000000 100000000
+ */
+public class BstStorageBenchmark {
+
+    private static final int ROUNDS = 3; // best of
+
+    private static volatile Object live; // keeps the tree reachable while the heap is measured
+
+    // The pointer version: same algorithms as IntBst over node objects
+    private static final class PointerBst {
+        static final class Node {
+            int key, x, y;
+            Node left, right, parent;
+
+            Node(int key, Node parent) {
+                this.key = key;
+                this.parent = parent;
+            }
+        }
+
+        Node root, lowest, highest;
+        int size;
+        private Node[] stack = new Node[64];
+
+        boolean insert(int k) {
+            if (root == null) {
+                root = lowest = highest = new Node(k, null);
+                size++;
+                return true;
+            }
+            if (k > highest.key) {
+                highest = highest.right = new Node(k, highest);
+                size++;
+                return true;
+            }
+            if (k < lowest.key) {
+                lowest = lowest.left = new Node(k, lowest);
+                size++;
+                return true;
+            }
+            Node cur = root;
+            while (true) {
+                if (k == cur.key)
+                    return false;
+                Node next = k < cur.key ? cur.left : cur.right;
+                if (next == null)
+                    break;
+                cur = next;
+            }
+            Node n = new Node(k, cur);
+            if (k < cur.key)
+                cur.left = n;
+            else
+                cur.right = n;
+            size++;
+            return true;
+        }
+
+        Node find(int k) {
+            Node n = root;
+            while (n != null && n.key != k)
+                n = k < n.key ? n.left : n.right;
+            return n;
+        }
+
+        boolean delete(int k) {
+            Node n = find(k);
+            if (n == null)
+                return false;
+            if (n.left != null && n.right != null) {
+                Node succ = n.right;
+                while (succ.left != null)
+                    succ = succ.left;
+                n.key = succ.key;
+                n = succ;
+            }
+            Node child = n.left != null ? n.left : n.right;
+            Node p = n.parent;
+            if (p == null)
+                root = child;
+            else if (p.left == n)
+                p.left = child;
+            else
+                p.right = child;
+            if (child != null)
+                child.parent = p;
+            if (n == lowest) {
+                lowest = child != null ? child : p;
+                while (child != null && lowest.left != null)
+                    lowest = lowest.left;
+            }
+            if (n == highest) {
+                highest = child != null ? child : p;
+                while (child != null && highest.right != null)
+                    highest = highest.right;
+            }
+            size--;
+            return true;
+        }
+
+        int[] inorder() {
+            int[] out = new int[size];
+            int count = 0, depth = 0;
+            Node n = root;
+            while (n != null || depth > 0) {
+                while (n != null) {
+                    push(depth++, n);
+                    n = n.left;
+                }
+                n = stack[--depth];
+                out[count++] = n.key;
+                n = n.right;
+            }
+            return out;
+        }
+
+        void layout(int leftX, int slot, int top, int level) {
+            int index = 0, depth = 0;
+            Node n = root;
+            if (n != null)
+                n.y = top;
+            while (n != null || depth > 0) {
+                while (n != null) {
+                    push(depth++, n);
+                    if (n.left != null)
+                        n.left.y = n.y + level;
+                    n = n.left;
+                }
+                n = stack[--depth];
+                n.x = leftX + index++ * slot;
+                if (n.right != null)
+                    n.right.y = n.y + level;
+                n = n.right;
+            }
+        }
+
+        private void push(int depth, Node n) {
+            if (depth == stack.length)
+                stack = java.util.Arrays.copyOf(stack, 2 * depth);
+            stack[depth] = n;
+        }
+    }
+
+    private interface Tree {
+        boolean insert(int k);
+
+        boolean contains(int k);
+
+        boolean delete(int k);
+
+        int[] inorder();
+
+        void layout();
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[] { 1_000_000, 10_000_000 } : new int[args.length];
+        for (int i = 0; i < args.length; i++)
+            sizes[i] = Integer.parseInt(args[i].replace("_", ""));
+        run(100_000, false); // warm up
+        for (int n : sizes)
+            run(n, true);
+    }
+
+    private static void run(int n, boolean print) {
+        for (String kind : new String[] { "objects", "int arrays" }) {
+            long[] best = new long[5];
+            java.util.Arrays.fill(best, Long.MAX_VALUE);
+            long heap = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                Tree tree = kind.equals("objects") ? pointer() : arrays(n);
+                long t0 = System.nanoTime();
+                for (int i = 0; i < n; i++)
+                    tree.insert(scatter(i));
+                long t1 = System.nanoTime();
+                int found = 0;
+                for (int i = 0; i < n; i++)
+                    found += tree.contains(scatter((int) (i * 7919L % n))) ? 1 : 0;
+                long t2 = System.nanoTime();
+                for (int i = 0; i < n; i += 2)
+                    tree.delete(scatter(i));
+                for (int i = 0; i < n; i += 2)
+                    tree.insert(scatter(n + i));
+                long t3 = System.nanoTime();
+                int[] keys = tree.inorder();
+                long t4 = System.nanoTime();
+                tree.layout();
+                long t5 = System.nanoTime();
+                if (found != n || keys.length != n)
+                    throw new AssertionError(kind + ": found " + found + ", in-order " + keys.length + " of " + n);
+                long[] t = { t1 - t0, t2 - t1, t3 - t2, t4 - t3, t5 - t4 };
+                for (int i = 0; i < t.length; i++)
+                    best[i] = Math.min(best[i], t[i]);
+                if (round == 0) {
+                    live = tree;
+                    heap = liveHeap();
+                    live = null;
+                }
+                keys = null;
+                tree = null;
+            }
+            if (print)
+                System.out.printf("%,12d %-10s  insert %8.0f ms  lookup %8.0f ms  delete+reinsert %8.0f ms"
+                        + "  in-order %6.0f ms  layout %6.0f ms  heap %,6d MB (%.0f B/key)%n", n, kind, ms(best[0]),
+                        ms(best[1]), ms(best[2]), ms(best[3]), ms(best[4]), heap >> 20, heap / (double) n);
+        }
+    }
+
+    // Distinct for distinct i, in no useful order
+    private static int scatter(int i) {
+        return i * 0x9E3779B1;
+    }
+
+    private static Tree pointer() {
+        PointerBst t = new PointerBst();
+        return new Tree() {
+            public boolean insert(int k) {
+                return t.insert(k);
+            }
+
+            public boolean contains(int k) {
+                return t.find(k) != null;
+            }
+
+            public boolean delete(int k) {
+                return t.delete(k);
+            }
+
+            public int[] inorder() {
+                return t.inorder();
+            }
+
+            public void layout() {
+                t.layout(40, 44, 60, 70);
+            }
+        };
+    }
+
+    private static Tree arrays(int n) {
+        IntBst t = new IntBst(16); // grown as it fills, like the objects
+        return new Tree() {
+            public boolean insert(int k) {
+                return t.insert(k);
+            }
+
+            public boolean contains(int k) {
+                return t.contains(k);
+            }
+
+            public boolean delete(int k) {
+                return t.delete(k);
+            }
+
+            public int[] inorder() {
+                return t.inorder();
+            }
+
+            public void layout() {
+                t.layout(40, 44, 60, 70);
+            }
+        };
+    }
+
+    private static long liveHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+}
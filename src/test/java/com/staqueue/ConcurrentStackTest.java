@@ -0,0 +1,83 @@
+package com.staqueue;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ConcurrentStack: LIFO order from one thread, the EMPTY sentinel, and many
+ * threads pushing and popping with elimination off and on.
+ */
+class ConcurrentStackTest {
+
+    @Test
+    void lifoFromOneThread() {
+        ConcurrentStack s = new ConcurrentStack(true);
+        assertEquals(ConcurrentStack.EMPTY, s.pop());
+        for (int i = 0; i < 100; i++)
+            s.push(i);
+        for (int i = 99; i >= 0; i--)
+            assertEquals(i, s.pop());
+        assertTrue(s.isEmpty());
+        assertEquals(ConcurrentStack.EMPTY, s.pop());
+    }
+
+    @Test
+    void emptyCannotBePushed() {
+        ConcurrentStack s = new ConcurrentStack(false);
+        assertThrows(IllegalArgumentException.class, () -> s.push(ConcurrentStack.EMPTY));
+        assertTrue(s.isEmpty());
+        s.push(Integer.MIN_VALUE + 1);
+        assertEquals(Integer.MIN_VALUE + 1, s.pop());
+    }
+
+    @Test
+    void threadsWithoutElimination() throws Exception {
+        hammer(false);
+    }
+
+    @Test
+    void threadsWithElimination() throws Exception {
+        hammer(true);
+    }
+
+    // Each thread pushes its own values and pops as often as it pushes; at
+    // the end every value was popped exactly once, by a thread or the drain
+    // below, and the counters agree
+    private static void hammer(boolean elimination) throws Exception {
+        final int threads = 8, perThread = 100_000;
+        ConcurrentStack s = new ConcurrentStack(elimination);
+        AtomicIntegerArray popped = new AtomicIntegerArray(threads * perThread);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int base = t * perThread;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    s.push(base + i);
+                    int v = s.pop();
+                    if (v != ConcurrentStack.EMPTY)
+                        popped.incrementAndGet(v);
+                }
+            });
+            workers[t].setDaemon(true);
+        }
+        for (Thread w : workers)
+            w.start();
+        for (Thread w : workers)
+            w.join(60_000);
+        for (int v; (v = s.pop()) != ConcurrentStack.EMPTY;)
+            popped.incrementAndGet(v);
+
+        assertEquals((long) threads * perThread, s.pushes.sum());
+        assertEquals(s.pushes.sum(), s.pops.sum());
+        for (int v = 0; v < popped.length(); v++)
+            assertEquals(1, popped.get(v), "value " + v);
+        assertTrue(s.casFailures.sum() <= s.casAttempts.sum());
+        if (!elimination)
+            assertEquals(0, s.eliminations.sum());
+    }
+}
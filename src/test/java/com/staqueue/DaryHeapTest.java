@@ -0,0 +1,101 @@
+package com.staqueue;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DaryHeap at arity 2, 4 and 8: heapify, polls in ascending order, mixed
+ * inserts and polls against a PriorityQueue, and rebuilding under a new
+ * arity.
+ */
+class DaryHeapTest {
+
+    private static final int[] ARITIES = { 2, 4, 8 };
+
+    @Test
+    void heapifyThenPollInOrder() {
+        Random rnd = new Random(1);
+        for (int d : ARITIES) {
+            for (int n : new int[] { 0, 1, 2, 9, 10_000 }) {
+                int[] src = new int[n + 3];
+                for (int i = 0; i < src.length; i++)
+                    src[i] = rnd.nextInt(n / 2 + 1); // plenty of duplicates
+                DaryHeap heap = new DaryHeap(d);
+                heap.heapify(src, 3, n); // skips the first three
+                assertEquals(n, heap.size());
+                checkOrder(heap);
+                // bottom-up heapify is linear: about d compares per node at most
+                assertTrue(heap.comparisons <= 2L * d * n, d + "-ary heapify took " + heap.comparisons);
+
+                int[] sorted = Arrays.copyOfRange(src, 3, src.length);
+                Arrays.sort(sorted);
+                int[] polled = new int[n];
+                for (int i = 0; i < n; i++)
+                    polled[i] = heap.poll();
+                assertArrayEquals(sorted, polled, d + "-ary, n = " + n);
+                assertTrue(heap.isEmpty());
+            }
+        }
+    }
+
+    @Test
+    void matchesPriorityQueue() {
+        Random rnd = new Random(2);
+        for (int d : ARITIES) {
+            DaryHeap heap = new DaryHeap(d);
+            PriorityQueue<Integer> expected = new PriorityQueue<>();
+            for (int op = 0; op < 50_000; op++) {
+                if (expected.isEmpty() || rnd.nextInt(3) > 0) {
+                    int v = rnd.nextInt(1000) - 500;
+                    heap.insert(v);
+                    expected.add(v);
+                } else {
+                    assertEquals((int) expected.peek(), heap.peek());
+                    assertEquals((int) expected.poll(), heap.poll());
+                }
+                assertEquals(expected.size(), heap.size());
+            }
+            checkOrder(heap);
+        }
+    }
+
+    @Test
+    void setArityRebuilds() {
+        Random rnd = new Random(3);
+        DaryHeap heap = new DaryHeap(2);
+        for (int i = 0; i < 5_000; i++)
+            heap.insert(rnd.nextInt());
+        for (int d : new int[] { 8, 4, 2, 8 }) {
+            heap.setArity(d);
+            assertEquals(d, heap.arity());
+            checkOrder(heap);
+        }
+        int last = Integer.MIN_VALUE;
+        while (!heap.isEmpty()) {
+            int v = heap.poll();
+            assertTrue(v >= last);
+            last = v;
+        }
+        assertThrows(IllegalArgumentException.class, () -> heap.setArity(3));
+        assertThrows(IllegalStateException.class, heap::poll);
+        assertThrows(IllegalStateException.class, heap::peek);
+    }
+
+    // No slot is smaller than its parent, and the parent and child slot
+    // arithmetic agree
+    private static void checkOrder(DaryHeap heap) {
+        for (int i = 1; i < heap.size(); i++) {
+            int p = heap.parent(i);
+            assertTrue(heap.firstChild(p) <= i && i < heap.firstChild(p) + heap.arity(), "slot math at " + i);
+            assertTrue(heap.get(p) <= heap.get(i), "slot " + i + " below its parent");
+        }
+    }
+}
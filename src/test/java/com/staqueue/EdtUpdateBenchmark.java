@@ -0,0 +1,173 @@
+package com.staqueue;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import javax.swing.RepaintManager;
+import javax.swing.SwingUtilities;
+
+/**
+ * Measures the event dispatch thread time of one Stack or Queue operation
+ * with a full revalidate of the tab and with the model-driven dirty-row
+ * repaint.
+ *
+ * Full revalidate: the operation plus updateUI() on the tab panel, which is
+ * how the frames used to refresh. Dirty rows: the operation alone, leaving
+ * the display to repaint the cells its model reported. Both run on the
+ * current, virtualized displays, so this isolates the cost of the refresh
+ * strategy; the old displays, with one component per element, are not
+ * measured. In both cases the time includes the layout of whatever was
+ * invalidated and the paint of every dirty rectangle, which a recording
+ * RepaintManager collects instead of queueing, so the benchmark runs
+ * headless:
+ *
+ * java -Djava.awt.headless=true -cp target/classes:target/test-classes com.staqueue.EdtUpdateBenchmark
+ */
+public class EdtUpdateBenchmark {
+
+    private static final int WIDTH = 1400, HEIGHT = 900;
+    private static final int WARMUP_OPS = 2_000;
+    private static final int MEASURED_OPS = 5_000;
+
+    // Dirty rectangles and invalidated components reported since the last clear
+    private static class RecordingRepaintManager extends RepaintManager {
+        final List<JComponent> dirty = new ArrayList<>();
+        final List<Rectangle> rects = new ArrayList<>();
+        final List<JComponent> invalid = new ArrayList<>();
+
+        @Override
+        public void addDirtyRegion(JComponent c, int x, int y, int w, int h) {
+            if (w > 0 && h > 0) {
+                dirty.add(c);
+                rects.add(new Rectangle(x, y, w, h));
+            }
+        }
+
+        @Override
+        public void addInvalidComponent(JComponent c) {
+            invalid.add(c);
+        }
+
+        void clear() {
+            dirty.clear();
+            rects.clear();
+            invalid.clear();
+        }
+    }
+
+    private interface Op {
+        void run();
+    }
+
+    public static void main(String[] args) throws Exception {
+        RecordingRepaintManager manager = new RecordingRepaintManager();
+        SwingUtilities.invokeAndWait(() -> {
+            RepaintManager.setCurrentManager(manager);
+
+            StackFrame stack = new StackFrame(1, true);
+            report("Stack", stack, stack.stackPanel, manager,
+                    () -> stack.stackDisplay.random(stack.journal, 0, true));
+
+            QueueFrame queue = new QueueFrame();
+            report("Queue", queue, queue.qPanel, manager, () -> queue.qDisplay.random(queue.journal));
+        });
+        System.exit(0);
+    }
+
+    private static void report(String name, JPanel frame, JPanel tabPanel, RecordingRepaintManager manager, Op op) {
+        frame.setSize(WIDTH, HEIGHT);
+        layoutTree(frame);
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+
+        long[] full = run(frame, image, manager, () -> {
+            op.run();
+            tabPanel.updateUI();
+        });
+        long[] dirty = run(frame, image, manager, op);
+        System.out.printf("%-6s full revalidate: %s%n", name, summary(full));
+        System.out.printf("%-6s dirty rows:      %s%n", name, summary(dirty));
+    }
+
+    private static long[] run(JPanel frame, BufferedImage image, RecordingRepaintManager manager, Op op) {
+        long[] times = new long[MEASURED_OPS];
+        for (int i = -WARMUP_OPS; i < MEASURED_OPS; i++) {
+            manager.clear();
+            long t0 = System.nanoTime();
+            op.run();
+            relayout(frame, manager.invalid);
+            paintDirty(frame, manager, image);
+            long t = System.nanoTime() - t0;
+            if (i >= 0)
+                times[i] = t;
+        }
+        return times;
+    }
+
+    // Components without a peer never validate themselves, so the first
+    // layout is done by hand
+    private static void layoutTree(Container c) {
+        c.doLayout();
+        for (Component child : c.getComponents()) {
+            if (child instanceof Container)
+                layoutTree((Container) child);
+        }
+    }
+
+    // Lays out every container from the root down to each invalidated
+    // component, which is the path validate() would walk
+    private static void relayout(JPanel root, List<JComponent> invalid) {
+        Set<Container> done = new HashSet<>();
+        for (JComponent c : invalid) {
+            List<Container> path = new ArrayList<>();
+            for (Container p = c; p != null && p != root.getParent(); p = p.getParent())
+                path.add(p);
+            for (int i = path.size() - 1; i >= 0; i--) {
+                if (done.add(path.get(i)))
+                    path.get(i).doLayout();
+            }
+        }
+    }
+
+    // Paints each dirty rectangle from the root down, skipping rectangles
+    // another dirty rectangle already covers
+    private static void paintDirty(JPanel root, RecordingRepaintManager manager, BufferedImage image) {
+        List<Rectangle> areas = new ArrayList<>();
+        for (int i = 0; i < manager.rects.size(); i++) {
+            JComponent c = manager.dirty.get(i);
+            if (c == root || SwingUtilities.isDescendingFrom(c, root))
+                areas.add(SwingUtilities.convertRectangle(c, manager.rects.get(i), root));
+        }
+        for (int i = 0; i < areas.size(); i++) {
+            Rectangle r = areas.get(i);
+            boolean covered = false;
+            for (int j = 0; j < areas.size() && !covered; j++)
+                covered = j != i && areas.get(j).contains(r) && (!r.equals(areas.get(j)) || j < i);
+            if (covered)
+                continue;
+            Graphics2D g = image.createGraphics();
+            g.clipRect(r.x, r.y, r.width, r.height);
+            root.paint(g);
+            g.dispose();
+        }
+    }
+
+    private static String summary(long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        long sum = 0;
+        for (long t : sorted)
+            sum += t;
+        double mean = sum / (double) sorted.length;
+        return String.format("mean %8.1f us   p50 %8.1f us   p99 %8.1f us   (%,.0f ops/s of EDT time)",
+                mean / 1e3, sorted[sorted.length / 2] / 1e3, sorted[sorted.length * 99 / 100] / 1e3, 1e9 / mean);
+    }
+}
@@ -0,0 +1,293 @@
+package com.staqueue;
+
+import java.util.Arrays;
+
+/**
+ * Binary search tree over int keys with its nodes in parallel int arrays
+ * (key, left, right, parent, x, y) instead of one object per node.
+ *
+ * A node is an index into the arrays and NIL is the empty child. Removed
+ * nodes go on a free list threaded through left[] and later inserts take
+ * them back, so a tree that changes in place stops allocating once the
+ * arrays have grown to its largest size. A walk down the tree reads a few
+ * int arrays instead of following references to objects spread over the
+ * heap, and the garbage collector has a handful of arrays to trace rather
+ * than a node per key.
+ *
+ * The operations are those of the BST tab in plain mode: duplicates are
+ * ignored, keys past either end of the range attach to the smallest or
+ * largest node without a walk, and a node with two children takes its
+ * successor's key. Nothing recurses, so degenerate trees of any size are
+ * fine. layout() places nodes in in-order slots, one level per depth.
+ *
+ * It is not part of the app: the BST tab keeps its node objects, which its
+ * animations and balancing hold on to. This is the array layout that
+ * BstStorageBenchmark and BTreeBenchmark measure against them.
+ */
+final class IntBst {
+
+    static final int NIL = -1;
+
+    private int[] key, left, right, parent, x, y;
+    private int root = NIL, lowest = NIL, highest = NIL;
+    private int used; // slots handed out so far, free ones included
+    private int free = NIL; // head of the free list
+    private int size;
+    private int[] stack = new int[64]; // scratch for the walks
+
+    IntBst() {
+        this(16);
+    }
+
+    IntBst(int capacity) {
+        capacity = Math.max(1, capacity);
+        key = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+        x = new int[capacity];
+        y = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int root() {
+        return root;
+    }
+
+    int key(int n) {
+        return key[n];
+    }
+
+    int left(int n) {
+        return left[n];
+    }
+
+    int right(int n) {
+        return right[n];
+    }
+
+    int parent(int n) {
+        return parent[n];
+    }
+
+    // Position from the last layout()
+    int x(int n) {
+        return x[n];
+    }
+
+    int y(int n) {
+        return y[n];
+    }
+
+    // The node with the key, or NIL
+    int find(int k) {
+        int n = root;
+        while (n != NIL && key[n] != k)
+            n = k < key[n] ? left[n] : right[n];
+        return n;
+    }
+
+    boolean contains(int k) {
+        return find(k) != NIL;
+    }
+
+    // Adds the key; false if it was already there
+    boolean insert(int k) {
+        if (root == NIL) {
+            root = lowest = highest = allocate(k, NIL);
+            return true;
+        }
+        if (k > key[highest]) {
+            int n = allocate(k, highest);
+            right[highest] = n;
+            highest = n;
+            return true;
+        }
+        if (k < key[lowest]) {
+            int n = allocate(k, lowest);
+            left[lowest] = n;
+            lowest = n;
+            return true;
+        }
+        int cur = root;
+        while (true) {
+            if (k == key[cur])
+                return false;
+            int next = k < key[cur] ? left[cur] : right[cur];
+            if (next == NIL)
+                break;
+            cur = next;
+        }
+        int n = allocate(k, cur);
+        if (k < key[cur])
+            left[cur] = n;
+        else
+            right[cur] = n;
+        return true;
+    }
+
+    // Removes the key; false if it was not there
+    boolean delete(int k) {
+        int n = find(k);
+        if (n == NIL)
+            return false;
+        if (left[n] != NIL && right[n] != NIL) {
+            int succ = right[n];
+            while (left[succ] != NIL)
+                succ = left[succ];
+            key[n] = key[succ];
+            n = succ;
+        }
+        int child = left[n] != NIL ? left[n] : right[n];
+        int p = parent[n];
+        if (p == NIL)
+            root = child;
+        else if (left[p] == n)
+            left[p] = child;
+        else
+            right[p] = child;
+        if (child != NIL)
+            parent[child] = p;
+        if (n == lowest)
+            lowest = child != NIL ? extreme(child, left) : p;
+        if (n == highest)
+            highest = child != NIL ? extreme(child, right) : p;
+        left[n] = free;
+        free = n;
+        size--;
+        return true;
+    }
+
+    void clear() {
+        root = lowest = highest = free = NIL;
+        used = size = 0;
+    }
+
+    // Keys in ascending order
+    int[] inorder() {
+        int[] out = new int[size];
+        int count = 0, depth = 0, n = root;
+        while (n != NIL || depth > 0) {
+            while (n != NIL) {
+                push(depth++, n);
+                n = left[n];
+            }
+            n = stack[--depth];
+            out[count++] = key[n];
+            n = right[n];
+        }
+        return out;
+    }
+
+    // Writes the keys in [lo, hi] in order to out, which may be null to only
+    // count them; O(height + k)
+    int range(int lo, int hi, int[] out) {
+        int count = 0, depth = 0, n = root;
+        while (true) {
+            while (n != NIL) {
+                if (key[n] < lo) {
+                    n = right[n]; // nothing on the left is in range
+                } else {
+                    push(depth++, n);
+                    n = left[n];
+                }
+            }
+            if (depth == 0)
+                return count;
+            n = stack[--depth];
+            if (key[n] > hi)
+                return count;
+            if (out != null)
+                out[count] = key[n];
+            count++;
+            n = right[n];
+        }
+    }
+
+    // Levels on the longest root to leaf path
+    int height() {
+        int best = 0, depth = 0;
+        // y[] holds each node's level for the duration of the walk
+        if (root != NIL) {
+            y[root] = 1;
+            push(depth++, root);
+        }
+        while (depth > 0) {
+            int n = stack[--depth];
+            best = Math.max(best, y[n]);
+            if (left[n] != NIL) {
+                y[left[n]] = y[n] + 1;
+                push(depth++, left[n]);
+            }
+            if (right[n] != NIL) {
+                y[right[n]] = y[n] + 1;
+                push(depth++, right[n]);
+            }
+        }
+        return best;
+    }
+
+    // x = left + in-order index * slot, y = top + depth * level
+    void layout(int leftX, int slot, int top, int level) {
+        int index = 0, depth = 0, n = root;
+        if (n != NIL)
+            y[n] = top;
+        while (n != NIL || depth > 0) {
+            while (n != NIL) {
+                push(depth++, n);
+                if (left[n] != NIL)
+                    y[left[n]] = y[n] + level;
+                n = left[n];
+            }
+            n = stack[--depth];
+            x[n] = leftX + index++ * slot;
+            if (right[n] != NIL)
+                y[right[n]] = y[n] + level;
+            n = right[n];
+        }
+    }
+
+    private int allocate(int k, int p) {
+        int n;
+        if (free != NIL) {
+            n = free;
+            free = left[n];
+        } else {
+            if (used == key.length)
+                grow();
+            n = used++;
+        }
+        key[n] = k;
+        left[n] = right[n] = NIL;
+        parent[n] = p;
+        size++;
+        return n;
+    }
+
+    private void grow() {
+        int cap = (int) Math.min(Integer.MAX_VALUE - 8, key.length + (key.length >> 1) + 16L);
+        if (cap <= key.length)
+            throw new IllegalStateException("IntBst is full at " + key.length + " nodes");
+        key = Arrays.copyOf(key, cap);
+        left = Arrays.copyOf(left, cap);
+        right = Arrays.copyOf(right, cap);
+        parent = Arrays.copyOf(parent, cap);
+        x = Arrays.copyOf(x, cap);
+        y = Arrays.copyOf(y, cap);
+    }
+
+    private int extreme(int n, int[] side) {
+        while (side[n] != NIL)
+            n = side[n];
+        return n;
+    }
+
+    private void push(int depth, int n) {
+        if (depth == stack.length)
+            stack = Arrays.copyOf(stack, 2 * depth);
+        stack[depth] = n;
+    }
+}
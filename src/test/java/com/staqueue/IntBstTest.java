@@ -0,0 +1,131 @@
+package com.staqueue;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * IntBst: inserts and deletes against a TreeSet, reuse of freed slots, and
+ * the smallest and largest nodes the end-of-range inserts attach to.
+ */
+class IntBstTest {
+
+    @Test
+    void matchesTreeSet() {
+        Random rnd = new Random(11);
+        IntBst bst = new IntBst(4);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int op = 0; op < 20_000; op++) {
+            int k = rnd.nextInt(500);
+            if (rnd.nextInt(3) > 0)
+                assertEquals(expected.add(k), bst.insert(k), "insert " + k);
+            else
+                assertEquals(expected.remove(k), bst.delete(k), "delete " + k);
+            if (op % 50 == 0)
+                check(bst, expected);
+        }
+        check(bst, expected);
+        int[] range = new int[bst.size()];
+        int n = bst.range(100, 200, range);
+        assertEquals(expected.subSet(100, true, 200, true).size(), n);
+        for (int k : expected.subSet(100, true, 200, true))
+            assertTrue(java.util.Arrays.binarySearch(range, 0, n, k) >= 0, "range misses " + k);
+        bst.clear();
+        assertEquals(0, bst.size());
+        assertEquals(IntBst.NIL, bst.root());
+    }
+
+    // Freed slots come back before the arrays grow past the tree's peak size
+    @Test
+    void reusesFreedSlots() {
+        IntBst bst = new IntBst(1);
+        for (int k = 0; k < 100; k++)
+            bst.insert(k * 2);
+        int[] slots = new int[100];
+        for (int k = 0; k < 100; k++)
+            slots[k] = bst.find(k * 2);
+        TreeSet<Integer> freed = new TreeSet<>();
+        for (int k = 0; k < 100; k += 3) {
+            freed.add(bst.find(k * 2));
+            assertTrue(bst.delete(k * 2));
+        }
+        for (int k = 0; k < 100; k += 3) {
+            assertTrue(bst.insert(k * 2 + 1));
+            assertTrue(freed.remove(bst.find(k * 2 + 1)), "new node in a fresh slot");
+        }
+        assertTrue(freed.isEmpty());
+        for (int k = 0; k < 100; k++)
+            if (k % 3 != 0)
+                assertEquals(slots[k], bst.find(k * 2), "surviving node moved");
+    }
+
+    // After the smallest or largest node goes, the next key past that end
+    // must hang off the new end node, not the freed one
+    @Test
+    void tracksEndsAcrossDeletes() {
+        IntBst bst = new IntBst();
+        for (int k : new int[] { 50, 30, 70, 20, 40, 60, 80, 75 })
+            bst.insert(k);
+
+        assertTrue(bst.delete(80)); // leaf with a left child: 75 takes over
+        assertTrue(bst.insert(90));
+        assertEquals(bst.find(75), bst.parent(bst.find(90)));
+
+        assertTrue(bst.delete(90)); // leaf: its parent becomes the largest
+        assertTrue(bst.delete(75));
+        assertTrue(bst.insert(95));
+        assertEquals(bst.find(70), bst.parent(bst.find(95)));
+
+        assertTrue(bst.delete(20)); // leaf: its parent becomes the smallest
+        assertTrue(bst.insert(10));
+        assertEquals(bst.find(30), bst.parent(bst.find(10)));
+
+        assertTrue(bst.delete(30)); // two children: 40's key moves up, 10 stays smallest
+        assertTrue(bst.insert(5));
+        assertEquals(bst.find(10), bst.parent(bst.find(5)));
+
+        assertTrue(bst.delete(50)); // root with two children
+        assertArrayEquals(new int[] { 5, 10, 40, 60, 70, 95 }, bst.inorder());
+        for (int k : new int[] { 5, 10, 40, 60, 70, 95 })
+            assertTrue(bst.delete(k));
+        assertEquals(IntBst.NIL, bst.root());
+        assertTrue(bst.insert(1)); // ends reset with the empty tree
+        assertTrue(bst.insert(2));
+        assertTrue(bst.insert(0));
+        assertArrayEquals(new int[] { 0, 1, 2 }, bst.inorder());
+        assertFalse(bst.contains(95));
+    }
+
+    private static void check(IntBst bst, TreeSet<Integer> expected) {
+        int[] keys = new int[expected.size()];
+        int i = 0;
+        for (int k : expected)
+            keys[i++] = k;
+        assertArrayEquals(keys, bst.inorder());
+        assertEquals(expected.size(), bst.size());
+        if (bst.root() != IntBst.NIL)
+            assertEquals(IntBst.NIL, bst.parent(bst.root()));
+        for (int k : expected) {
+            int n = bst.find(k);
+            for (int c : new int[] { bst.left(n), bst.right(n) })
+                if (c != IntBst.NIL)
+                    assertEquals(n, bst.parent(c), "parent link under " + k);
+        }
+        if (!expected.isEmpty()) {
+            // the end inserts must land beside the real ends
+            int below = expected.first() - 1, above = expected.last() + 1;
+            assertTrue(bst.insert(below));
+            assertEquals(bst.find(expected.first()), bst.parent(bst.find(below)));
+            assertTrue(bst.insert(above));
+            assertEquals(bst.find(expected.last()), bst.parent(bst.find(above)));
+            bst.delete(below);
+            bst.delete(above);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.staqueue;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LatencyHistogram's bucket math at every bucket edge, and percentiles read
+ * back from recorded values.
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void smallValuesHaveTheirOwnBuckets() {
+        for (int v = 0; v < 16; v++) {
+            assertEquals(v, LatencyHistogram.index(v));
+            assertEquals(v, LatencyHistogram.upperBound(v));
+        }
+    }
+
+    // Each bucket ends one below where the next begins, and the values on
+    // either side of an edge land in neighbouring buckets
+    @Test
+    void bucketEdgesRoundTrip() {
+        int last = LatencyHistogram.index(Long.MAX_VALUE);
+        assertTrue(last < LatencyHistogram.BUCKETS);
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(last));
+        for (int i = 0; i < last; i++) {
+            long top = LatencyHistogram.upperBound(i);
+            assertEquals(i, LatencyHistogram.index(top), "top of bucket " + i);
+            assertEquals(i + 1, LatencyHistogram.index(top + 1), "bottom of bucket " + (i + 1));
+            if (i >= 16) { // a bucket is at most 1/16 of its values wide
+                long bottom = LatencyHistogram.upperBound(i - 1) + 1;
+                assertTrue((top - bottom + 1) * 16 <= bottom, "bucket " + i + " too wide");
+            }
+        }
+    }
+
+    @Test
+    void percentilesWithinABucket() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 1000; v++)
+            h.record(v * 1000); // 1 us .. 1 ms
+        h.record(-5); // counted as 0
+        long[] counts = h.snapshotAndReset();
+        assertEquals(1001, LatencyHistogram.count(counts));
+        assertEquals(0, LatencyHistogram.count(h.snapshotAndReset()));
+        for (double p : new double[] { 50, 99, 99.9 }) {
+            long exact = (long) Math.ceil(1001 * p / 100) - 1; // the value at that rank, in us
+            long got = LatencyHistogram.percentile(counts, p);
+            assertTrue(got >= exact * 1000 && got <= exact * 1000 * 17 / 16, "p" + p + " = " + got);
+        }
+        assertEquals(0, LatencyHistogram.percentile(new long[LatencyHistogram.BUCKETS], 50));
+    }
+}
@@ -0,0 +1,93 @@
+package com.staqueue;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * MpmcQueue: order and the full and empty edges from one thread, then
+ * several producers and consumers at once.
+ */
+class MpmcQueueTest {
+
+    @Test
+    void fifoAndFullEmptyAtCapacity() {
+        MpmcQueue q = new MpmcQueue(3);
+        assertEquals(4, q.capacity()); // rounded up to a power of two
+        assertEquals(MessageQueue.EMPTY, q.poll());
+        long next = 0, expect = 0;
+        for (int lap = 0; lap < 5; lap++) {
+            for (int i = 0; i < q.capacity(); i++)
+                assertTrue(q.offer(next++));
+            assertFalse(q.offer(-1), "offer into a full ring");
+            assertEquals(expect++, q.poll());
+            assertTrue(q.offer(next++)); // reuses the slot just freed
+            assertFalse(q.offer(-1));
+            for (int i = 0; i < q.capacity(); i++)
+                assertEquals(expect++, q.poll());
+            assertEquals(MessageQueue.EMPTY, q.poll());
+        }
+    }
+
+    // Every value arrives exactly once, and each consumer sees any one
+    // producer's values in the order they were offered
+    @Test
+    void producersAndConsumers() throws Exception {
+        final int producers = 4, consumers = 4, perProducer = 250_000;
+        final int total = producers * perProducer;
+        MpmcQueue q = new MpmcQueue(128);
+        AtomicIntegerArray seen = new AtomicIntegerArray(total);
+        AtomicLong taken = new AtomicLong();
+        Throwable[] failure = new Throwable[1];
+        Thread[] threads = new Thread[producers + consumers];
+        for (int p = 0; p < producers; p++) {
+            final long base = (long) p * perProducer;
+            threads[p] = new Thread(() -> {
+                for (long i = 0; i < perProducer; i++)
+                    while (!q.offer(base + i))
+                        Thread.yield();
+            });
+        }
+        for (int c = 0; c < consumers; c++) {
+            threads[producers + c] = new Thread(() -> {
+                long[] last = new long[producers];
+                java.util.Arrays.fill(last, -1);
+                while (taken.get() < total) {
+                    long v = q.poll();
+                    if (v == MessageQueue.EMPTY) {
+                        Thread.yield();
+                        continue;
+                    }
+                    taken.incrementAndGet();
+                    int from = (int) (v / perProducer);
+                    if (v <= last[from] || seen.getAndIncrement((int) v) != 0) {
+                        synchronized (failure) {
+                            failure[0] = new AssertionError("value " + v + " out of order or repeated");
+                        }
+                        return;
+                    }
+                    last[from] = v;
+                }
+            });
+        }
+        for (Thread t : threads) {
+            t.setDaemon(true); // a failed run must not keep the JVM alive
+            t.start();
+        }
+        for (Thread t : threads)
+            t.join(60_000);
+        synchronized (failure) {
+            if (failure[0] != null)
+                throw new AssertionError(failure[0]);
+        }
+        assertEquals(total, taken.get());
+        for (int v = 0; v < total; v++)
+            assertEquals(1, seen.get(v), "value " + v);
+        assertEquals(MessageQueue.EMPTY, q.poll());
+    }
+}
@@ -0,0 +1,98 @@
+package com.staqueue;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * OperationJournal: undo and redo order, redo history dropped by a new
+ * record, and eviction of the oldest entries once maxDepth is reached.
+ */
+class OperationJournalTest {
+
+    @Test
+    void undoAndRedoStepOverTheSameEntries() {
+        OperationJournal j = new OperationJournal(100);
+        for (int i = 0; i < 40; i++) // past the starting capacity
+            j.record(i % 2, i);
+        for (int i = 39; i >= 0; i--) {
+            assertEquals(i % 2, j.undo());
+            assertEquals(i, j.value());
+        }
+        assertFalse(j.canUndo());
+        assertThrows(IllegalStateException.class, j::undo);
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i % 2, j.redo());
+            assertEquals(i, j.value());
+        }
+        assertFalse(j.canRedo());
+        assertThrows(IllegalStateException.class, j::redo);
+    }
+
+    @Test
+    void recordClearsRedo() {
+        OperationJournal j = new OperationJournal(8);
+        for (int i = 0; i < 5; i++)
+            j.record(OperationJournal.PUSH, i);
+        j.undo();
+        j.undo();
+        assertEquals(2, j.redoDepth());
+        j.record(OperationJournal.POP, 99);
+        assertFalse(j.canRedo());
+        assertEquals(4, j.undoDepth());
+        assertEquals(OperationJournal.POP, j.undo());
+        assertEquals(99, j.value());
+        assertEquals(OperationJournal.PUSH, j.undo());
+        assertEquals(2, j.value()); // 3 and 4 are gone
+    }
+
+    // At maxDepth the oldest entries go; undo reaches back exactly maxDepth
+    // entries, through the wrap of the ring
+    @Test
+    void undoAfterEviction() {
+        OperationJournal j = new OperationJournal(5);
+        for (int i = 0; i < 13; i++)
+            j.record(OperationJournal.PUSH, i);
+        assertEquals(5, j.undoDepth());
+        for (int i = 12; i >= 8; i--) {
+            j.undo();
+            assertEquals(i, j.value());
+        }
+        assertFalse(j.canUndo());
+
+        // redo back to the top, then undo part way and record over it
+        for (int i = 0; i < 5; i++)
+            j.redo();
+        j.undo();
+        j.undo();
+        j.record(OperationJournal.POP, 100);
+        j.record(OperationJournal.POP, 101);
+        j.record(OperationJournal.POP, 102); // evicts 8
+        assertEquals(5, j.undoDepth());
+        int[] expect = { 102, 101, 100, 10, 9 };
+        for (int v : expect) {
+            j.undo();
+            assertEquals(v, j.value());
+        }
+        assertFalse(j.canUndo());
+        assertEquals(5, j.redoDepth());
+    }
+
+    @Test
+    void clearAndDepth() {
+        OperationJournal j = new OperationJournal(3);
+        assertEquals(3, j.maxDepth());
+        j.record(OperationJournal.PUSH, 1);
+        j.undo();
+        j.clear();
+        assertFalse(j.canUndo() || j.canRedo());
+        j.record(OperationJournal.PUSH, 7);
+        assertTrue(j.canUndo());
+        j.undo();
+        assertEquals(7, j.value());
+        assertThrows(IllegalArgumentException.class, () -> new OperationJournal(0));
+    }
+}
@@ -0,0 +1,148 @@
+package com.staqueue;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Queue: order kept across growing and shrinking while the elements wrap
+ * around the array, the gap between the grow and shrink points, the undo
+ * helpers, and the MAX_CAPACITY limit.
+ */
+class QueueTest {
+
+    @Test
+    void wrapAroundAcrossGrowAndShrink() {
+        Queue q = new Queue(4);
+        ArrayDeque<Integer> expected = new ArrayDeque<>();
+        for (int i = 0; i < 3; i++)
+            insert(q, expected, i);
+        delete(q, expected);
+        delete(q, expected);
+        for (int i = 3; i < 6; i++)
+            insert(q, expected, i); // front at slot 2, rear back at slot 0
+        assertTrue(q.isWrapped());
+        assertEquals(4, q.size);
+        insert(q, expected, 6); // grows while wrapped
+        assertEquals(8, q.size);
+        assertEquals(1, q.resizes);
+        check(q, expected);
+
+        insert(q, expected, 7);
+        insert(q, expected, 8);
+        for (int i = 0; i < 4; i++)
+            delete(q, expected); // 3 left, in slots 4..6
+        insert(q, expected, 9);
+        delete(q, expected);
+        insert(q, expected, 10);
+        delete(q, expected); // slots 6, 7 and 0
+        assertTrue(q.isWrapped());
+        assertEquals(8, q.size);
+        delete(q, expected); // a quarter full: shrinks while wrapped
+        assertEquals(4, q.size);
+        assertEquals(2, q.resizes);
+        check(q, expected);
+    }
+
+    @Test
+    void matchesArrayDeque() {
+        Queue q = new Queue(2);
+        ArrayDeque<Integer> expected = new ArrayDeque<>();
+        Random rnd = new Random(3);
+        for (int op = 0; op < 50_000; op++) {
+            // long runs each way so the array grows and shrinks many times
+            boolean grow = (op / 2_000) % 2 == 0;
+            if (expected.isEmpty() || rnd.nextInt(10) < (grow ? 7 : 3))
+                insert(q, expected, rnd.nextInt());
+            else
+                delete(q, expected);
+            assertEquals(1, Integer.bitCount(q.size), "capacity not a power of two");
+            assertTrue(q.size >= 2 && q.nElts <= q.size);
+            if (q.size > 2)
+                assertTrue(q.nElts > q.size / 4, "sparse array not shrunk");
+            if (op % 100 == 0)
+                check(q, expected);
+        }
+    }
+
+    // Full at 4 grows to 8; it takes a drop to 2 to shrink again, so
+    // flipping between 4 and 5 elements resizes once, not every time
+    @Test
+    void noResizeThrashAtTheBoundary() {
+        Queue q = new Queue(4);
+        for (int i = 0; i < 4; i++)
+            q.insert(i);
+        for (int i = 0; i < 100; i++) {
+            q.insert(i);
+            q.del();
+        }
+        assertEquals(1, q.resizes);
+        assertEquals(8, q.size);
+    }
+
+    @Test
+    void undoHelpers() {
+        Queue q = new Queue(4);
+        ArrayDeque<Integer> expected = new ArrayDeque<>();
+        for (int i = 0; i < 4; i++)
+            insert(q, expected, i);
+        int front = q.del();
+        q.restoreFront(front); // undo of del
+        check(q, expected);
+        q.insert(9); // full: grows, front back at slot 0
+        q.restoreFront(-1); // wraps to the last slot
+        expected.addLast(9);
+        expected.addFirst(-1);
+        assertTrue(q.isWrapped());
+        check(q, expected);
+        assertEquals(9, q.removeRear()); // undo of insert
+        expected.removeLast();
+        check(q, expected);
+        while (!expected.isEmpty())
+            assertEquals((int) expected.removeLast(), q.removeRear());
+        assertTrue(q.isEmpty());
+        assertThrows(IllegalStateException.class, q::removeRear);
+        assertThrows(IllegalStateException.class, q::del);
+    }
+
+    // A real queue of 2^30 ints needs 4 GB, so the counters are set to what
+    // one would have
+    @Test
+    void refusesToGrowPastMaxCapacity() {
+        Queue q = new Queue(2);
+        assertFalse(q.isFull());
+        q.size = Queue.MAX_CAPACITY;
+        q.nElts = Queue.MAX_CAPACITY;
+        assertTrue(q.isFull());
+        assertThrows(IllegalStateException.class, () -> q.insert(1));
+        assertThrows(IllegalStateException.class, () -> q.restoreFront(1));
+        assertEquals(Queue.MAX_CAPACITY, q.size);
+    }
+
+    private static void insert(Queue q, ArrayDeque<Integer> expected, int v) {
+        q.insert(v);
+        expected.addLast(v);
+    }
+
+    private static void delete(Queue q, ArrayDeque<Integer> expected) {
+        assertEquals((int) expected.removeFirst(), q.del());
+    }
+
+    private static void check(Queue q, ArrayDeque<Integer> expected) {
+        assertEquals(expected.size(), q.nElts);
+        Iterator<Integer> it = expected.iterator();
+        for (int k = 0; k < q.nElts; k++)
+            assertEquals((int) it.next(), q.peek(k), "element " + k);
+        if (q.nElts > 0) {
+            assertEquals((int) expected.peekFirst(), q.getVal(q.front));
+            assertEquals((int) expected.peekLast(), q.getVal(q.rear));
+        }
+    }
+}
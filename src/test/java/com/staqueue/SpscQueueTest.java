@@ -0,0 +1,81 @@
+package com.staqueue;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SpscQueue: order, the full and empty edges over several laps of the ring,
+ * and one producer thread streaming to one consumer thread.
+ */
+class SpscQueueTest {
+
+    @Test
+    void fifoAndFullEmptyAtCapacity() {
+        SpscQueue q = new SpscQueue(5);
+        assertEquals(8, q.capacity()); // rounded up to a power of two
+        assertEquals(MessageQueue.EMPTY, q.poll());
+        long next = 0, expect = 0;
+        for (int lap = 0; lap < 5; lap++) {
+            for (int i = 0; i < q.capacity(); i++)
+                assertTrue(q.offer(next++));
+            assertFalse(q.offer(-1), "offer into a full ring");
+            for (int i = 0; i < q.capacity() - 3; i++)
+                assertEquals(expect++, q.poll());
+            for (int i = 0; i < q.capacity() - 3; i++)
+                assertTrue(q.offer(next++)); // wraps past the end of the array
+            assertFalse(q.offer(-1));
+            for (int i = 0; i < q.capacity(); i++)
+                assertEquals(expect++, q.poll());
+            assertEquals(MessageQueue.EMPTY, q.poll());
+        }
+    }
+
+    @Test
+    void drainTakesWhatIsThere() {
+        SpscQueue q = new SpscQueue(8);
+        for (int i = 0; i < 6; i++)
+            q.offer(i);
+        long[] dst = new long[4];
+        assertEquals(4, q.drain(dst, 4));
+        assertEquals(3, dst[3]);
+        assertEquals(2, q.drain(dst, 4));
+        assertEquals(5, dst[1]);
+        assertEquals(0, q.drain(dst, 4));
+    }
+
+    // The consumer must see 0, 1, 2, ... with nothing lost or repeated; the
+    // small ring keeps both sides running into the full and empty checks
+    @Test
+    void oneProducerOneConsumer() throws Exception {
+        final int n = 2_000_000;
+        SpscQueue q = new SpscQueue(64);
+        Thread producer = new Thread(() -> {
+            for (long i = 0; i < n; i++)
+                while (!q.offer(i))
+                    Thread.yield();
+        });
+        producer.start();
+        long[] dst = new long[16];
+        long expect = 0;
+        while (expect < n) {
+            int got = (expect & 1) == 0 ? q.drain(dst, dst.length) : poll(q, dst);
+            if (got == 0)
+                Thread.yield();
+            for (int i = 0; i < got; i++)
+                assertEquals(expect++, dst[i]);
+        }
+        producer.join();
+        assertEquals(MessageQueue.EMPTY, q.poll());
+    }
+
+    private static int poll(SpscQueue q, long[] dst) {
+        long v = q.poll();
+        if (v == MessageQueue.EMPTY)
+            return 0;
+        dst[0] = v;
+        return 1;
+    }
+}